@@ -3,6 +3,7 @@ import client.ChessClient;
 import client.ChessStateManager;
 import client.MenuUI;
 import ui.EscapeSequences;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class Main {
@@ -10,8 +11,8 @@ public class Main {
     private final Scanner scanner;
     private final MenuUI menuUI;
 
-    public Main() {
-        this.client = new ChessClient(8080);
+    public Main(boolean binaryProtocol) {
+        this.client = new ChessClient(8080, binaryProtocol);
         this.scanner = new Scanner(System.in);
         this.menuUI = new MenuUI();
     }
@@ -40,6 +41,7 @@ public class Main {
     }
 
     public static void main(String[] args) {
-        new Main().run();
+        // --binary talks to the server in the compact binary protocol instead of JSON
+        new Main(Arrays.asList(args).contains("--binary")).run();
     }
 }
\ No newline at end of file
@@ -4,8 +4,12 @@ public class ChessClient {
     private final ChessStateManager stateManager;
 
     public ChessClient(int port) {
+        this(port, false);
+    }
+
+    public ChessClient(int port, boolean binaryProtocol) {
         String serverUrl = "http://localhost:" + port;
-        this.stateManager = new ChessStateManager(serverUrl);
+        this.stateManager = new ChessStateManager(serverUrl, binaryProtocol);
     }
 
     public String evaluateCommand(String command) {
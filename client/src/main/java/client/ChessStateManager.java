@@ -5,6 +5,7 @@ import model.AuthData;
 import model.GameData;
 import websocket.messages.ServerMessage;
 import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
 import websocket.messages.NotificationMessage;
 import websocket.messages.ErrorMessage;
 
@@ -23,11 +24,15 @@ public class ChessStateManager implements MessageHandler {
     private final Map<Integer, Integer> gameNumberToId = new HashMap<>();
 
     public ChessStateManager(String serverUrl) {
+        this(serverUrl, false);
+    }
+
+    public ChessStateManager(String serverUrl, boolean binaryProtocol) {
         String[] urlParts = serverUrl.split(":");
         int port = Integer.parseInt(urlParts[urlParts.length - 1]);
         this.server = new ServerFacade(port);
         this.uiManager = new UIManager();
-        this.connectionManager = new ConnectionManager(serverUrl, this);
+        this.connectionManager = new ConnectionManager(serverUrl, this, binaryProtocol);
         this.gameManager = new GameManager(connectionManager);
         this.commandProcessor = new CommandProcessor(gameManager, uiManager, connectionManager);
     }
@@ -99,6 +104,14 @@ public class ChessStateManager implements MessageHandler {
                 uiManager.drawChessBoard(gameMessage.getGame());
                 break;
 
+            case MOVE:
+                // Falls back to asking for the whole game if the move doesn't fit
+                if (gameManager.applyMove((MoveMessage) message)) {
+                    uiManager.clearScreen();
+                    uiManager.drawChessBoard(gameManager.getCurrentGame());
+                }
+                break;
+
             case NOTIFICATION:
                 NotificationMessage notification = (NotificationMessage) message;
                 uiManager.displayNotification(notification.getMessage());
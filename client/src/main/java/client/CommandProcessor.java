@@ -30,6 +30,8 @@ public class CommandProcessor {
                 case "leave" -> processLeave();
                 case "highlight" -> processHighlight(parts);
                 case "redraw" -> processRedraw();
+                case "hint" -> processHint();
+                case "ponder" -> processPonder(parts);
                 default -> uiManager.displayError("Unknown command. Type 'help' for available commands.");
             }
         } catch (Exception e) {
@@ -46,6 +48,8 @@ public class CommandProcessor {
             - leave               - Leave the current game
             - highlight <pos>     - Show legal moves for a piece
             - redraw             - Redraw the chess board
+            - hint               - Suggest a move
+            - ponder <on|off>    - Analyse in the background during the opponent's turn
             """);
     }
 
@@ -110,6 +114,37 @@ public class CommandProcessor {
         uiManager.drawChessBoard(gameManager.getCurrentGame());
     }
 
+    private void processHint() {
+        if (gameManager.getCurrentGame() == null) {
+            uiManager.displayError("No active game to analyse.");
+            return;
+        }
+        // Shown when the search finishes, so the prompt stays usable meanwhile
+        gameManager.getHint().whenComplete((hint, error) -> {
+            if (error != null) {
+                uiManager.displayError("Error finding a hint: " + error.getMessage());
+            } else if (hint == null) {
+                uiManager.displayError("No legal moves in this position.");
+            } else {
+                uiManager.displayMessage("Hint: " + formatPosition(hint.getStartPosition())
+                        + " " + formatPosition(hint.getEndPosition()));
+            }
+        });
+    }
+
+    private void processPonder(String[] parts) {
+        if (parts.length != 2 || !(parts[1].equals("on") || parts[1].equals("off"))) {
+            uiManager.displayError("Invalid ponder format. Use: ponder <on|off>");
+            return;
+        }
+        gameManager.setPondering(parts[1].equals("on"));
+        uiManager.displayMessage("Pondering " + (gameManager.isPondering() ? "enabled." : "disabled."));
+    }
+
+    private String formatPosition(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+
     private ChessPosition parsePosition(String algebraicPos) {
         if (algebraicPos == null || algebraicPos.length() != 2) {
             return null;
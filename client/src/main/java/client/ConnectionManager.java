@@ -2,6 +2,7 @@ package client;
 
 import com.google.gson.Gson;
 import websocket.commands.ConnectCommand;
+import websocket.commands.ResumeCommand;
 import websocket.commands.UserGameCommand;
 import client.WebSocketFacade;  // Update this import path based on where your WebSocketFacade is
 import websocket.messages.ErrorMessage;
@@ -10,15 +11,35 @@ import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
 public class ConnectionManager implements MessageHandler {
+    // Tries at resuming after a dropped connection; the wait between them
+    // doubles from the first up to the cap
+    private static final int RESUME_ATTEMPTS = 8;
+    private static final long RESUME_FIRST_WAIT_MILLIS = 250;
+    private static final long RESUME_MAX_WAIT_MILLIS = 8_000;
+
     private final String serverUrl;
     private final MessageHandler clientMessageHandler;
-    private WebSocketFacade webSocket;
+    private final boolean binaryProtocol;
+    // Replaced from the resuming thread, so volatile
+    private volatile WebSocketFacade webSocket;
     private String authToken;
     private final Gson gson;
 
+    // The game being watched and the last of its messages received, for resuming
+    private volatile Integer gameId;
+    private volatile long lastSequence;
+
     public ConnectionManager(String serverUrl, MessageHandler clientMessageHandler) {
+        this(serverUrl, clientMessageHandler, false);
+    }
+
+    /**
+     * @param binaryProtocol true to use the binary protocol rather than JSON
+     */
+    public ConnectionManager(String serverUrl, MessageHandler clientMessageHandler, boolean binaryProtocol) {
         this.serverUrl = serverUrl;
         this.clientMessageHandler = clientMessageHandler;
+        this.binaryProtocol = binaryProtocol;
         this.gson = new Gson();
     }
 
@@ -43,10 +64,12 @@ public class ConnectionManager implements MessageHandler {
             }
 
             // Create new WebSocket connection
-            webSocket = new WebSocketFacade(serverUrl, this);
+            webSocket = new WebSocketFacade(serverUrl, this, binaryProtocol);
+            this.gameId = gameId;
+            this.lastSequence = 0;
 
-            // Send connect command
-            ConnectCommand connectCommand = new ConnectCommand(authToken, gameId);
+            // Send connect command, asking for moves as deltas rather than whole games
+            ConnectCommand connectCommand = new ConnectCommand(authToken, gameId, true);
             sendCommand(connectCommand);
 
         } catch (Exception e) {
@@ -63,6 +86,7 @@ public class ConnectionManager implements MessageHandler {
 
     public void closeConnection() {
         try {
+            gameId = null;
             if (webSocket != null) {
                 webSocket.disconnect();
                 webSocket = null;
@@ -74,7 +98,73 @@ public class ConnectionManager implements MessageHandler {
 
     @Override
     public void handleMessage(ServerMessage message) {
-        // Simply forward the message to the client message handler
+        if (message.getSequence() != null) {
+            lastSequence = message.getSequence();
+        }
+        // Forward the message to the client message handler
         clientMessageHandler.handleMessage(message);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reconnects after a dropped connection and asks the server for only the
+     * messages missed in the meantime. A server that can't be reached is tried
+     * again a few times, waiting longer each time.
+     */
+    @Override
+    public void connectionLost(String reason) {
+        Integer game = gameId;
+        if (game == null) {
+            return;
+        }
+        System.out.println("Debug: Connection lost (" + reason + "), resuming game " + game);
+        // Off the WebSocket thread that reported the close
+        Thread.startVirtualThread(() -> resume(game));
+    }
+
+    private void resume(Integer game) {
+        long wait = RESUME_FIRST_WAIT_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            WebSocketFacade resumed = null;
+            try {
+                resumed = new WebSocketFacade(serverUrl, this, binaryProtocol);
+                if (!game.equals(gameId)) {
+                    // Left the game or moved on to another while reconnecting
+                    resumed.disconnect();
+                    return;
+                }
+                resumed.sendCommand(new ResumeCommand(authToken, game, lastSequence, true));
+                webSocket = resumed;
+                return;
+            } catch (Exception e) {
+                closeQuietly(resumed);
+                if (attempt == RESUME_ATTEMPTS) {
+                    if (game.equals(gameId)) {
+                        gameId = null;
+                    }
+                    System.err.println("Could not resume game: " + e.getMessage());
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                return;
+            }
+            wait = Math.min(wait * 2, RESUME_MAX_WAIT_MILLIS);
+            if (!game.equals(gameId)) {
+                return;
+            }
+        }
+    }
+
+    // Closed on purpose, so it doesn't report itself lost and start another resume
+    private static void closeQuietly(WebSocketFacade socket) {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.disconnect();
+        } catch (Exception ignored) {
+        }
+    }
+}
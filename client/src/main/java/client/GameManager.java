@@ -4,11 +4,14 @@ import chess.*;
 import model.GameData;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.ResignCommand;
+import websocket.commands.SyncCommand;
 import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
 
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages game state and operations for the chess client.
@@ -20,16 +23,39 @@ public class GameManager {
 
     // Track current game state
     private Integer currentGameId;
-    private ChessGame currentGame;
+    // Replaced, never changed in place, as the input thread reads it while messages arrive
+    private volatile ChessGame currentGame;
     private String currentPlayerColor;
     private final ConnectionManager connectionManager;
 
-    // Dependencies
+    // Optional background analysis while the opponent is to move
+    private final Ponderer ponderer;
+    private volatile boolean ponderingEnabled;
 
 
     public GameManager(ConnectionManager connectionManager) {
         this.connectionManager = connectionManager;
         this.activeGames = new HashMap<>();
+        this.ponderer = new Ponderer();
+    }
+
+    /**
+     * Turns background pondering on or off. While on, the client works out
+     * legal moves and hints for the likely replies during the opponent's turn.
+     *
+     * @param enabled true to ponder
+     */
+    public void setPondering(boolean enabled) {
+        this.ponderingEnabled = enabled;
+        if (!enabled) {
+            ponderer.cancel();
+        } else if (currentGame != null) {
+            startPondering();
+        }
+    }
+
+    public boolean isPondering() {
+        return ponderingEnabled;
     }
 
     /**
@@ -81,6 +107,9 @@ public class GameManager {
             throw new IllegalArgumentException("Invalid game update message");
         }
 
+        // Whatever was being pondered is out of date now
+        ponderer.cancel();
+
         // Update the current game state
         this.currentGame = message.getGame();
 
@@ -100,6 +129,95 @@ public class GameManager {
         if (currentGame.getBoard() == null) {
             throw new IllegalStateException("Invalid game state - board is null");
         }
+
+        if (ponderingEnabled) {
+            startPondering();
+        }
+    }
+
+    /**
+     * Plays a move received from the server on the local copy of the game.
+     * If the move does not follow on from the local game, or the resulting
+     * position differs from the server's, the full game is requested instead.
+     * The move is played on a copy, which replaces the current game only once
+     * it matches.
+     *
+     * @param message The MoveMessage describing the move
+     * @return true if the move was applied; false if the full game was requested
+     */
+    public boolean applyMove(MoveMessage message) {
+        if (currentGameId == null) {
+            return false;
+        }
+        ChessGame game = currentGame;
+        if (game == null) {
+            requestSync();
+            return false;
+        }
+
+        ponderer.cancel();
+        ChessGame next = new ChessGame(game);
+        boolean applied = false;
+        if (message.getPly() == next.getMoveHistory().size() + 1) {
+            try {
+                next.makeMove(message.getMove());
+                applied = next.snapshot().zobristKey() == message.getHash();
+            } catch (InvalidMoveException e) {
+                // Out of step with the server; resync below
+            }
+        }
+        if (!applied) {
+            System.out.println("Debug: Move did not match local game, requesting full state");
+            requestSync();
+            return false;
+        }
+        currentGame = next;
+
+        if (message.getStatus() == MoveMessage.GameStatus.CHECKMATE
+                || message.getStatus() == MoveMessage.GameStatus.STALEMATE) {
+            System.out.println("Game has ended");
+        }
+        if (ponderingEnabled) {
+            startPondering();
+        }
+        return true;
+    }
+
+    private void requestSync() {
+        try {
+            connectionManager.sendCommand(new SyncCommand(connectionManager.getAuthToken(), currentGameId));
+        } catch (Exception e) {
+            System.out.println("Error requesting game state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts pondering if the player is waiting on the opponent's move.
+     */
+    private void startPondering() {
+        ChessGame game = currentGame;
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        if (currentPlayerColor != null && turn != null && !isPlayersTurn(turn) && !isGameOver()) {
+            ponderer.ponder(game);
+        }
+    }
+
+    /**
+     * Suggests a move for the side to move, using the pondered result when
+     * there is one and otherwise searching in the background.
+     *
+     * @return completes with the suggested move, or null if there is no active game or no legal move
+     */
+    public CompletableFuture<ChessMove> getHint() {
+        ChessGame game = currentGame;
+        if (game == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Ponderer.Prepared prepared = ponderer.lookup(game);
+        if (prepared != null && prepared.hint() != null) {
+            return CompletableFuture.completedFuture(prepared.hint());
+        }
+        return ponderer.hint(game);
     }
 
 
@@ -185,6 +303,10 @@ public class GameManager {
             return null;
         }
 
+        Ponderer.Prepared prepared = ponderer.lookup(currentGame);
+        if (prepared != null && prepared.legalMoves().containsKey(position)) {
+            return prepared.legalMoves().get(position);
+        }
         return currentGame.validMoves(position);
     }
 
@@ -244,6 +366,7 @@ public class GameManager {
      * This is used when leaving a game or when a connection attempt fails.
      */
     public void clearGameState() {
+        ponderer.cancel();
         this.currentGameId = null;
         this.currentPlayerColor = null;
         this.currentGame = null;
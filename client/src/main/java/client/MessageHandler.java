@@ -4,4 +4,10 @@ import websocket.messages.ServerMessage;
 
 public interface MessageHandler {
     void handleMessage(ServerMessage message);
+
+    /**
+     * Called when the connection to the server drops without the client closing it.
+     */
+    default void connectionLost(String reason) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package client;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works ahead on a background thread while the opponent is thinking.
+ * For every reply the opponent could make, it precomputes the legal moves of
+ * each of our pieces and, time permitting, a suggested move, so highlighting
+ * and hints are ready as soon as the reply arrives. The opponent's most
+ * likely reply (the engine's choice for them) is prepared first.
+ * <p>
+ * Any new game state cancels the work in progress straight away. Hints for
+ * positions pondering did not cover are worked out on a thread of their own,
+ * so the input thread never waits on a search.
+ */
+public class Ponderer {
+    private static final int HINT_DEPTH = 4;
+    private static final long HINT_MILLIS = 500;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService hinter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Replaced for every position, so work still winding down for an earlier
+    // one only ever adds to a map nobody reads any more
+    private volatile Map<Long, Prepared> prepared = new ConcurrentHashMap<>();
+    // Bumped on every cancel; work started under an older generation stops
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Search running;
+
+    /**
+     * What was worked out in advance for one position.
+     *
+     * @param legalMoves the legal moves of each piece of the side to move
+     * @param hint       the engine's suggested move, or null if there was no time
+     */
+    public record Prepared(Map<ChessPosition, Collection<ChessMove>> legalMoves, ChessMove hint) {
+    }
+
+    /**
+     * Starts pondering on a position where the opponent is to move, replacing
+     * any earlier pondering.
+     *
+     * @param game The current game; it is copied, not kept
+     * @return completes when the work stops: true if everything was prepared,
+     * false if it was cancelled first
+     */
+    public synchronized CompletableFuture<Boolean> ponder(ChessGame game) {
+        long current = cancel();
+        Map<Long, Prepared> results = new ConcurrentHashMap<>();
+        prepared = results;
+        ChessGame position = copy(game);
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        worker.execute(() -> {
+            try {
+                done.complete(prepare(position, current, results));
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Stops any pondering in progress.
+     *
+     * @return the new generation, under which work may start again
+     */
+    public long cancel() {
+        long current = generation.incrementAndGet();
+        Search search = running;
+        if (search != null) {
+            search.stop();
+        }
+        return current;
+    }
+
+    /**
+     * Looks up the work done in advance for a position.
+     *
+     * @param game The game as it now stands
+     * @return the prepared results, or null if this position was not reached in time
+     */
+    public Prepared lookup(ChessGame game) {
+        return prepared.get(game.snapshot().zobristKey());
+    }
+
+    /**
+     * Works out a hint in the background, for positions pondering did not cover.
+     *
+     * @param game The game as it now stands; it is copied, not kept
+     * @return the suggested move, or null if there is no legal move
+     */
+    public CompletableFuture<ChessMove> hint(ChessGame game) {
+        ChessGame position = copy(game);
+        return CompletableFuture.supplyAsync(() -> {
+            Search search = new Search(position);
+            search.setTimeLimit(HINT_MILLIS);
+            return search.search(HINT_DEPTH).bestMove();
+        }, hinter);
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+        hinter.shutdownNow();
+    }
+
+    /**
+     * @return true if everything was prepared, false if cancelled part way
+     */
+    private boolean prepare(ChessGame position, long current, Map<Long, Prepared> results) {
+        List<ChessMove> replies = new ArrayList<>(position.legalMoveStream().toList());
+        ChessMove likely = search(position, current);
+        if (likely != null && replies.remove(likely)) {
+            replies.add(0, likely);
+        }
+
+        // Move sets are cheap, so get them for every reply before any hints
+        Map<ChessMove, ChessGame> after = new HashMap<>();
+        for (ChessMove reply : replies) {
+            if (generation.get() != current) {
+                return false;
+            }
+            ChessGame next = copy(position);
+            try {
+                next.makeMove(reply);
+            } catch (InvalidMoveException e) {
+                continue;
+            }
+            after.put(reply, next);
+            results.put(next.snapshot().zobristKey(), new Prepared(legalMoves(next), null));
+        }
+
+        for (ChessMove reply : replies) {
+            ChessGame next = after.get(reply);
+            // Mated or stalemated after this reply, so there is nothing to hint
+            if (next == null || next.legalMoveStream().findAny().isEmpty()) {
+                continue;
+            }
+            ChessMove hint = search(next, current);
+            if (generation.get() != current) {
+                return false;
+            }
+            if (hint == null) {
+                continue;
+            }
+            results.computeIfPresent(next.snapshot().zobristKey(),
+                    (key, moves) -> new Prepared(moves.legalMoves(), hint));
+        }
+        return true;
+    }
+
+    /**
+     * Searches on the worker thread so that {@link #cancel} can stop it.
+     *
+     * @return the best move, or null if cancelled or there is no legal move
+     */
+    private ChessMove search(ChessGame game, long current) {
+        Search search = new Search(game);
+        search.setTimeLimit(HINT_MILLIS);
+        // Publish before checking, so a cancel either sees this search or is seen here
+        running = search;
+        try {
+            if (generation.get() != current) {
+                return null;
+            }
+            SearchResult result = search.search(HINT_DEPTH);
+            return generation.get() == current ? result.bestMove() : null;
+        } finally {
+            running = null;
+        }
+    }
+
+    private static Map<ChessPosition, Collection<ChessMove>> legalMoves(ChessGame game) {
+        Map<ChessPosition, Collection<ChessMove>> moves = new HashMap<>();
+        ChessBoard board = game.getBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.put(position, game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(new ChessBoard(game.getBoard()));
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+}
@@ -1,25 +1,43 @@
 package client;
 
 import com.google.gson.Gson;
+import websocket.BinaryCodec;
 import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
 import javax.websocket.*;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 
 public class WebSocketFacade extends Endpoint {
     private Session session;
     private final MessageHandler messageHandler;
     private final Gson gson;
+    private final boolean binary;
+    // Set when we close the session ourselves, so the close isn't reported as a drop
+    private volatile boolean closing;
 
     public WebSocketFacade(String url, MessageHandler messageHandler) throws Exception {
+        this(url, messageHandler, false);
+    }
+
+    /**
+     * @param binary true to talk to the server in the binary protocol, which is
+     *               chosen when connecting and kept for the whole session
+     */
+    public WebSocketFacade(String url, MessageHandler messageHandler, boolean binary) throws Exception {
         try {
             url = url.replace("http", "ws");
-            URI socketURI = new URI(url + "/ws");
+            URI socketURI = new URI(url + "/ws" + (binary ? "?proto=" + BinaryCodec.PROTOCOL : ""));
             this.messageHandler = messageHandler;
             this.gson = new Gson();
+            this.binary = binary;
 
             WebSocketContainer container = ContainerProvider.getWebSocketContainer();
             this.session = container.connectToServer(this, socketURI);
@@ -27,8 +45,13 @@ public class WebSocketFacade extends Endpoint {
             this.session.addMessageHandler(new javax.websocket.MessageHandler.Whole<String>() {
                 @Override
                 public void onMessage(String message) {
-                    ServerMessage serverMessage = gson.fromJson(message, ServerMessage.class);
-                    messageHandler.handleMessage(serverMessage);
+                    messageHandler.handleMessage(decode(message));
+                }
+            });
+            this.session.addMessageHandler(new javax.websocket.MessageHandler.Whole<ByteBuffer>() {
+                @Override
+                public void onMessage(ByteBuffer message) {
+                    messageHandler.handleMessage(BinaryCodec.decodeMessage(message));
                 }
             });
         } catch (DeploymentException | IOException | URISyntaxException ex) {
@@ -36,15 +59,41 @@ public class WebSocketFacade extends Endpoint {
         }
     }
 
+    /**
+     * Decodes a server message as the subclass its type names, so handlers can
+     * read the message's fields.
+     */
+    private ServerMessage decode(String message) {
+        ServerMessage base = gson.fromJson(message, ServerMessage.class);
+        Class<? extends ServerMessage> type = switch (base.getServerMessageType()) {
+            case LOAD_GAME -> LoadGameMessage.class;
+            case ERROR -> ErrorMessage.class;
+            case NOTIFICATION -> NotificationMessage.class;
+            case MOVE -> MoveMessage.class;
+        };
+        return gson.fromJson(message, type);
+    }
+
     @Override
     public void onOpen(Session session, EndpointConfig endpointConfig) {
         // Required by Endpoint but can be empty
     }
 
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        if (!closing) {
+            messageHandler.connectionLost(closeReason.getReasonPhrase());
+        }
+    }
+
     public void sendCommand(UserGameCommand command) throws Exception {
         try {
-            String jsonCommand = gson.toJson(command);
-            this.session.getBasicRemote().sendText(jsonCommand);
+            if (binary) {
+                this.session.getBasicRemote().sendBinary(BinaryCodec.encode(command));
+            } else {
+                String jsonCommand = gson.toJson(command);
+                this.session.getBasicRemote().sendText(jsonCommand);
+            }
         } catch (IOException ex) {
             throw new Exception("Failed to send command: " + ex.getMessage());
         }
@@ -53,6 +102,7 @@ public class WebSocketFacade extends Endpoint {
     public void disconnect() throws Exception {
         try {
             if (session != null) {
+                closing = true;
                 session.close();
             }
         } catch (IOException ex) {
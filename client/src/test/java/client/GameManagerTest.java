@@ -0,0 +1,114 @@
+package client;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import websocket.commands.SyncCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameManagerTest {
+    private static final int GAME_ID = 7;
+
+    private final List<UserGameCommand> sent = new ArrayList<>();
+    private GameManager manager;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionManager connection = new ConnectionManager("http://localhost:0", null) {
+            @Override
+            public void sendCommand(UserGameCommand command) {
+                sent.add(command);
+            }
+        };
+        manager = new GameManager(connection);
+        manager.setCurrentGame(GAME_ID, "BLACK");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.clearGameState();
+    }
+
+    @Test
+    void appliesMoveToACopy() throws Exception {
+        ChessGame loaded = new ChessGame();
+        manager.updateGameState(new LoadGameMessage(loaded));
+        ChessGame server = new ChessGame();
+        ChessMove move = move(2, 5, 4, 5);
+        server.makeMove(move);
+
+        assertTrue(manager.applyMove(MoveMessage.after(server, move)));
+
+        ChessGame current = manager.getCurrentGame();
+        assertNotSame(loaded, current);
+        assertEquals(server.getBoard(), current.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, current.getTeamTurn());
+        // Whoever still holds the old game sees it unchanged
+        assertTrue(loaded.getMoveHistory().isEmpty());
+        assertEquals(new ChessGame().getBoard(), loaded.getBoard());
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void missedMoveAsksForTheWholeGame() throws Exception {
+        ChessGame loaded = new ChessGame();
+        manager.updateGameState(new LoadGameMessage(loaded));
+        ChessGame server = new ChessGame();
+        server.makeMove(move(2, 5, 4, 5));
+        ChessMove reply = move(7, 5, 5, 5);
+        server.makeMove(reply);
+
+        assertFalse(manager.applyMove(MoveMessage.after(server, reply)));
+
+        assertSame(loaded, manager.getCurrentGame());
+        assertSync();
+    }
+
+    @Test
+    void hashMismatchAsksForTheWholeGameAndKeepsTheOldOne() throws Exception {
+        ChessGame loaded = new ChessGame();
+        manager.updateGameState(new LoadGameMessage(loaded));
+        ChessGame server = new ChessGame();
+        ChessMove move = move(2, 5, 4, 5);
+        server.makeMove(move);
+        MoveMessage good = MoveMessage.after(server, move);
+
+        assertFalse(manager.applyMove(new MoveMessage(move, good.getHash() + 1, good.getStatus(), good.getPly())));
+
+        assertSame(loaded, manager.getCurrentGame());
+        assertTrue(loaded.getMoveHistory().isEmpty());
+        assertSync();
+    }
+
+    @Test
+    void moveBeforeAnyGameAsksForTheWholeGame() throws Exception {
+        ChessGame server = new ChessGame();
+        ChessMove move = move(2, 5, 4, 5);
+        server.makeMove(move);
+
+        assertFalse(manager.applyMove(MoveMessage.after(server, move)));
+
+        assertNull(manager.getCurrentGame());
+        assertSync();
+    }
+
+    private void assertSync() {
+        assertEquals(1, sent.size());
+        SyncCommand sync = assertInstanceOf(SyncCommand.class, sent.get(0));
+        assertEquals(GAME_ID, (int) sync.getGameID());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
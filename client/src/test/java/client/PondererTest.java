@@ -0,0 +1,85 @@
+package client;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PondererTest {
+    // Few replies and little material, so pondering it all is quick
+    private static final String ROOK_ENDING = "4k3/8/8/8/8/8/8/R3K3 b - - 0 1";
+
+    private final Ponderer ponderer = new Ponderer();
+
+    @AfterEach
+    void tearDown() {
+        ponderer.shutdown();
+    }
+
+    @Test
+    void preparesMovesAndHintsForEveryReply() throws Exception {
+        ChessGame game = Fen.parse(ROOK_ENDING);
+
+        assertTrue(ponderer.ponder(game).get(30, TimeUnit.SECONDS));
+
+        ChessGame reply = Fen.parse(ROOK_ENDING);
+        reply.makeMove(new ChessMove(new ChessPosition(8, 5), new ChessPosition(7, 4), null));
+        Ponderer.Prepared prepared = ponderer.lookup(reply);
+        assertNotNull(prepared);
+        ChessPosition rook = new ChessPosition(1, 1);
+        assertEquals(reply.validMoves(rook).size(), prepared.legalMoves().get(rook).size());
+        assertNotNull(prepared.hint());
+    }
+
+    @Test
+    void replyThatLeavesNoMoveDoesNotStopPondering() throws Exception {
+        // Rb1 is mate, so that reply leaves white nothing to hint
+        ChessGame game = Fen.parse("kr6/8/8/8/8/8/6PP/7K b - - 0 1");
+
+        assertTrue(ponderer.ponder(game).get(30, TimeUnit.SECONDS));
+
+        ChessGame mated = Fen.parse("kr6/8/8/8/8/8/6PP/7K b - - 0 1");
+        mated.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(1, 2), null));
+        Ponderer.Prepared prepared = ponderer.lookup(mated);
+        assertNotNull(prepared);
+        assertNull(prepared.hint());
+    }
+
+    @Test
+    void newPositionCancelsEarlierPondering() throws Exception {
+        // Hints for every reply to the first position would take many seconds
+        ChessGame first = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        CompletableFuture<Boolean> firstDone = ponderer.ponder(first);
+
+        CompletableFuture<Boolean> secondDone = ponderer.ponder(Fen.parse(ROOK_ENDING));
+
+        assertFalse(firstDone.get(30, TimeUnit.SECONDS));
+        assertTrue(secondDone.get(30, TimeUnit.SECONDS));
+        assertNull(ponderer.lookup(afterE4E5()), "results for the first position were kept");
+    }
+
+    @Test
+    void hintsInTheBackground() throws Exception {
+        ChessGame game = Fen.parse(ROOK_ENDING);
+
+        ChessMove hint = ponderer.hint(game).get(30, TimeUnit.SECONDS);
+
+        assertNotNull(hint);
+        assertTrue(game.validMoves(hint.getStartPosition()).contains(hint));
+    }
+
+    private static ChessGame afterE4E5() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        return game;
+    }
+}
@@ -4,13 +4,17 @@ import dataaccess.DataAccessException;
 import dataaccess.MemoryDataaccess;
 import dataaccess.MySQLDataAccess;
 import server.Server;
+import server.ThreadingSettings;
+
+import java.util.Arrays;
 
 public class Main {
     public static void main(String[] args) {
         try {
             // Initialize with MySQL instead of Memory implementation
             Dataaccess dataAccess = new MySQLDataAccess();
-            Server server = new Server();
+            boolean virtualThreads = Arrays.asList(args).contains("--virtual-threads");
+            Server server = new Server(virtualThreads ? ThreadingSettings.VIRTUAL : ThreadingSettings.DEFAULT);
             server.initializeDataAccess(dataAccess);
             server.run(8080);
 
@@ -0,0 +1,96 @@
+package dataaccess;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of platform threads for blocking work, such as JDBC calls or
+ * password hashing, that should not run on a virtual thread's carrier.
+ * <p>
+ * The caller waits for the result, which parks a virtual thread rather than
+ * pinning its carrier, and at most {@code threads} tasks run at once however
+ * many callers there are. The rest wait their turn in order.
+ */
+public class BlockingPool implements AutoCloseable {
+    private final ExecutorService executor;
+
+    /**
+     * Work that may block and may fail with a data access error.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws DataAccessException;
+    }
+
+    /**
+     * @param name    prefix for the pool's thread names
+     * @param threads most tasks to run at once
+     */
+    public BlockingPool(String name, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private BlockingPool() {
+        this.executor = null;
+    }
+
+    /**
+     * @return a pool that runs each task on the calling thread, for callers that
+     * are already on platform threads
+     */
+    public static BlockingPool direct() {
+        return new BlockingPool();
+    }
+
+    /**
+     * Runs the task on one of the pool's threads and waits for its result.
+     *
+     * @throws DataAccessException if the task does, or if the wait is interrupted
+     */
+    public <T> T call(Task<T> task) throws DataAccessException {
+        if (executor == null) {
+            return task.call();
+        }
+        Future<T> result = executor.submit(task::call);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for the database");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataAccessException dataAccessException) {
+                throw dataAccessException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new DataAccessException(cause.getMessage());
+        }
+    }
+
+    /**
+     * Stops the pool's threads once the tasks already submitted have finished.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
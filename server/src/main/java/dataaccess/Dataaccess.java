@@ -1,10 +1,12 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.UserData;
 import model.GameData;
 import model.AuthData;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface Dataaccess {
     void clearAll() throws DataAccessException;
@@ -13,9 +15,17 @@ public interface Dataaccess {
     int createGame(GameData game) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+    /**
+     * Writes only a game's board, turn and history, leaving its players and name as stored.
+     */
+    void updateGameState(int gameID, ChessGame game) throws DataAccessException;
     void createAuth(AuthData auth) throws DataAccessException;
     AuthData getAuth(String authToken) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
     Collection<GameData> listGames() throws DataAccessException;
+    /**
+     * Passes every stored game to the action one at a time, without holding them all in memory.
+     */
+    void forEachGame(Consumer<GameData> action) throws DataAccessException;
     int generateGameId() throws DataAccessException;
 }
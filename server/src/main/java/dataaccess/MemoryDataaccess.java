@@ -1,5 +1,6 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.UserData;
 import model.GameData;
 import model.AuthData;
@@ -8,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class MemoryDataaccess implements Dataaccess {
     private final Map<String, UserData> users = new HashMap<>();
@@ -64,11 +66,25 @@ public class MemoryDataaccess implements Dataaccess {
         games.put(game.gameID(), game);
     }
 
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        GameData stored = games.get(gameID);
+        if (stored == null) {
+            throw new DataAccessException("Game not found");
+        }
+        games.put(gameID, new GameData(gameID, stored.whiteUsername(), stored.blackUsername(), stored.gameName(), game));
+    }
+
     @Override
     public Collection<GameData> listGames() throws DataAccessException {
         return new ArrayList<>(games.values());
     }
 
+    @Override
+    public void forEachGame(Consumer<GameData> action) throws DataAccessException {
+        listGames().forEach(action);
+    }
+
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
         if (auths.containsKey(auth.authToken())) {
@@ -5,11 +5,12 @@ import model.GameData;
 import model.AuthData;
 import chess.ChessGame;
 import com.google.gson.Gson;
-import org.mindrot.jbcrypt.BCrypt;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public class MySQLDataAccess implements Dataaccess {
     private final Gson gson = new Gson();
@@ -94,9 +95,9 @@ public class MySQLDataAccess implements Dataaccess {
         try (var conn = DatabaseManager.getConnection()) {
             try (var preparedStatement = conn.prepareStatement(
                     "INSERT INTO users (username, password, email) VALUES (?, ?, ?)")) {
-                String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+                // Already hashed by the caller
                 preparedStatement.setString(1, user.username());
-                preparedStatement.setString(2, hashedPassword);
+                preparedStatement.setString(2, user.password());
                 preparedStatement.setString(3, user.email());
                 preparedStatement.executeUpdate();
             }
@@ -199,6 +200,23 @@ public class MySQLDataAccess implements Dataaccess {
         }
     }
 
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var preparedStatement = conn.prepareStatement("UPDATE games SET game=? WHERE gameID=?")) {
+                preparedStatement.setString(1, gson.toJson(game));
+                preparedStatement.setInt(2, gameID);
+
+                int rowsAffected = preparedStatement.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new DataAccessException("Game not found");
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to update game: %s", e.getMessage()));
+        }
+    }
+
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
@@ -274,6 +292,31 @@ public class MySQLDataAccess implements Dataaccess {
         }
     }
 
+    @Override
+    public void forEachGame(Consumer<GameData> action) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            // A forward-only, read-only statement with a fetch size of Integer.MIN_VALUE
+            // makes the MySQL driver stream rows instead of buffering the whole table
+            try (var preparedStatement = conn.prepareStatement("SELECT * FROM games",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                preparedStatement.setFetchSize(Integer.MIN_VALUE);
+                try (var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(new GameData(
+                                rs.getInt("gameID"),
+                                rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"),
+                                rs.getString("gameName"),
+                                gson.fromJson(rs.getString("game"), ChessGame.class)
+                        ));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to read games: %s", e.getMessage()));
+        }
+    }
+
     @Override
     public int generateGameId() throws DataAccessException {
         return createGame(new GameData(0, null, null, "", new ChessGame()));
@@ -0,0 +1,110 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Runs every call to another {@link Dataaccess} on a {@link BlockingPool}, so
+ * requests handled on virtual threads never block a carrier on JDBC and no
+ * more than the pool's size of them use the database at once.
+ */
+public class PooledDataaccess implements Dataaccess {
+    private final Dataaccess delegate;
+    private final BlockingPool pool;
+
+    public PooledDataaccess(Dataaccess delegate, BlockingPool pool) {
+        this.delegate = delegate;
+        this.pool = pool;
+    }
+
+    @Override
+    public void clearAll() throws DataAccessException {
+        pool.call(() -> {
+            delegate.clearAll();
+            return null;
+        });
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        pool.call(() -> {
+            delegate.createUser(user);
+            return null;
+        });
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return pool.call(() -> delegate.getUser(username));
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return pool.call(() -> delegate.createGame(game));
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return pool.call(() -> delegate.getGame(gameID));
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        pool.call(() -> {
+            delegate.updateGame(game);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        pool.call(() -> {
+            delegate.updateGameState(gameID, game);
+            return null;
+        });
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        pool.call(() -> {
+            delegate.createAuth(auth);
+            return null;
+        });
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return pool.call(() -> delegate.getAuth(authToken));
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        pool.call(() -> {
+            delegate.deleteAuth(authToken);
+            return null;
+        });
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        return pool.call(delegate::listGames);
+    }
+
+    @Override
+    public void forEachGame(Consumer<GameData> action) throws DataAccessException {
+        pool.call(() -> {
+            delegate.forEachGame(action);
+            return null;
+        });
+    }
+
+    @Override
+    public int generateGameId() throws DataAccessException {
+        return pool.call(delegate::generateGameId);
+    }
+}
@@ -2,32 +2,113 @@ package server;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
+import server.websocket.HeartbeatSettings;
+import server.websocket.OutboundLimits;
+import server.websocket.SpectatorSettings;
 import server.websocket.WebSocketHandle;
 import spark.*;
 import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
 import service.*;
 import dataaccess.*;
 import model.*;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 import spark.utils.Assert;
+import chess.index.LivePositionIndex;
+import chess.index.PositionHit;
+import chess.index.PositionIndex;
+import chess.index.PositionIndexBuilder;
+import chess.engine.SearchMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Server {
+    private static final int MAX_POSITION_HITS = 100;
+    // Where the position index is kept between runs
+    private static final Path POSITION_INDEX = Path.of(System.getProperty("chess.positionIndex", "positions.idx"));
+    // Positions recorded in memory before they are compacted to disk early
+    private static final int COMPACT_THRESHOLD = 100_000;
+    private static final long COMPACT_INTERVAL_MILLIS = 10 * 60_000;
+
     private Dataaccess dataAccess;
     private AuthService authService;
     private UserService userService;
     private GameService gameService;
+    private LivePositionIndex positions;
+    private SearchMetrics searchMetrics;
+    private AnalysisService analysisService;
+    private WebSocketHandle webSocketHandle;
     private Gson gson;
+    private final ThreadingSettings threading;
+    private final BlockingPool databasePool;
+    private final BlockingPool hashingPool;
+    // Bulk indexing and compaction, one job at a time
+    private final ScheduledExecutorService indexing = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "position-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // True once the index file covers every stored game, so it may be written
+    private volatile boolean positionsIndexed;
+    private long lastCompaction = System.nanoTime();
 
     public Server() {
-        // Default constructor
+        this(ThreadingSettings.DEFAULT);
+    }
+
+    public Server(ThreadingSettings threading) {
+        this.threading = threading;
+        if (threading.virtualThreads()) {
+            this.databasePool = new BlockingPool("database", threading.databaseThreads());
+            this.hashingPool = new BlockingPool("hashing", threading.hashingThreads());
+        } else {
+            this.databasePool = BlockingPool.direct();
+            this.hashingPool = BlockingPool.direct();
+        }
+    }
+
+    /**
+     * Threads for the game actors. Off virtual mode the data access is not
+     * pooled and JDBC would pin a virtual thread's carrier, so actors get
+     * platform threads of their own.
+     */
+    private ExecutorService actorThreads() {
+        if (threading.virtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "game-actor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public void initializeDataAccess(Dataaccess dataAccess) {
+        if (threading.virtualThreads()) {
+            dataAccess = new PooledDataaccess(dataAccess, databasePool);
+        }
         this.dataAccess = dataAccess;
         this.gson = new Gson();
         this.authService = new AuthService(dataAccess);
-        this.userService = new UserService(dataAccess, authService);
+        this.userService = new UserService(dataAccess, authService, hashingPool);
         this.gameService = new GameService(dataAccess, authService);
+        this.positions = openPositions();
+        this.searchMetrics = new SearchMetrics();
+        this.analysisService = new AnalysisService(dataAccess, authService, searchMetrics);
     }
 
     public int run(int desiredPort) {
@@ -39,10 +120,24 @@ public class Server {
             }
         }
 
+        if (!positionsIndexed) {
+            indexing.execute(this::indexStoredGames);
+        }
+        indexing.scheduleWithFixedDelay(this::compactPositions, 1, 1, TimeUnit.MINUTES);
+
+        // Spark keeps one server factory per JVM, so set it on every run
+        EmbeddedJettyFactory jetty = new EmbeddedJettyFactory();
+        if (threading.virtualThreads()) {
+            jetty = jetty.withThreadPool(new VirtualThreadPool());
+        }
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, jetty);
+
         Spark.port(desiredPort);
 
         // WebSocket must be configured before anything else
-        Spark.webSocket("/ws", new WebSocketHandle(dataAccess));
+        webSocketHandle = new WebSocketHandle(dataAccess, positions, OutboundLimits.DEFAULT,
+                SpectatorSettings.DEFAULT, HeartbeatSettings.DEFAULT, actorThreads());
+        Spark.webSocket("/ws", webSocketHandle);
 
         Spark.staticFiles.location("resources/web");
 
@@ -72,9 +167,14 @@ public class Server {
         Spark.post("/game", this::createGame);
         Spark.get("/game", this::listGames);
         Spark.put("/game", this::joinGame);
+        Spark.get("/game/position", this::findPosition);
+
+        // Engine endpoints
+        Spark.post("/analysis", this::analyze);
 
         // Admin endpoints
         Spark.delete("/db", this::clearApplication);
+        Spark.get("/metrics", this::metrics);
 
 
     }
@@ -225,9 +325,165 @@ public class Server {
         }
     }
 
+    private Object findPosition(Request req, Response res) {
+        try {
+            String authToken = req.headers("Authorization");
+            if (isEmpty(authToken)) {
+                res.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            }
+            authService.getAuth(authToken);
+
+            int gameId;
+            try {
+                gameId = Integer.parseInt(req.queryParams("gameID"));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+
+            GameData game;
+            try {
+                game = dataAccess.getGame(gameId);
+            } catch (DataAccessException e) {
+                res.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+            List<PositionHit> hits = positions.lookup(game.game(), MAX_POSITION_HITS);
+            res.status(200);
+            return gson.toJson(Map.of("games", hits));
+        } catch (DataAccessException e) {
+            res.status(401);
+            return gson.toJson(Map.of("message", "Error: unauthorized"));
+        }
+    }
+
+    private Object analyze(Request req, Response res) {
+        try {
+            String authToken = req.headers("Authorization");
+            if (isEmpty(authToken)) {
+                res.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            }
+            AnalysisRequest analysisRequest;
+            try {
+                analysisRequest = gson.fromJson(req.body(), AnalysisRequest.class);
+            } catch (JsonSyntaxException e) {
+                analysisRequest = null;
+            }
+            if (analysisRequest == null) {
+                res.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+            AnalysisResult result = analysisService.analyze(authToken, analysisRequest);
+            res.status(200);
+            return gson.toJson(result);
+        } catch (DataAccessException e) {
+            res.status(401);
+            return gson.toJson(Map.of("message", "Error: unauthorized"));
+        } catch (IllegalArgumentException e) {
+            res.status(400);
+            return gson.toJson(Map.of("message", "Error: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            res.status(500);
+            return gson.toJson(Map.of("message", "Error: " + e.getMessage()));
+        } catch (TimeoutException e) {
+            res.status(503);
+            return gson.toJson(Map.of("message", "Error: analysis timed out, try again later"));
+        } catch (RejectedExecutionException e) {
+            res.status(429);
+            return gson.toJson(Map.of("message", "Error: too many analysis requests, try again later"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            res.status(503);
+            return gson.toJson(Map.of("message", "Error: analysis interrupted"));
+        }
+    }
+
+    /**
+     * Aggregated engine statistics, for tuning the CPU budget of each bot level.
+     */
+    private Object metrics(Request req, Response res) {
+        res.status(200);
+        return gson.toJson(Map.of("search", searchMetrics.totals(),
+                "spectators", webSocketHandle.spectatorStats(),
+                "heartbeats", webSocketHandle.heartbeatStats()));
+    }
+
+    /**
+     * Opens the position index left by the last run, or starts an empty one to
+     * be filled by {@link #indexStoredGames}.
+     */
+    private LivePositionIndex openPositions() {
+        positionsIndexed = false;
+        if (Files.exists(POSITION_INDEX)) {
+            try {
+                LivePositionIndex index = new LivePositionIndex(PositionIndex.open(POSITION_INDEX));
+                positionsIndexed = true;
+                return index;
+            } catch (IOException e) {
+                System.err.println("Failed to open position index, rebuilding it: " + e.getMessage());
+            }
+        }
+        return new LivePositionIndex();
+    }
+
+    /**
+     * Indexes every stored game into a new index file, in the background while
+     * the server is already taking requests. The entries are sorted on disk, so
+     * memory use stays bounded however many games there are.
+     */
+    private void indexStoredGames() {
+        long generation = positions.generation();
+        try (PositionIndexBuilder builder = new PositionIndexBuilder()) {
+            dataAccess.forEachGame(game -> {
+                if (game.game() != null) {
+                    try {
+                        builder.addGame(game.gameID(), game.game().getMoveHistory());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            // Moves recorded meanwhile are merged in without being counted twice
+            positions.compact(POSITION_INDEX, builder, generation);
+            positionsIndexed = true;
+            lastCompaction = System.nanoTime();
+        } catch (DataAccessException | IOException | UncheckedIOException e) {
+            System.err.println("Failed to index stored games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves recorded positions from memory to the index file once there are
+     * enough of them, or they have waited long enough.
+     */
+    private void compactPositions() {
+        int recent = positions.recentSize();
+        long sinceLast = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastCompaction);
+        if (!positionsIndexed || recent == 0 || (recent < COMPACT_THRESHOLD && sinceLast < COMPACT_INTERVAL_MILLIS)) {
+            return;
+        }
+        try {
+            positions.compact(POSITION_INDEX);
+            lastCompaction = System.nanoTime();
+        } catch (IOException e) {
+            System.err.println("Failed to compact position index: " + e.getMessage());
+        }
+    }
+
     private Object clearApplication(Request req, Response res) {
         try {
             dataAccess.clearAll();
+            positions.clear();
+            try {
+                Files.deleteIfExists(POSITION_INDEX);
+            } catch (IOException e) {
+                System.err.println("Failed to delete position index: " + e.getMessage());
+            }
+            if (webSocketHandle != null) {
+                webSocketHandle.clear();
+            }
             res.status(200);
             return "{}";
         } catch (DataAccessException e) {
@@ -243,5 +499,26 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        if (webSocketHandle != null) {
+            webSocketHandle.close();
+        }
+        if (analysisService != null) {
+            analysisService.shutdown();
+        }
+        indexing.shutdownNow();
+        try {
+            indexing.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (positionsIndexed && positions.recentSize() > 0) {
+            try {
+                positions.compact(POSITION_INDEX);
+            } catch (IOException e) {
+                System.err.println("Failed to compact position index: " + e.getMessage());
+            }
+        }
+        databasePool.close();
+        hashingPool.close();
     }
 }
\ No newline at end of file
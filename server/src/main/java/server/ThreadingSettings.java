@@ -0,0 +1,32 @@
+package server;
+
+/**
+ * Which threads the server handles requests on.
+ *
+ * @param virtualThreads  true to handle HTTP requests and WebSocket messages on
+ *                        virtual threads rather than Jetty's bounded pool
+ * @param databaseThreads most database calls to run at once when on virtual
+ *                        threads
+ * @param hashingThreads  most password checks to run at once when on virtual
+ *                        threads
+ */
+public record ThreadingSettings(boolean virtualThreads, int databaseThreads, int hashingThreads) {
+    /**
+     * Jetty's own thread pool, with blocking calls made on the request thread.
+     */
+    public static final ThreadingSettings DEFAULT = new ThreadingSettings(false, 1, 1);
+
+    /**
+     * Virtual threads, with twice as many database threads as cores since they
+     * mostly wait on the network, and one hashing thread per core since BCrypt
+     * does not wait at all.
+     */
+    public static final ThreadingSettings VIRTUAL = new ThreadingSettings(true,
+            2 * Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors());
+
+    public ThreadingSettings {
+        if (databaseThreads < 1 || hashingThreads < 1) {
+            throw new IllegalArgumentException("Need at least one database and one hashing thread");
+        }
+    }
+}
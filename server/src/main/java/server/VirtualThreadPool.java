@@ -0,0 +1,65 @@
+package server;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that starts a virtual thread for every task, so HTTP
+ * requests and WebSocket messages never wait for a free worker and a request
+ * blocked on I/O costs a little heap rather than a platform thread.
+ * <p>
+ * Jetty's acceptor and selector loops run on virtual threads too. Work that
+ * would pin a carrier, like JDBC and BCrypt, belongs on a bounded
+ * {@link dataaccess.BlockingPool}.
+ */
+class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private final Thread.Builder threads = Thread.ofVirtual().name("jetty-virtual-", 0);
+    private final AtomicInteger running = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    @Override
+    public void execute(Runnable task) {
+        if (stopped.getCount() == 0) {
+            throw new RejectedExecutionException("Thread pool is stopped");
+        }
+        running.incrementAndGet();
+        threads.start(() -> {
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        stopped.countDown();
+        super.doStop();
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        // Nothing waits around for work; each task gets a thread of its own
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
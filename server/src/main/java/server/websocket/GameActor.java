@@ -0,0 +1,210 @@
+package server.websocket;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.Dataaccess;
+import model.GameData;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns one active game. WebSocket commands for the game are queued in the
+ * actor's mailbox and run one at a time in arrival order, so no locking is
+ * needed around the game, while different games run in parallel.
+ * <p>
+ * The actor keeps the authoritative copy of the game in memory: it is read from
+ * the database once and after that only written back, so commands no longer
+ * pay for a read each. Moves only write the game itself, never the players,
+ * who may have changed over HTTP since the actor last looked.
+ * <p>
+ * The game is never changed in place. A command plays on a copy and installs
+ * it with {@link #updateGame} once the write has succeeded, so a failed write
+ * leaves the actor as it was, and a game already handed to outgoing frames is
+ * never touched again.
+ * <p>
+ * An actor that has had nothing to do for a while can be retired, dropping
+ * its copy of the game; the next command for the game gets a fresh actor.
+ */
+class GameActor {
+    // Commands run per turn before the actor gives up its thread, so one busy
+    // game cannot hold a carrier thread indefinitely
+    private static final int BATCH = 32;
+    // Messages kept for clients resuming after a dropped connection
+    static final int REPLAY_CAPACITY = 256;
+
+    private final int gameID;
+    private final Dataaccess dataAccess;
+    private final Executor executor;
+    private final Queue<Command> mailbox = new ConcurrentLinkedQueue<>();
+    // True while a drain is queued or running; its set/CAS also hands the
+    // game field safely from one draining thread to the next
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ReplayBuffer stream;
+    private GameData game;
+    // When the last drain finished, from System.nanoTime()
+    private volatile long lastActive = System.nanoTime();
+    // Guarded by this, as is adding to the mailbox
+    private boolean retired;
+
+    /**
+     * A command run by the actor. It may read and replace the game freely.
+     */
+    interface Command {
+        void run(GameActor actor) throws Exception;
+    }
+
+    GameActor(int gameID, Dataaccess dataAccess, Executor executor) {
+        this(gameID, dataAccess, executor, new ReplayBuffer(REPLAY_CAPACITY));
+    }
+
+    /**
+     * @param stream the game's messages so far, e.g. kept from an earlier actor
+     */
+    GameActor(int gameID, Dataaccess dataAccess, Executor executor, ReplayBuffer stream) {
+        this.gameID = gameID;
+        this.dataAccess = dataAccess;
+        this.executor = executor;
+        this.stream = stream;
+    }
+
+    int gameID() {
+        return gameID;
+    }
+
+    /**
+     * @return the game's recent messages; only to be used from a command
+     */
+    ReplayBuffer stream() {
+        return stream;
+    }
+
+    /**
+     * Queues a command to run after every command queued before it.
+     *
+     * @return false if the actor has been retired, in which case the command
+     * was not queued and belongs with a new actor
+     */
+    boolean tell(Command command) {
+        synchronized (this) {
+            if (retired) {
+                return false;
+            }
+            mailbox.add(command);
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Retires the actor if it has run nothing for the given time and has
+     * nothing queued. Once retired it takes no more commands.
+     *
+     * @return true if the actor is now retired
+     */
+    boolean retireIfIdle(long idleNanos) {
+        synchronized (this) {
+            if (retired) {
+                return true;
+            }
+            if (System.nanoTime() - lastActive < idleNanos || !scheduled.compareAndSet(false, true)) {
+                return false;
+            }
+            // Holding the drain flag, so nothing is running and nothing can start
+            if (mailbox.isEmpty()) {
+                retired = true;
+                return true;
+            }
+            scheduled.set(false);
+        }
+        // A command arrived while the flag was held, and its own schedule() lost the race
+        schedule();
+        return false;
+    }
+
+    /**
+     * @return the game, loading it from the database the first time
+     */
+    GameData game() throws DataAccessException {
+        if (game == null) {
+            game = dataAccess.getGame(gameID);
+            if (game == null) {
+                throw new DataAccessException("Game not found");
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Writes a new board, turn and history through to the database and, once
+     * that has worked, makes it the current state. The players are left as they are.
+     *
+     * @param next a copy of the game with the change made; not to be changed afterwards
+     */
+    void updateGame(ChessGame next) throws DataAccessException {
+        GameData current = game();
+        dataAccess.updateGameState(gameID, next);
+        game = new GameData(gameID, current.whiteUsername(), current.blackUsername(), current.gameName(), next);
+    }
+
+    /**
+     * Takes a user out of whichever seat they hold, working from the stored
+     * players so a join over HTTP is not undone.
+     *
+     * @return the game, with the players as now stored
+     */
+    GameData removePlayer(String username) throws DataAccessException {
+        GameData current = refreshPlayers();
+        boolean white = username.equals(current.whiteUsername());
+        if (!white && !username.equals(current.blackUsername())) {
+            return current;
+        }
+        GameData updated = new GameData(gameID, white ? null : current.whiteUsername(),
+                white ? current.blackUsername() : null, current.gameName(), current.game());
+        dataAccess.updateGame(updated);
+        game = updated;
+        return updated;
+    }
+
+    /**
+     * Picks up the players from the database, which change when users join over
+     * HTTP, while keeping the in-memory board and turn.
+     */
+    GameData refreshPlayers() throws DataAccessException {
+        GameData stored = dataAccess.getGame(gameID);
+        if (stored == null) {
+            throw new DataAccessException("Game not found");
+        }
+        game = game == null ? stored : new GameData(gameID, stored.whiteUsername(), stored.blackUsername(),
+                stored.gameName(), game.game());
+        return game;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Command command = mailbox.poll();
+            if (command == null) {
+                break;
+            }
+            try {
+                command.run(this);
+            } catch (Exception e) {
+                System.err.println("Command failed for game " + gameID + ": " + e.getMessage());
+            }
+        }
+        lastActive = System.nanoTime();
+        scheduled.set(false);
+        // A command may have arrived after the last poll but before the flag was cleared
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+}
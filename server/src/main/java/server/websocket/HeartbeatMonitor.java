@@ -0,0 +1,211 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Pings WebSocket clients and disconnects the ones that stop answering, so
+ * half-open connections don't linger in the game's sessions.
+ * <p>
+ * Every session has one timer on a {@link TimingWheel}, due once per ping
+ * interval. When it fires, a session that has sent nothing within the timeout
+ * is reaped, as is one that has been connected for the idle timeout without
+ * joining a game; otherwise it is pinged if it has been quiet since the last
+ * check, and its timer is set again. Incoming frames only record the time, so
+ * busy clients cost nothing extra. A client is reaped at most one ping
+ * interval after its timeout.
+ * <p>
+ * Jetty's ping blocks while the socket's send buffer is full, so pings are
+ * sent from their own threads and the wheel never waits on a dead peer. A
+ * session whose last ping is still stuck is not pinged again; it is reaped
+ * once its timeout runs out.
+ */
+class HeartbeatMonitor {
+    private static final int SLOTS = 64;
+    private static final ByteBuffer PING = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private static class Liveness {
+        final long connectedAt;
+        volatile long lastHeard;
+        volatile boolean joined;
+        volatile boolean pinging;
+
+        Liveness(long now) {
+            this.connectedAt = now;
+            this.lastHeard = now;
+        }
+    }
+
+    private final HeartbeatSettings settings;
+    private final LongSupplier clock;
+    private final BiConsumer<Session, String> reaper;
+    private final Executor pinger;
+    private final Map<Session, Liveness> sessions = new ConcurrentHashMap<>();
+    private final TimingWheel<Session> wheel;
+    private final LongAdder pings = new LongAdder();
+    private final LongAdder reapedUnresponsive = new LongAdder();
+    private final LongAdder reapedIdle = new LongAdder();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * @param reaper disconnects a session and forgets it, given the reason
+     */
+    HeartbeatMonitor(HeartbeatSettings settings, BiConsumer<Session, String> reaper) {
+        this(settings, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()),
+                Executors.newVirtualThreadPerTaskExecutor(), reaper);
+    }
+
+    /**
+     * @param clock  the current time in milliseconds
+     * @param pinger runs each ping; shut down by {@link #stop} if it is an executor service
+     */
+    HeartbeatMonitor(HeartbeatSettings settings, LongSupplier clock, Executor pinger,
+                     BiConsumer<Session, String> reaper) {
+        this.settings = settings;
+        this.clock = clock;
+        this.pinger = pinger;
+        this.reaper = reaper;
+        this.wheel = new TimingWheel<>(tickMillis(), SLOTS, clock.getAsLong());
+    }
+
+    /**
+     * Starts a daemon thread that moves the wheel on every tick.
+     */
+    synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "websocket-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = tickMillis();
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                tick(clock.getAsLong());
+            } catch (RuntimeException e) {
+                // A failed tick must not stop the ones after it
+                System.err.println("Heartbeat tick failed: " + e.getMessage());
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the ticker and any pings still being sent. Sessions are left connected.
+     */
+    synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (pinger instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    void track(Session session) {
+        long now = clock.getAsLong();
+        sessions.put(session, new Liveness(now));
+        wheel.schedule(session, now + settings.pingIntervalMillis());
+    }
+
+    /**
+     * Records that the client sent something, e.g. a command or a pong.
+     */
+    void heard(Session session) {
+        Liveness liveness = sessions.get(session);
+        if (liveness != null) {
+            liveness.lastHeard = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Records that the client has joined a game, so it is no longer idle.
+     */
+    void joined(Session session) {
+        Liveness liveness = sessions.get(session);
+        if (liveness != null) {
+            liveness.joined = true;
+        }
+    }
+
+    /**
+     * Stops watching a session; its timer is dropped when it next comes due.
+     */
+    void untrack(Session session) {
+        sessions.remove(session);
+    }
+
+    HeartbeatStats stats() {
+        return new HeartbeatStats(sessions.size(), pings.sum(), reapedUnresponsive.sum(), reapedIdle.sum());
+    }
+
+    /**
+     * Checks every session whose timer has come due by the given time.
+     */
+    void tick(long now) {
+        for (Session session : wheel.advance(now)) {
+            Liveness liveness = sessions.get(session);
+            if (liveness == null) {
+                continue;
+            }
+            if (now - liveness.lastHeard >= settings.timeoutMillis()) {
+                reap(session, liveness, reapedUnresponsive, "No reply to pings");
+            } else if (!liveness.joined && now - liveness.connectedAt >= settings.idleTimeoutMillis()) {
+                reap(session, liveness, reapedIdle, "Idle without joining a game");
+            } else {
+                if (now - liveness.lastHeard >= settings.pingIntervalMillis() && !liveness.pinging) {
+                    ping(session, liveness);
+                }
+                wheel.schedule(session, now + settings.pingIntervalMillis());
+            }
+        }
+    }
+
+    /**
+     * Sends a ping off the ticker thread, reaping the session if it fails.
+     */
+    private void ping(Session session, Liveness liveness) {
+        liveness.pinging = true;
+        try {
+            pinger.execute(() -> {
+                try {
+                    session.getRemote().sendPing(PING.duplicate());
+                    pings.increment();
+                } catch (IOException | RuntimeException e) {
+                    reap(session, liveness, reapedUnresponsive, "Ping failed");
+                } finally {
+                    liveness.pinging = false;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopping
+            liveness.pinging = false;
+        }
+    }
+
+    private void reap(Session session, Liveness liveness, LongAdder counter, String reason) {
+        if (sessions.remove(session, liveness)) {
+            counter.increment();
+            reaper.accept(session, reason);
+        }
+    }
+
+    private long tickMillis() {
+        // Fine enough that pings go out close to on time
+        return Math.max(1, settings.pingIntervalMillis() / 8);
+    }
+}
@@ -0,0 +1,20 @@
+package server.websocket;
+
+/**
+ * How the server checks that WebSocket clients are still there.
+ *
+ * @param pingIntervalMillis how often each client is pinged
+ * @param timeoutMillis      how long a client may go without sending anything,
+ *                           pongs included, before it is disconnected
+ * @param idleTimeoutMillis  how long a client may stay connected without
+ *                           joining a game
+ */
+public record HeartbeatSettings(long pingIntervalMillis, long timeoutMillis, long idleTimeoutMillis) {
+    public static final HeartbeatSettings DEFAULT = new HeartbeatSettings(20_000, 60_000, 300_000);
+
+    public HeartbeatSettings {
+        if (pingIntervalMillis < 1 || timeoutMillis <= pingIntervalMillis || idleTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Need a ping interval >= 1ms, a longer timeout and an idle timeout");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package server.websocket;
+
+/**
+ * A snapshot of the WebSocket heartbeat, for monitoring.
+ *
+ * @param sessions           connections being watched
+ * @param pings              pings sent so far
+ * @param reapedUnresponsive connections dropped for not answering pings
+ * @param reapedIdle         connections dropped for never joining a game
+ */
+public record HeartbeatStats(int sessions, long pings, long reapedUnresponsive, long reapedIdle) {
+}
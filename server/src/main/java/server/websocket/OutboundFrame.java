@@ -0,0 +1,91 @@
+package server.websocket;
+
+import com.google.gson.Gson;
+import websocket.BinaryCodec;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A server message ready to be queued on any number of sessions. It is
+ * encoded at most once per protocol, the first time a session using that
+ * protocol needs it, however many clients are watching.
+ * <p>
+ * Encoding may happen on whichever thread sends the frame, so the message must
+ * not change once the frame is made.
+ */
+final class OutboundFrame {
+    private final ServerMessage message;
+    private final Gson gson;
+    private final boolean replaceable;
+    private final boolean delta;
+    // Cached encodings; racing threads just produce the same result
+    private volatile String text;
+    private volatile ByteBuffer binary;
+
+    private OutboundFrame(ServerMessage message, Gson gson, String text, boolean replaceable, boolean delta) {
+        this.message = message;
+        this.gson = gson;
+        this.text = text;
+        this.replaceable = replaceable;
+        this.delta = delta;
+    }
+
+    /**
+     * A frame of already-encoded text.
+     *
+     * @param replaceable true for full game states, which supersede unsent older
+     *                    ones and any unsent move deltas
+     */
+    OutboundFrame(String text, boolean replaceable) {
+        this(text, replaceable, false);
+    }
+
+    /**
+     * @param delta true for move deltas
+     */
+    OutboundFrame(String text, boolean replaceable, boolean delta) {
+        this(null, null, text, replaceable, delta);
+    }
+
+    static OutboundFrame of(Gson gson, ServerMessage message) {
+        ServerMessage.ServerMessageType type = message.getServerMessageType();
+        return new OutboundFrame(message, gson, null, type == ServerMessage.ServerMessageType.LOAD_GAME,
+                type == ServerMessage.ServerMessageType.MOVE);
+    }
+
+    boolean replaceable() {
+        return replaceable;
+    }
+
+    boolean delta() {
+        return delta;
+    }
+
+    /**
+     * @return the message as JSON
+     */
+    String text() {
+        String encoded = text;
+        if (encoded == null) {
+            encoded = gson.toJson(message);
+            text = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * @return the message in the binary protocol, as a buffer of the caller's own
+     */
+    ByteBuffer binary() {
+        ByteBuffer encoded = binary;
+        if (encoded == null) {
+            if (message == null) {
+                throw new IllegalStateException("Frame has no binary form");
+            }
+            encoded = BinaryCodec.encode(message);
+            binary = encoded;
+        }
+        return encoded.asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,18 @@
+package server.websocket;
+
+/**
+ * How far a WebSocket client may fall behind before it is disconnected.
+ *
+ * @param highWaterMark    queued messages above which a client counts as falling behind
+ * @param hardLimit        queued messages at which a client is disconnected at once
+ * @param evictAfterMillis how long a client may stay above the high-water mark
+ */
+public record OutboundLimits(int highWaterMark, int hardLimit, long evictAfterMillis) {
+    public static final OutboundLimits DEFAULT = new OutboundLimits(64, 1024, 10_000);
+
+    public OutboundLimits {
+        if (highWaterMark < 1 || hardLimit <= highWaterMark || evictAfterMillis < 0) {
+            throw new IllegalArgumentException("Need 0 < highWaterMark < hardLimit and evictAfterMillis >= 0");
+        }
+    }
+}
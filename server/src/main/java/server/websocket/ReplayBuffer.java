@@ -0,0 +1,72 @@
+package server.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent messages of one game's stream, so a client that lost its
+ * connection can be sent only what it missed. Each message is numbered one
+ * higher than the one before it.
+ * <p>
+ * Only used by the game's actor, so it needs no locking.
+ */
+class ReplayBuffer {
+    private final Entry[] entries;
+    // Sequence number of the message before the first one kept here
+    private final long start;
+    // Sequence number of the newest message, start before the first
+    private long last;
+
+    /**
+     * One message of the stream.
+     *
+     * @param exclude the user it was not sent to, e.g. the one it is about, or null
+     */
+    record Entry(long sequence, OutboundFrame frame, String exclude) {
+    }
+
+    ReplayBuffer(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * @param start the sequence number to carry on from, so the first message
+     *              is numbered {@code start + 1}
+     */
+    ReplayBuffer(int capacity, long start) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Replay capacity must be positive: " + capacity);
+        }
+        entries = new Entry[capacity];
+        this.start = start;
+        this.last = start;
+    }
+
+    long lastSequence() {
+        return last;
+    }
+
+    /**
+     * Adds the next message, which must be numbered {@code lastSequence() + 1}.
+     */
+    void append(OutboundFrame frame, String exclude) {
+        last++;
+        entries[(int) (last % entries.length)] = new Entry(last, frame, exclude);
+    }
+
+    /**
+     * @return the messages after the given sequence number, oldest first, or
+     * null if some of them have already been dropped or the number is unknown
+     */
+    List<Entry> after(long sequence) {
+        long oldest = Math.max(start + 1, last - entries.length + 1);
+        if (sequence > last || sequence < oldest - 1) {
+            return null;
+        }
+        List<Entry> missed = new ArrayList<>((int) (last - sequence));
+        for (long next = sequence + 1; next <= last; next++) {
+            missed.add(entries[(int) (next % entries.length)]);
+        }
+        return missed;
+    }
+}
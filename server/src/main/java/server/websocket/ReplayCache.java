@@ -0,0 +1,95 @@
+package server.websocket;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Each game's {@link ReplayBuffer}, kept apart from the game's actor so a
+ * client can still resume after an idle actor has been retired. Besides the
+ * streams of live actors, only the most recently used games are kept; a game
+ * dropped from here starts a new stream, and clients resuming it are sent the
+ * whole game.
+ * <p>
+ * A live actor's stream is never dropped, as the actor would carry on writing
+ * to a stream nobody else could see. A new stream is numbered on from the
+ * highest sequence number any dropped stream reached, so a game's numbers
+ * never go backwards and a client can't mistake the new stream for the old.
+ */
+class ReplayCache {
+    private final int games;
+    private final int capacity;
+    // Least recently used first; guarded by this
+    private final Map<Integer, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+    // Highest last sequence number of any stream dropped so far
+    private long dropped;
+
+    private static class Slot {
+        final ReplayBuffer buffer;
+        // Actors using the stream; it can only be dropped at zero
+        int actors;
+
+        Slot(ReplayBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * @param games    most games to keep streams for, besides those of live actors
+     * @param capacity messages kept per game
+     */
+    ReplayCache(int games, int capacity) {
+        if (games < 1) {
+            throw new IllegalArgumentException("Must keep at least one game: " + games);
+        }
+        this.games = games;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Hands a game's stream to a new actor. It is kept until {@link #release}
+     * is called for that actor.
+     *
+     * @return the game's stream, a new one if it has none or it was dropped
+     */
+    synchronized ReplayBuffer stream(int gameID) {
+        Slot slot = slots.computeIfAbsent(gameID, id -> new Slot(new ReplayBuffer(capacity, dropped)));
+        slot.actors++;
+        trim();
+        return slot.buffer;
+    }
+
+    /**
+     * Called once an actor given a stream by {@link #stream} has been retired
+     * or dropped. It must not write to the stream after this.
+     */
+    synchronized void release(int gameID) {
+        Slot slot = slots.get(gameID);
+        if (slot != null && slot.actors > 0) {
+            slot.actors--;
+            trim();
+        }
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    synchronized void clear() {
+        for (Slot slot : slots.values()) {
+            dropped = Math.max(dropped, slot.buffer.lastSequence());
+        }
+        slots.clear();
+    }
+
+    private void trim() {
+        Iterator<Slot> eldest = slots.values().iterator();
+        while (slots.size() > games && eldest.hasNext()) {
+            Slot slot = eldest.next();
+            if (slot.actors == 0) {
+                dropped = Math.max(dropped, slot.buffer.lastSequence());
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Outbound message queue for one WebSocket session. Messages are written
+ * asynchronously one at a time, so queueing never blocks the caller and a slow
+ * client only delays itself.
+ * <p>
+ * A newer game state supersedes one still waiting to be sent, along with any
+ * move deltas queued before it. A client whose
+ * queue stays above the high-water mark for too long, or reaches the hard
+ * limit, is disconnected.
+ * <p>
+ * Frames are written as text, or as binary for sessions that asked for the
+ * binary protocol.
+ */
+class SessionOutbox {
+    // Policy violation: the client is not keeping up with the game
+    private static final int CLOSE_TOO_SLOW = 1008;
+
+    private final Session session;
+    private final OutboundLimits limits;
+    private final boolean binary;
+    private final Deque<OutboundFrame> pending = new ArrayDeque<>();
+    private final WriteCallback callback = new WriteCallback() {
+        @Override
+        public void writeSuccess() {
+            sent();
+        }
+
+        @Override
+        public void writeFailed(Throwable cause) {
+            evict("Write failed: " + cause.getMessage());
+        }
+    };
+
+    // All guarded by this
+    private boolean inFlight;
+    private boolean draining;
+    private boolean closed;
+    private long overSince = -1;
+
+    SessionOutbox(Session session, OutboundLimits limits) {
+        this(session, limits, false);
+    }
+
+    SessionOutbox(Session session, OutboundLimits limits, boolean binary) {
+        this.session = session;
+        this.limits = limits;
+        this.binary = binary;
+    }
+
+    /**
+     * Queues a message. A replaceable frame removes any earlier replaceable or
+     * delta frame that has not been sent yet.
+     */
+    void offer(OutboundFrame frame) {
+        String reason = null;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (frame.replaceable()) {
+                for (Iterator<OutboundFrame> it = pending.iterator(); it.hasNext(); ) {
+                    OutboundFrame queued = it.next();
+                    if (queued.replaceable() || queued.delta()) {
+                        it.remove();
+                    }
+                }
+            }
+            pending.add(frame);
+            reason = checkLimits(System.nanoTime());
+        }
+        if (reason != null) {
+            evict(reason);
+            return;
+        }
+        drain();
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops sending and drops anything queued, e.g. once the session has closed.
+     */
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    /**
+     * @return why the client should be evicted, or null if it is within limits
+     */
+    private String checkLimits(long now) {
+        int size = pending.size();
+        if (size >= limits.hardLimit()) {
+            return "Outbound queue full (" + size + " messages)";
+        }
+        if (size <= limits.highWaterMark()) {
+            overSince = -1;
+            return null;
+        }
+        if (overSince < 0) {
+            overSince = now;
+            return null;
+        }
+        return now - overSince > limits.evictAfterMillis() * 1_000_000 ? "Client too slow" : null;
+    }
+
+    /**
+     * Sends queued messages until one is in flight. A write that completes
+     * inside the send call lets this loop carry on rather than recursing.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            OutboundFrame frame;
+            synchronized (this) {
+                if (closed || inFlight || pending.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                frame = pending.poll();
+                inFlight = true;
+                if (pending.size() <= limits.highWaterMark()) {
+                    overSince = -1;
+                }
+            }
+            try {
+                if (binary) {
+                    session.getRemote().sendBytes(frame.binary(), callback);
+                } else {
+                    session.getRemote().sendString(frame.text(), callback);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    draining = false;
+                }
+                evict("Write failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void sent() {
+        synchronized (this) {
+            inFlight = false;
+        }
+        drain();
+    }
+
+    private void evict(String reason) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+        }
+        System.err.println("Disconnecting WebSocket client: " + reason);
+        session.close(CLOSE_TOO_SLOW, reason);
+    }
+}
@@ -0,0 +1,226 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Delivers game broadcasts to spectators off the game's own thread, so a move
+ * costs the player the same however many people are watching.
+ * <p>
+ * Spectators are split between shards by session. Each shard has one worker
+ * thread and its own queue; a broadcast is queued once on each shard holding
+ * a spectator of that game, and the worker hands the shared frame to each of
+ * them. As a session always belongs to the same shard, its messages stay in
+ * order.
+ * <p>
+ * With a delay set, every message a spectator gets, including the game state
+ * sent when they start watching, is held back by that much.
+ */
+class SpectatorFanout {
+    private final Shard[] shards;
+    private final long delayNanos;
+    private final BiConsumer<Session, OutboundFrame> sender;
+    // Each game's spectators and how many of them sit on each shard, kept as
+    // watch and unwatch are called so publish can skip shards with none
+    private final Map<Integer, Audience> audiences = new HashMap<>();
+
+    /**
+     * @param sender queues a frame on a session's outbox
+     */
+    SpectatorFanout(SpectatorSettings settings, BiConsumer<Session, OutboundFrame> sender) {
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(settings.delayMillis());
+        this.sender = sender;
+        this.shards = new Shard[settings.shards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * Starts sending a game's broadcasts to a spectator, after the given frames.
+     * Calling it again for the same game just sends the frames.
+     *
+     * @param moveDeltas true if the spectator wants moves as deltas
+     */
+    void watch(int gameID, Session session, boolean moveDeltas, List<OutboundFrame> frames) {
+        Shard target = shardOf(session);
+        synchronized (audiences) {
+            Audience audience = audiences.computeIfAbsent(gameID, id -> new Audience());
+            if (audience.sessions.add(session)) {
+                audience.perShard[target.index]++;
+            }
+        }
+        target.submit(shard -> {
+            if (shard.games.computeIfAbsent(gameID, id -> new HashMap<>()).put(session, moveDeltas) == null) {
+                shard.watchers++;
+            }
+            for (OutboundFrame frame : frames) {
+                shard.deliver(session, frame);
+            }
+        });
+    }
+
+    void unwatch(int gameID, Session session) {
+        Shard target = shardOf(session);
+        synchronized (audiences) {
+            Audience audience = audiences.get(gameID);
+            if (audience != null && audience.sessions.remove(session)) {
+                audience.perShard[target.index]--;
+                if (audience.sessions.isEmpty()) {
+                    audiences.remove(gameID);
+                }
+            }
+        }
+        target.submit(shard -> {
+            Map<Session, Boolean> watchers = shard.games.get(gameID);
+            if (watchers != null && watchers.remove(session) != null) {
+                shard.watchers--;
+                if (watchers.isEmpty()) {
+                    shard.games.remove(gameID);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends a broadcast to every spectator of a game. Shards with none of the
+     * game's spectators are left alone.
+     *
+     * @param delta   the same broadcast as a move delta for spectators who
+     *                asked for them, or null to send {@code frame} to everyone
+     * @param exclude a session to leave out, or null
+     */
+    void publish(int gameID, OutboundFrame frame, OutboundFrame delta, Session exclude) {
+        List<Shard> targets = new ArrayList<>();
+        synchronized (audiences) {
+            Audience audience = audiences.get(gameID);
+            if (audience == null) {
+                return;
+            }
+            for (Shard shard : shards) {
+                if (audience.perShard[shard.index] > 0) {
+                    targets.add(shard);
+                }
+            }
+        }
+        for (Shard shard : targets) {
+            shard.submit(s -> {
+                Map<Session, Boolean> watchers = s.games.get(gameID);
+                if (watchers == null) {
+                    return;
+                }
+                for (Map.Entry<Session, Boolean> watcher : watchers.entrySet()) {
+                    if (watcher.getKey() != exclude) {
+                        s.deliver(watcher.getKey(), delta != null && watcher.getValue() ? delta : frame);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for every shard to run everything queued before the call.
+     *
+     * @return false if that took longer than the timeout
+     */
+    boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch drained = new CountDownLatch(shards.length);
+        for (Shard shard : shards) {
+            shard.submit(s -> drained.countDown());
+        }
+        return drained.await(timeout, unit);
+    }
+
+    /**
+     * Stops the shards' workers. Anything still queued is dropped.
+     */
+    void close() {
+        for (Shard shard : shards) {
+            shard.worker.interrupt();
+        }
+    }
+
+    List<SpectatorShardStats> stats() {
+        List<SpectatorShardStats> stats = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            stats.add(new SpectatorShardStats(shard.index, shard.watchers, shard.queue.size(),
+                    shard.delivered.sum(), TimeUnit.NANOSECONDS.toMillis(shard.lagNanos)));
+        }
+        return stats;
+    }
+
+    private Shard shardOf(Session session) {
+        return shards[Math.floorMod(System.identityHashCode(session), shards.length)];
+    }
+
+    private interface Task {
+        void run(Shard shard);
+    }
+
+    private record Queued(long submitted, Task task) {
+    }
+
+    private class Audience {
+        final Set<Session> sessions = new HashSet<>();
+        final int[] perShard = new int[shards.length];
+    }
+
+    private class Shard {
+        final int index;
+        final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+        final LongAdder delivered = new LongAdder();
+        // Only touched by the worker; read for stats
+        final Map<Integer, Map<Session, Boolean>> games = new HashMap<>();
+        volatile int watchers;
+        volatile long lagNanos;
+        final Thread worker;
+
+        Shard(int index) {
+            this.index = index;
+            worker = new Thread(this::work, "spectators-" + index);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        void submit(Task task) {
+            queue.add(new Queued(System.nanoTime(), task));
+        }
+
+        void deliver(Session session, OutboundFrame frame) {
+            // Counted first, so the count is never behind what a sender has seen
+            delivered.increment();
+            sender.accept(session, frame);
+        }
+
+        private void work() {
+            while (true) {
+                try {
+                    Queued next = queue.take();
+                    // Every task has the same delay, so the head is always the first due
+                    long wait = next.submitted() + delayNanos - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    lagNanos = Math.max(0, System.nanoTime() - next.submitted() - delayNanos);
+                    next.task().run(this);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("Spectator broadcast failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package server.websocket;
+
+/**
+ * How messages reach spectators, i.e. connected users who are not playing.
+ *
+ * @param shards      number of worker threads spectators are split between
+ * @param delayMillis how long spectators' messages are held back, e.g. so a
+ *                    spectator cannot relay moves to a player; 0 for none
+ */
+public record SpectatorSettings(int shards, long delayMillis) {
+    public static final SpectatorSettings DEFAULT =
+            new SpectatorSettings(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 0);
+
+    public SpectatorSettings {
+        if (shards < 1 || delayMillis < 0) {
+            throw new IllegalArgumentException("Need at least one shard and a delay >= 0");
+        }
+    }
+}
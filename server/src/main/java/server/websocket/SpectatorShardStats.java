@@ -0,0 +1,13 @@
+package server.websocket;
+
+/**
+ * A snapshot of one spectator shard, for monitoring.
+ *
+ * @param shard     the shard's index
+ * @param watchers  spectator connections handled by the shard
+ * @param queued    broadcasts waiting to be delivered
+ * @param delivered messages handed to spectators' outboxes so far
+ * @param lagMillis how late the latest broadcast was delivered, beyond any configured delay
+ */
+public record SpectatorShardStats(int shard, int watchers, int queued, long delivered, long lagMillis) {
+}
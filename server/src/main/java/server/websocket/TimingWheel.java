@@ -0,0 +1,90 @@
+package server.websocket;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timing wheel: deadlines are rounded up to a tick and hashed into a
+ * ring of slots, so scheduling is constant time and each tick only looks at
+ * one slot, however many timers there are. A deadline further off than one
+ * turn of the wheel stays in its slot until the turn it is due.
+ * <p>
+ * Timers cannot be cancelled; whoever fires one checks whether it still
+ * matters. Time only moves when {@link #advance} is called.
+ */
+class TimingWheel<T> {
+    private record Timer<T>(T item, long tick) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots;
+    // All guarded by this
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis how finely deadlines are kept
+     * @param slots      slots in the ring
+     * @param nowMillis  the current time
+     */
+    TimingWheel(long tickMillis, int slots, long nowMillis) {
+        if (tickMillis < 1 || slots < 1) {
+            throw new IllegalArgumentException("Need a tick of at least 1ms and at least one slot");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            this.slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an item to come out of {@link #advance} once the time reaches
+     * the deadline, or on the next tick if that has already passed.
+     */
+    synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        slot(tick).add(new Timer<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Moves the wheel on to the given time.
+     *
+     * @return the items whose deadlines have now passed
+     */
+    synchronized List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        if (target <= currentTick) {
+            return expired;
+        }
+        // After a long pause, one pass over every slot finds everything due
+        long steps = Math.min(target - currentTick, slots.size());
+        for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+            for (Iterator<Timer<T>> it = slot(tick).iterator(); it.hasNext(); ) {
+                Timer<T> timer = it.next();
+                if (timer.tick() <= target) {
+                    it.remove();
+                    expired.add(timer.item());
+                }
+            }
+        }
+        currentTick = target;
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * @return how many items are scheduled
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private List<Timer<T>> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+}
@@ -1,103 +1,356 @@
 package server.websocket;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import chess.ChessPiece;
+import chess.index.LivePositionIndex;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import dataaccess.Dataaccess;
 import dataaccess.DataAccessException;
 import model.AuthData;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.UpgradeRequest;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import org.eclipse.jetty.websocket.api.extensions.Frame;
+import websocket.BinaryCodec;
 import websocket.commands.*;
 import websocket.messages.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket endpoint for gameplay. Each game's commands run on that game's
+ * {@link GameActor}, one after another, on the executor the handle is given:
+ * virtual threads by default, or platform threads when the data access blocks
+ * on calls that would pin a virtual thread's carrier. This class only
+ * decodes messages and routes them by game ID. Actors of games that have gone
+ * quiet are retired, while each game's replay stream stays in a bounded
+ * {@link ReplayCache}, so memory doesn't grow with every game ever played.
+ * <p>
+ * Players are sent broadcasts directly by the game's actor. Everyone else
+ * watching is served by a {@link SpectatorFanout}, so large audiences don't
+ * slow down the game.
+ * <p>
+ * A {@link HeartbeatMonitor} pings every client and drops the ones that stop
+ * answering, so broadcasts only go to connections that are still there.
+ */
 @WebSocket
 public class WebSocketHandle {
+    // An actor with nothing to do for this long is retired
+    private static final long ACTOR_IDLE_MILLIS = 5 * 60_000;
+    // Games whose recent messages are kept for resuming clients
+    private static final int REPLAY_GAMES = 1024;
+
     private static class ConnectionInfo {
-        String authToken;
-        Integer gameID;
-        String username;
+        volatile String authToken;
+        volatile Integer gameID;
+        volatile String username;
+        volatile boolean moveDeltas;
+        volatile boolean spectator;
 
         public ConnectionInfo() {}
     }
 
+    // Players' sessions by game; spectators are kept by the fan-out instead
     private final Map<Integer, Collection<Session>> gameSessions = new ConcurrentHashMap<>();
     private final Map<Session, ConnectionInfo> connectionInfo = new ConcurrentHashMap<>();
+    private final Map<Integer, GameActor> actors = new ConcurrentHashMap<>();
+    private final ReplayCache streams = new ReplayCache(REPLAY_GAMES, GameActor.REPLAY_CAPACITY);
+    private final Map<Session, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final OutboundLimits limits;
+    private final SpectatorFanout spectators;
+    private final HeartbeatMonitor heartbeats;
+    private final ExecutorService actorThreads;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "game-actor-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final Dataaccess dataAccess;
+    private final LivePositionIndex positions;
     private final Gson gson;
 
     public WebSocketHandle(Dataaccess dataAccess) {
+        this(dataAccess, new LivePositionIndex());
+    }
+
+    public WebSocketHandle(Dataaccess dataAccess, LivePositionIndex positions) {
+        this(dataAccess, positions, OutboundLimits.DEFAULT);
+    }
+
+    public WebSocketHandle(Dataaccess dataAccess, LivePositionIndex positions, OutboundLimits limits) {
+        this(dataAccess, positions, limits, SpectatorSettings.DEFAULT);
+    }
+
+    public WebSocketHandle(Dataaccess dataAccess, LivePositionIndex positions, OutboundLimits limits,
+                           SpectatorSettings spectatorSettings) {
+        this(dataAccess, positions, limits, spectatorSettings, HeartbeatSettings.DEFAULT);
+    }
+
+    public WebSocketHandle(Dataaccess dataAccess, LivePositionIndex positions, OutboundLimits limits,
+                           SpectatorSettings spectatorSettings, HeartbeatSettings heartbeatSettings) {
+        this(dataAccess, positions, limits, spectatorSettings, heartbeatSettings,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * @param actorThreads runs the game actors; shut down by {@link #close}
+     */
+    public WebSocketHandle(Dataaccess dataAccess, LivePositionIndex positions, OutboundLimits limits,
+                           SpectatorSettings spectatorSettings, HeartbeatSettings heartbeatSettings,
+                           ExecutorService actorThreads) {
         this.dataAccess = dataAccess;
-        this.gson = new Gson();
+        this.actorThreads = actorThreads;
+        this.positions = positions;
+        this.limits = limits;
+        this.spectators = new SpectatorFanout(spectatorSettings, this::send);
+        this.heartbeats = new HeartbeatMonitor(heartbeatSettings, this::reap);
+        heartbeats.start();
+        sweeper.scheduleWithFixedDelay(this::retireIdleActors, ACTOR_IDLE_MILLIS / 2, ACTOR_IDLE_MILLIS / 2,
+                TimeUnit.MILLISECONDS);
+        this.gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new CommandTypeAdapterFactory())
+                .create();
+    }
+
+    /**
+     * Forgets every in-memory game, e.g. after the database has been cleared.
+     * Commands already queued still run against the games they were sent for.
+     */
+    public void clear() {
+        actors.clear();
+        streams.clear();
+    }
+
+    /**
+     * Stops the handle's background threads: the heartbeat, the actor sweeper,
+     * the spectator shards and the game actors, which finish what they are
+     * running but take no new commands. Connected sessions are left to the server to close.
+     */
+    public void close() {
+        heartbeats.stop();
+        sweeper.shutdownNow();
+        spectators.close();
+        actorThreads.shutdown();
+    }
+
+    /**
+     * @return the current state of each spectator shard
+     */
+    public List<SpectatorShardStats> spectatorStats() {
+        return spectators.stats();
+    }
+
+    /**
+     * @return how many connections are being pinged and how many have been dropped
+     */
+    public HeartbeatStats heartbeatStats() {
+        return heartbeats.stats();
+    }
+
+    private GameActor actor(int gameID) {
+        return actors.computeIfAbsent(gameID, id -> new GameActor(id, dataAccess, actorThreads, streams.stream(id)));
+    }
+
+    /**
+     * Queues a command on the game's actor, making a new actor if the current
+     * one was retired in the meantime.
+     */
+    private void tell(int gameID, GameActor.Command command) {
+        GameActor actor = actor(gameID);
+        while (!actor.tell(command)) {
+            drop(actor);
+            actor = actor(gameID);
+        }
+    }
+
+    /**
+     * Forgets an actor, letting the replay cache drop its stream in time.
+     */
+    private void drop(GameActor actor) {
+        if (actors.remove(actor.gameID(), actor)) {
+            streams.release(actor.gameID());
+        }
+    }
+
+    /**
+     * Drops actors whose games have been quiet for a while. Their games are in
+     * the database and their streams in the replay cache, so nothing is lost.
+     */
+    private void retireIdleActors() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(ACTOR_IDLE_MILLIS);
+        actors.forEach((gameID, actor) -> {
+            if (actor.retireIfIdle(idleNanos)) {
+                drop(actor);
+            }
+        });
     }
 
     @OnWebSocketConnect
     public void onConnect(Session session) {
 
         connectionInfo.put(session, new ConnectionInfo());
+        outboxes.put(session, new SessionOutbox(session, limits, wantsBinary(session)));
+        heartbeats.track(session);
         System.out.println("Debug: WebSocket connected"); // Add debugging
     }
 
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         System.out.println("Debug: WebSocket closed - Status: " + statusCode + ", Reason: " + reason); // Add debugging
+        disconnected(session);
+    }
+
+    /**
+     * Any frame from the client, pongs included, shows it is still there.
+     */
+    @OnWebSocketFrame
+    public void onFrame(Session session, Frame frame) {
+        heartbeats.heard(session);
+    }
+
+    /**
+     * Drops a client the heartbeat has given up on. Its socket may be half
+     * open, so it is forgotten straight away rather than when Jetty notices.
+     */
+    private void reap(Session session, String reason) {
+        System.err.println("Dropping WebSocket client: " + reason);
+        try {
+            session.disconnect();
+        } catch (IOException e) {
+            // Already gone
+        }
+        disconnected(session);
+    }
+
+    /**
+     * Forgets a session that has closed or been dropped, telling the rest of
+     * its game it has left. Safe to call more than once.
+     */
+    private void disconnected(Session session) {
+        heartbeats.untrack(session);
+        SessionOutbox outbox = outboxes.remove(session);
+        if (outbox != null) {
+            outbox.close();
+        }
         ConnectionInfo info = connectionInfo.remove(session);
         if (info != null && info.gameID != null) {
-            Collection<Session> gameWatchers = gameSessions.get(info.gameID);
-            if (gameWatchers != null) {
-                gameWatchers.remove(session);
-                if (info.username != null) {
-                    notifyOthers(info.gameID, session, info.username + " has left the game");
+            // Through the actor, so the notice is ordered with the game's other messages
+            tell(info.gameID, actor -> {
+                if (detach(session, info) && info.username != null) {
+                    notifyOthers(actor, session, info.username, info.username + " has left the game");
                 }
-            }
+            });
         }
     }
 
+    /**
+     * @return true if the client connected with {@code ?proto=binary}
+     */
+    private static boolean wantsBinary(Session session) {
+        UpgradeRequest request = session.getUpgradeRequest();
+        if (request == null || request.getParameterMap() == null) {
+            return false;
+        }
+        List<String> protocol = request.getParameterMap().get("proto");
+        return protocol != null && protocol.contains(BinaryCodec.PROTOCOL);
+    }
+
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
         try {
-            UserGameCommand command = gson.fromJson(message, UserGameCommand.class);
-            switch (command.getCommandType()) {
-                case CONNECT -> handleConnect(session, message);
-                case MAKE_MOVE -> handleMove(session, message);
-                case LEAVE -> handleLeave(session);
-                case RESIGN -> handleResign(session, command);
-            }
+            // Decodes straight to the concrete command; see CommandTypeAdapterFactory
+            route(session, gson.fromJson(message, UserGameCommand.class));
+        } catch (Exception e) {
+            sendError(session, "Error processing command: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Commands from clients using the binary protocol, which decode straight to
+     * their own class.
+     */
+    @OnWebSocketMessage
+    public void onMessage(Session session, byte[] payload, int offset, int length) throws IOException {
+        try {
+            route(session, BinaryCodec.decodeCommand(ByteBuffer.wrap(payload, offset, length)));
         } catch (Exception e) {
             sendError(session, "Error processing command: " + e.getMessage());
         }
     }
 
+    private void route(Session session, UserGameCommand command) throws IOException {
+        switch (command.getCommandType()) {
+            case CONNECT -> {
+                ConnectCommand connect = (ConnectCommand) command;
+                dispatch(session, connect.getGameID(), actor -> handleConnect(session, connect, actor));
+            }
+            case MAKE_MOVE -> {
+                MakeMoveCommand move = (MakeMoveCommand) command;
+                dispatch(session, move.getGameID(), actor -> handleMove(session, move, actor));
+            }
+            case LEAVE -> {
+                ConnectionInfo info = connectionInfo.get(session);
+                if (info != null && info.gameID != null) {
+                    dispatch(session, info.gameID, actor -> handleLeave(session, actor));
+                }
+            }
+            case RESIGN -> dispatch(session, command.getGameID(), actor -> handleResign(session, command, actor));
+            case RESUME -> {
+                ResumeCommand resume = (ResumeCommand) command;
+                dispatch(session, resume.getGameID(), actor -> handleResume(session, resume, actor));
+            }
+            case SYNC -> dispatch(session, command.getGameID(), actor -> handleSync(session, command, actor));
+        }
+    }
+
+    /**
+     * Queues a command on its game's actor, reporting any failure to the sender.
+     */
+    private void dispatch(Session session, Integer gameID, GameActor.Command command) throws IOException {
+        if (gameID == null) {
+            sendError(session, "Error processing command: missing game ID");
+            return;
+        }
+        tell(gameID, actor -> {
+            try {
+                command.run(actor);
+            } catch (Exception e) {
+                sendError(session, "Error processing command: " + e.getMessage());
+            }
+        });
+    }
+
     @OnWebSocketError
     public void onWebSocketError(Session session, Throwable cause) throws IOException {
         System.out.println("Debug: WebSocket error: " + cause.getMessage()); // Add debugging
         sendError(session,"WebSocket error: " + cause.getMessage());
     }
 
-    private void handleConnect(Session session, String messageJson) throws IOException {
-        ConnectCommand command = gson.fromJson(messageJson, ConnectCommand.class);
+    private void handleConnect(Session session, ConnectCommand command, GameActor actor) throws IOException {
         try {
-            AuthData auth = dataAccess.getAuth(command.getAuthToken());
-            GameData game = dataAccess.getGame(command.getGameID());
-
-            ConnectionInfo info = connectionInfo.get(session);
-            info.authToken = command.getAuthToken();
-            info.gameID = command.getGameID();
-            info.username = auth.username();
-
-            gameSessions.computeIfAbsent(command.getGameID(), k -> ConcurrentHashMap.newKeySet())
-                    .add(session);
+            AuthData auth = attach(session, command.getAuthToken(), command.wantsMoveDeltas(), actor);
+            if (auth == null) {
+                return;
+            }
+            GameData game = actor.game();
 
-            sendGameState(session, game);
+            deliver(session, actor, List.of(gameState(actor)));
 
             String roleDescription = determineRole(auth.username(), game);
-            notifyOthers(command.getGameID(), session,
+            notifyOthers(actor, session, auth.username(),
                     auth.username() + " has joined the game as " + roleDescription);
 
         } catch (DataAccessException e) {
@@ -105,11 +358,125 @@ public class WebSocketHandle {
         }
     }
 
-    private void handleMove(Session session, String messageJson) throws IOException {
-        MakeMoveCommand command = gson.fromJson(messageJson, MakeMoveCommand.class);
+    /**
+     * Reattaches a client that lost its connection, replaying what it missed
+     * without telling the other clients.
+     */
+    private void handleResume(Session session, ResumeCommand command, GameActor actor) throws IOException {
+        try {
+            AuthData auth = attach(session, command.getAuthToken(), command.wantsMoveDeltas(), actor);
+            if (auth == null) {
+                return;
+            }
+            List<ReplayBuffer.Entry> missed = actor.stream().after(command.getLastSequence());
+            if (missed == null) {
+                deliver(session, actor, List.of(gameState(actor)));
+                return;
+            }
+
+            List<OutboundFrame> frames = new ArrayList<>();
+            boolean moved = false;
+            for (ReplayBuffer.Entry entry : missed) {
+                if (entry.frame().delta() && !command.wantsMoveDeltas()) {
+                    // One full game at the end covers every missed move
+                    moved = true;
+                } else if (!auth.username().equals(entry.exclude())) {
+                    frames.add(entry.frame());
+                }
+            }
+            if (moved) {
+                frames.add(gameState(actor));
+            }
+            deliver(session, actor, frames);
+
+        } catch (DataAccessException e) {
+            sendError(session, "Error resuming: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the client's auth and records which game it is watching. Players
+     * are added to the game's sessions here; spectators are registered with the
+     * fan-out by {@link #deliver}. The role is worked out again on every call,
+     * and a session whose game or role changed is taken out of where it was.
+     *
+     * @return the client's auth, or null if the session closed while the command was queued
+     */
+    private AuthData attach(Session session, String authToken, boolean moveDeltas, GameActor actor)
+            throws DataAccessException {
+        AuthData auth = dataAccess.getAuth(authToken);
+        GameData game;
+        try {
+            game = actor.refreshPlayers();
+        } catch (DataAccessException e) {
+            // Don't keep an actor around for a game that doesn't exist
+            drop(actor);
+            throw e;
+        }
+
+        ConnectionInfo info = connectionInfo.get(session);
+        if (info == null) {
+            return null;
+        }
+        boolean spectator = !auth.username().equals(game.whiteUsername())
+                && !auth.username().equals(game.blackUsername());
+        if (info.gameID != null && (info.gameID != actor.gameID() || info.spectator != spectator)) {
+            // Another game, or a seat taken or given up since the last CONNECT
+            detach(session, info);
+        }
+        info.authToken = authToken;
+        info.gameID = actor.gameID();
+        info.username = auth.username();
+        info.moveDeltas = moveDeltas;
+        info.spectator = spectator;
+        heartbeats.joined(session);
+
+        if (!info.spectator) {
+            gameSessions.computeIfAbsent(actor.gameID(), k -> ConcurrentHashMap.newKeySet())
+                    .add(session);
+        }
+        if (connectionInfo.get(session) != info) {
+            // Closed meanwhile, possibly before the game was recorded for its cleanup
+            detach(session, info);
+            return null;
+        }
+        return auth;
+    }
+
+    /**
+     * Stops sending the game's broadcasts to a session.
+     *
+     * @return true if the session was watching the game
+     */
+    private boolean detach(Session session, ConnectionInfo info) {
+        if (info.spectator) {
+            spectators.unwatch(info.gameID, session);
+            return true;
+        }
+        Collection<Session> watchers = gameSessions.get(info.gameID);
+        return watchers != null && watchers.remove(session);
+    }
+
+    /**
+     * Sends frames meant for one session. For a spectator they go through the
+     * fan-out, which also starts sending it the game's broadcasts, so they keep
+     * their place in order and any spectator delay.
+     */
+    private void deliver(Session session, GameActor actor, List<OutboundFrame> frames) {
+        ConnectionInfo info = connectionInfo.get(session);
+        if (info != null && info.spectator) {
+            spectators.watch(actor.gameID(), session, info.moveDeltas, frames);
+        } else {
+            for (OutboundFrame frame : frames) {
+                send(session, frame);
+            }
+        }
+    }
+
+    private void handleMove(Session session, MakeMoveCommand command, GameActor actor) throws IOException {
         try {
             AuthData auth = dataAccess.getAuth(command.getAuthToken());
-            GameData game = dataAccess.getGame(command.getGameID());
+            GameData game = actor.game();
 
             if (game.game().getTeamTurn() == ChessGame.TeamColor.RESIGNED) {
                 throw new DataAccessException("Game is over");
@@ -130,62 +497,31 @@ public class WebSocketHandle {
                 throw new DataAccessException("Can only move your own pieces");
             }
 
-            game.game().makeMove(command.getMove());
-            dataAccess.updateGame(game);
+            // Played on a copy, so the actor only moves on once the write has worked
+            ChessGame next = new ChessGame(game.game());
+            next.makeMove(command.getMove());
+            actor.updateGame(next);
+            positions.record(game.gameID(), next);
 
-            Collection<Session> watchers = gameSessions.get(command.getGameID());
-            if (watchers != null) {
-                String moveDesc = auth.username() + " moved " + command.getMove().toString();
-                for (Session watcher : watchers) {
-                    sendGameState(watcher, game);
-                }
-                notifyOthers(command.getGameID(), session, moveDesc);
-            }
+            String moveDesc = auth.username() + " moved " + command.getMove().toString();
+            broadcastMove(actor, next, command.getMove());
+            notifyOthers(actor, session, auth.username(), moveDesc);
 
         } catch (DataAccessException | chess.InvalidMoveException e) {
             sendError(session, "Error making move: " + e.getMessage());
         }
     }
 
-    private void handleLeave(Session session) throws IOException {
+    private void handleLeave(Session session, GameActor actor) throws IOException {
         ConnectionInfo info = connectionInfo.get(session);
         if (info != null && info.gameID != null) {
             try {
-                // Get the current game state
-                GameData game = dataAccess.getGame(info.gameID);
-
-                // If they're a player (not observer), update the game data to remove them
-                if (info.username.equals(game.whiteUsername())) {
-                    // Create new GameData with white player removed
-                    game = new GameData(
-                            game.gameID(),
-                            null,  // Remove white username
-                            game.blackUsername(),
-                            game.gameName(),
-                            game.game()
-                    );
-                    // Update the game in the database
-                    dataAccess.updateGame(game);
-                } else if (info.username.equals(game.blackUsername())) {
-                    // Create new GameData with black player removed
-                    game = new GameData(
-                            game.gameID(),
-                            game.whiteUsername(),
-                            null,  // Remove black username
-                            game.gameName(),
-                            game.game()
-                    );
-                    // Update the game in the database
-                    dataAccess.updateGame(game);
-                }
+                // If they're a player (not observer), free their seat
+                actor.removePlayer(info.username);
 
                 // Remove from active sessions
-                Collection<Session> watchers = gameSessions.get(info.gameID);
-                if (watchers != null) {
-                    watchers.remove(session);
-                    if (info.username != null) {
-                        notifyOthers(info.gameID, session, info.username + " has left the game");
-                    }
+                if (detach(session, info) && info.username != null) {
+                    notifyOthers(actor, session, info.username, info.username + " has left the game");
                 }
 
             } catch (DataAccessException e) {
@@ -194,10 +530,10 @@ public class WebSocketHandle {
         }
     }
 
-    private void handleResign(Session session, UserGameCommand command) throws IOException {
+    private void handleResign(Session session, UserGameCommand command, GameActor actor) throws IOException {
         try {
             AuthData auth = dataAccess.getAuth(command.getAuthToken());
-            GameData game = dataAccess.getGame(command.getGameID());
+            GameData game = actor.game();
 
             // First validate that this is a valid resign attempt
             if (game.game().getTeamTurn() == ChessGame.TeamColor.RESIGNED) {
@@ -211,18 +547,12 @@ public class WebSocketHandle {
             }
 
             // If we get here, the resignation is valid
-            game.game().setTeamTurn(ChessGame.TeamColor.RESIGNED);
-            dataAccess.updateGame(game);
+            ChessGame next = new ChessGame(game.game());
+            next.setTeamTurn(ChessGame.TeamColor.RESIGNED);
+            actor.updateGame(next);
 
             String notification = auth.username() + " has resigned from the game";
-            Collection<Session> watchers = gameSessions.get(command.getGameID());
-            if (watchers != null) {
-                NotificationMessage message = new NotificationMessage(notification);
-                String messageJson = gson.toJson(message);
-                for (Session watcher : watchers) {
-                    watcher.getRemote().sendString(messageJson);
-                }
-            }
+            broadcast(actor.gameID(), sequenced(actor, new NotificationMessage(notification), null), null);
 
         } catch (DataAccessException e) {
             // Convert the validation failure into an error message back to the client
@@ -230,6 +560,19 @@ public class WebSocketHandle {
         }
     }
 
+    private void handleSync(Session session, UserGameCommand command, GameActor actor) throws IOException {
+        try {
+            dataAccess.getAuth(command.getAuthToken());
+            ConnectionInfo info = connectionInfo.get(session);
+            if (info == null || !command.getGameID().equals(info.gameID)) {
+                throw new DataAccessException("Not connected to this game");
+            }
+            deliver(session, actor, List.of(gameState(actor)));
+        } catch (DataAccessException e) {
+            sendError(session, "Error syncing game: " + e.getMessage());
+        }
+    }
+
     private String determineRole(String username, GameData game) {
         if (username.equals(game.whiteUsername())) {
             return "WHITE player";
@@ -240,31 +583,89 @@ public class WebSocketHandle {
         }
     }
 
-    private void sendGameState(Session session, GameData gameData) throws IOException {
-        LoadGameMessage message = new LoadGameMessage(gameData.game());
-        session.getRemote().sendString(gson.toJson(message));
+    /**
+     * @return the whole game, numbered with the game's latest sequence number
+     * so the client knows where in the stream it stands
+     */
+    private OutboundFrame gameState(GameActor actor) throws DataAccessException {
+        // Shared rather than copied: the actor replaces its game, never changes it
+        LoadGameMessage message = new LoadGameMessage(actor.game().game());
+        message.setSequence(actor.stream().lastSequence());
+        return OutboundFrame.of(gson, message);
+    }
+
+    private void sendError(Session session, String errorMessage) {
+        send(session, OutboundFrame.of(gson, new ErrorMessage(errorMessage)));
     }
 
-    private void sendError(Session session, String errorMessage) throws IOException {
-        ErrorMessage message = new ErrorMessage(errorMessage);
-        session.getRemote().sendString(gson.toJson(message));
+    /**
+     * Queues a message on the session's outbox; it is written in the background.
+     * Messages for sessions that have already closed are dropped.
+     */
+    private void send(Session session, OutboundFrame frame) {
+        SessionOutbox outbox = outboxes.get(session);
+        if (outbox != null) {
+            outbox.offer(frame);
+        }
     }
 
-    private void notifyOthers(Integer gameID, Session exclude, String notification) {
+    /**
+     * Queues one frame on every session watching the game: directly for the
+     * players, through the fan-out for spectators.
+     *
+     * @param exclude a session to leave out, or null
+     */
+    private void broadcast(Integer gameID, OutboundFrame frame, Session exclude) {
         Collection<Session> watchers = gameSessions.get(gameID);
         if (watchers != null) {
-            NotificationMessage message = new NotificationMessage(notification);
-            String messageJson = gson.toJson(message);
-
             for (Session watcher : watchers) {
                 if (watcher != exclude) {
-                    try {
-                        watcher.getRemote().sendString(messageJson);
-                    } catch (IOException e) {
-                        System.err.println("Failed to notify session: " + e.getMessage());
-                    }
+                    send(watcher, frame);
                 }
             }
         }
+        spectators.publish(gameID, frame, null, exclude);
+    }
+
+    /**
+     * Sends a move to everyone watching: as a delta to sessions that asked for
+     * deltas and as the full game to the rest. Each form is encoded at most once.
+     */
+    private void broadcastMove(GameActor actor, ChessGame game, ChessMove move) {
+        // The delta is what the stream keeps, whoever is watching now
+        MoveMessage moveMessage = MoveMessage.after(game, move);
+        OutboundFrame delta = sequenced(actor, moveMessage, null);
+        // Only encoded if someone turns out to want the whole game, and the game
+        // is shared rather than copied since the actor never changes it again
+        LoadGameMessage message = new LoadGameMessage(game);
+        message.setSequence(moveMessage.getSequence());
+        OutboundFrame full = OutboundFrame.of(gson, message);
+
+        Collection<Session> watchers = gameSessions.get(actor.gameID());
+        if (watchers != null) {
+            for (Session watcher : watchers) {
+                ConnectionInfo info = connectionInfo.get(watcher);
+                send(watcher, info != null && info.moveDeltas ? delta : full);
+            }
+        }
+        spectators.publish(actor.gameID(), full, delta, null);
+    }
+
+    /**
+     * Numbers a message as the next in the game's stream, encodes it and keeps
+     * it for replay. Must be called from one of the game's commands.
+     *
+     * @param exclude the user who will not be sent it, or null
+     */
+    private OutboundFrame sequenced(GameActor actor, ServerMessage message, String exclude) {
+        ReplayBuffer stream = actor.stream();
+        message.setSequence(stream.lastSequence() + 1);
+        OutboundFrame frame = OutboundFrame.of(gson, message);
+        stream.append(frame, exclude);
+        return frame;
+    }
+
+    private void notifyOthers(GameActor actor, Session exclude, String excludeUser, String notification) {
+        broadcast(actor.gameID(), sequenced(actor, new NotificationMessage(notification), excludeUser), exclude);
     }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package service;
+
+import chess.BoardSnapshot;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.engine.Search;
+import chess.engine.SearchLine;
+import chess.engine.SearchMetrics;
+import chess.engine.SearchStats;
+import dataaccess.DataAccessException;
+import dataaccess.Dataaccess;
+import model.AnalysisRequest;
+import model.AnalysisResult;
+import model.AuthData;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs engine analysis for users on a small pool of its own, so that analysis
+ * can never take threads or much CPU from gameplay requests. The pool has a
+ * fixed number of low-priority threads and a bounded queue; requests beyond
+ * that are rejected with {@link RejectedExecutionException} rather than queued.
+ * Every request is held to a node and time budget.
+ */
+public class AnalysisService {
+    public static final int MAX_LINES = 5;
+    public static final int MAX_DEPTH = 10;
+    public static final long MAX_NODES = 2_000_000;
+    public static final long MAX_MILLIS = 5_000;
+
+    private static final int DEFAULT_LINES = 3;
+    private static final int DEFAULT_DEPTH = 6;
+    private static final long DEFAULT_NODES = 200_000;
+    private static final long DEFAULT_MILLIS = 2_000;
+    // How much longer than the longest search a caller waits, to cover queueing
+    private static final long WAIT_SLACK_MILLIS = 2_000;
+
+    private final Dataaccess dataAccess;
+    private final AuthService authService;
+    private final SearchMetrics metrics;
+    private final ThreadPoolExecutor pool;
+
+    public AnalysisService(Dataaccess dataAccess, AuthService authService, SearchMetrics metrics) {
+        this(dataAccess, authService, metrics, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 16);
+    }
+
+    /**
+     * @param threads    analysis worker threads
+     * @param queueLimit requests that may wait for a worker before new ones are rejected
+     */
+    public AnalysisService(Dataaccess dataAccess, AuthService authService, SearchMetrics metrics,
+                           int threads, int queueLimit) {
+        this.dataAccess = dataAccess;
+        this.authService = authService;
+        this.metrics = metrics;
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+            Thread thread = new Thread(runnable, "analysis-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Analyses a stored game's current position or a FEN position.
+     *
+     * @throws DataAccessException        if the auth token is invalid
+     * @throws IllegalArgumentException   if the request names no position or a bad one
+     * @throws RejectedExecutionException if the analysis queue is full
+     * @throws TimeoutException           if no result came in time, e.g. after a long wait in the queue
+     * @throws IllegalStateException      if the search itself failed
+     */
+    public AnalysisResult analyze(String authToken, AnalysisRequest request)
+            throws DataAccessException, InterruptedException, TimeoutException {
+        AuthData authData = authService.getAuth(authToken);
+        if (authData == null) {
+            throw new DataAccessException("Invalid auth token");
+        }
+        BoardSnapshot position = position(request);
+
+        int lines = clamp(request.lines(), DEFAULT_LINES, MAX_LINES);
+        int depth = clamp(request.depth(), DEFAULT_DEPTH, MAX_DEPTH);
+        long nodes = clamp(request.nodes(), DEFAULT_NODES, MAX_NODES);
+        long millis = clamp(request.movetime(), DEFAULT_MILLIS, MAX_MILLIS);
+
+        Search search = new Search(position);
+        search.setNodeLimit(nodes);
+        search.setTimeLimit(millis);
+        search.setMetrics(metrics);
+        Future<List<SearchLine>> future = pool.submit(() -> search.searchLines(depth, lines));
+        List<SearchLine> found;
+        try {
+            // Bounded, so a request stuck in the queue gives its thread back
+            found = future.get(MAX_MILLIS + WAIT_SLACK_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis failed", e.getCause());
+        } catch (InterruptedException | TimeoutException e) {
+            future.cancel(true);
+            search.stop();
+            throw e;
+        }
+
+        List<AnalysisResult.Line> result = new ArrayList<>(found.size());
+        for (SearchLine line : found) {
+            List<String> moves = new ArrayList<>(line.moves().size());
+            for (ChessMove move : line.moves()) {
+                moves.add(coordinates(move));
+            }
+            result.add(new AnalysisResult.Line(moves, line.score()));
+        }
+        SearchStats stats = search.getStats();
+        return new AnalysisResult(Fen.toFen(position), stats.iterationNodes().length, result,
+                stats.totalNodes(), stats.elapsedNanos() / 1_000_000);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return requests waiting for a worker
+     */
+    int queued() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return the position to analyse; for a stored game, the snapshot it keeps,
+     * as the game itself may be changed by its actor while the search runs
+     */
+    private BoardSnapshot position(AnalysisRequest request) {
+        if ((request.gameID() == null) == (request.fen() == null)) {
+            throw new IllegalArgumentException("Give either a gameID or a fen");
+        }
+        if (request.fen() != null) {
+            ChessGame game = Fen.parse(request.fen());
+            if (kings(game, ChessGame.TeamColor.WHITE) != 1 || kings(game, ChessGame.TeamColor.BLACK) != 1) {
+                throw new IllegalArgumentException("Position needs exactly one king per side");
+            }
+            return game.snapshot();
+        }
+        GameData game;
+        try {
+            game = dataAccess.getGame(request.gameID());
+        } catch (DataAccessException e) {
+            throw new IllegalArgumentException("Game not found");
+        }
+        if (game == null || game.game() == null) {
+            throw new IllegalArgumentException("Game not found");
+        }
+        return game.game().snapshot();
+    }
+
+    private static int kings(ChessGame game, ChessGame.TeamColor color) {
+        int count = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == color && piece.getPieceType() == ChessPiece.PieceType.KING) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int clamp(Integer requested, int fallback, int max) {
+        return requested == null || requested < 1 ? fallback : Math.min(requested, max);
+    }
+
+    private static long clamp(Long requested, long fallback, long max) {
+        return requested == null || requested < 1 ? fallback : Math.min(requested, max);
+    }
+
+    private static String coordinates(ChessMove move) {
+        String text = square(move.getStartPosition()) + square(move.getEndPosition());
+        if (move.getPromotionPiece() == null) {
+            return text;
+        }
+        return text + switch (move.getPromotionPiece()) {
+            case QUEEN -> "q";
+            case ROOK -> "r";
+            case BISHOP -> "b";
+            case KNIGHT -> "n";
+            default -> "";
+        };
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
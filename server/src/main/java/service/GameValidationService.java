@@ -0,0 +1,41 @@
+package service;
+
+import chess.replay.GameReplayer;
+import chess.replay.ReplayGame;
+import chess.replay.ReplayReport;
+import dataaccess.Dataaccess;
+import dataaccess.DataAccessException;
+import dataaccess.MySQLDataAccess;
+
+import java.util.List;
+
+/**
+ * Replays every stored game from its move history and checks the result
+ * against the board saved with it, e.g. to find games broken by a rules fix.
+ */
+public class GameValidationService {
+    private final Dataaccess dataAccess;
+
+    public GameValidationService(Dataaccess dataAccess) {
+        this.dataAccess = dataAccess;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReplayReport report = new GameValidationService(new MySQLDataAccess()).validateAll();
+        System.out.print(report);
+    }
+
+    public ReplayReport validateAll() throws DataAccessException, InterruptedException {
+        GameReplayer replayer = new GameReplayer();
+        long start = System.nanoTime();
+        GameReplayer.Feed feed = replayer.feed();
+        dataAccess.forEachGame(game -> {
+            if (game.game() != null) {
+                feed.accept(ReplayGame.ofMoves(String.valueOf(game.gameID()),
+                        List.copyOf(game.game().getMoveHistory()), game.game().getBoard()));
+            }
+        });
+        feed.finish();
+        return replayer.report(System.nanoTime() - start);
+    }
+}
@@ -1,5 +1,6 @@
 package service;
 
+import dataaccess.BlockingPool;
 import dataaccess.Dataaccess;
 import dataaccess.DataAccessException;
 import model.UserData;
@@ -9,10 +10,20 @@ import org.mindrot.jbcrypt.BCrypt;
 public class UserService {
     private final Dataaccess dataAccess;
     private final AuthService authService;
+    private final BlockingPool hashing;
 
     public UserService(Dataaccess dataAccess, AuthService authService) {
+        this(dataAccess, authService, BlockingPool.direct());
+    }
+
+    /**
+     * @param hashing where passwords are hashed and checked, since BCrypt keeps
+     *                a CPU busy for a good while
+     */
+    public UserService(Dataaccess dataAccess, AuthService authService, BlockingPool hashing) {
         this.dataAccess = dataAccess;
         this.authService = authService;
+        this.hashing = hashing;
     }
 
     public AuthData register(UserData user) throws DataAccessException {
@@ -21,8 +32,9 @@ public class UserService {
             throw new DataAccessException("User already exists");
         }
 
-        // Create user
-        dataAccess.createUser(user);
+        // Hash here rather than in the data access, so it runs on the hashing threads
+        String hashedPassword = hashing.call(() -> BCrypt.hashpw(user.password(), BCrypt.gensalt()));
+        dataAccess.createUser(new UserData(user.username(), hashedPassword, user.email()));
 
         // Create auth token using AuthService
         return authService.createAuth(user.username());
@@ -33,7 +45,8 @@ public class UserService {
         UserData storedUser = dataAccess.getUser(user.username());
 
         // Check if user exists and password matches using BCrypt
-        if (storedUser == null || !BCrypt.checkpw(user.password(), storedUser.password())) {
+        if (storedUser == null
+                || !hashing.call(() -> BCrypt.checkpw(user.password(), storedUser.password()))) {
             throw new DataAccessException("Invalid username or password");
         }
 
@@ -0,0 +1,63 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingPoolTest {
+
+    @Test
+    void directPoolRunsOnCaller() throws DataAccessException {
+        Thread caller = Thread.currentThread();
+        assertSame(caller, BlockingPool.direct().call(Thread::currentThread));
+    }
+
+    @Test
+    void runsOnPoolThreadAndRethrowsDataAccessException() throws DataAccessException {
+        try (BlockingPool pool = new BlockingPool("test", 1)) {
+            assertTrue(pool.call(() -> Thread.currentThread().getName()).startsWith("test-"));
+
+            DataAccessException e = assertThrows(DataAccessException.class, () -> pool.call(() -> {
+                throw new DataAccessException("Game not found");
+            }));
+            assertEquals("Game not found", e.getMessage());
+        }
+    }
+
+    @Test
+    void limitsConcurrentCallsFromVirtualThreads() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        List<Thread> callers = new ArrayList<>();
+
+        try (BlockingPool pool = new BlockingPool("test", 3)) {
+            for (int i = 0; i < 200; i++) {
+                callers.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        pool.call(() -> {
+                            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            LockSupport.parkNanos(1_000_000);
+                            running.decrementAndGet();
+                            return null;
+                        });
+                        completed.incrementAndGet();
+                    } catch (DataAccessException e) {
+                        fail(e.getMessage());
+                    }
+                }));
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+        }
+
+        assertEquals(200, completed.get());
+        assertTrue(mostRunning.get() <= 3, "ran " + mostRunning.get() + " at once");
+    }
+}
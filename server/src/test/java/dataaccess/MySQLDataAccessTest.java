@@ -46,7 +46,8 @@ class MySQLDataAccessTest {
     void getUserExists() throws DataAccessException {
         // Arrange
         String plainTextPassword = "password123";
-        UserData user = new UserData("testUser", plainTextPassword, "test@example.com");
+        UserData user = new UserData("testUser", BCrypt.hashpw(plainTextPassword, BCrypt.gensalt()),
+                "test@example.com");
         dataAccess.createUser(user);
 
         // Act
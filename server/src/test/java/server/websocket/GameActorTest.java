@@ -0,0 +1,157 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccessException;
+import dataaccess.Dataaccess;
+import dataaccess.MemoryDataaccess;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameActorTest {
+    private Dataaccess dataAccess;
+    private ExecutorService threads;
+    private int gameID;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataaccess();
+        dataAccess.clearAll();
+        threads = Executors.newVirtualThreadPerTaskExecutor();
+        gameID = dataAccess.createGame(new GameData(0, "white", "black", "actor", new ChessGame()));
+    }
+
+    @Test
+    void runsCommandsOneAtATimeInOrder() throws InterruptedException {
+        GameActor actor = new GameActor(gameID, dataAccess, threads);
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            actor.tell(a -> {
+                assertEquals(1, running.incrementAndGet(), "Commands overlapped");
+                order.add(index);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    void keepsBoardWhenPlayersAreRefreshed() throws Exception {
+        GameActor actor = new GameActor(gameID, dataAccess, threads);
+        CountDownLatch done = new CountDownLatch(1);
+        List<GameData> seen = new ArrayList<>();
+        actor.tell(a -> {
+            ChessGame next = new ChessGame(a.game().game());
+            next.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            a.updateGame(next);
+            dataAccess.updateGame(new GameData(gameID, null, "black", "actor", new ChessGame()));
+            seen.add(a.refreshPlayers());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNull(seen.get(0).whiteUsername());
+        assertEquals(ChessGame.TeamColor.BLACK, seen.get(0).game().getTeamTurn());
+    }
+
+    @Test
+    void moveDoesNotUndoJoinOverHttp() throws Exception {
+        int openGame = dataAccess.createGame(new GameData(0, "white", null, "open", new ChessGame()));
+        GameActor actor = new GameActor(openGame, dataAccess, threads);
+        CountDownLatch done = new CountDownLatch(1);
+        actor.tell(a -> {
+            ChessGame next = new ChessGame(a.game().game());
+            // Black joins after the actor has loaded the game
+            dataAccess.updateGame(new GameData(openGame, "white", "black", "open", new ChessGame()));
+            next.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            a.updateGame(next);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        GameData stored = dataAccess.getGame(openGame);
+        assertEquals("black", stored.blackUsername());
+        assertEquals(ChessGame.TeamColor.BLACK, stored.game().getTeamTurn());
+    }
+
+    @Test
+    void failedWriteLeavesGameAsItWas() throws Exception {
+        GameActor actor = new GameActor(gameID, dataAccess, threads);
+        CountDownLatch done = new CountDownLatch(1);
+        List<ChessGame> seen = new ArrayList<>();
+        actor.tell(a -> {
+            ChessGame before = a.game().game();
+            dataAccess.clearAll();
+            ChessGame next = new ChessGame(before);
+            next.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            assertThrows(DataAccessException.class, () -> a.updateGame(next));
+            seen.add(a.game().game());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(ChessGame.TeamColor.WHITE, seen.get(0).getTeamTurn());
+        assertTrue(seen.get(0).getMoveHistory().isEmpty());
+    }
+
+    @Test
+    void retiresOnlyOnceIdleAndThenRefusesCommands() throws InterruptedException {
+        GameActor actor = new GameActor(gameID, dataAccess, threads);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        assertTrue(actor.tell(a -> release.await()));
+        assertTrue(actor.tell(a -> done.countDown()));
+
+        // Busy with a queued command behind it
+        assertFalse(actor.retireIfIdle(0));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertFalse(actor.retireIfIdle(TimeUnit.MINUTES.toNanos(1)));
+        assertTrue(actor.retireIfIdle(0));
+        assertFalse(actor.tell(a -> fail("Retired actor ran a command")));
+    }
+
+    @Test
+    void newActorCarriesOnTheStream() {
+        ReplayCache streams = new ReplayCache(2, 8);
+        new GameActor(gameID, dataAccess, threads, streams.stream(gameID)).stream()
+                .append(new OutboundFrame("m1", false), null);
+
+        GameActor next = new GameActor(gameID, dataAccess, threads, streams.stream(gameID));
+        assertEquals(1, next.stream().lastSequence());
+    }
+
+    @Test
+    void failingCommandDoesNotStopTheMailbox() throws InterruptedException {
+        GameActor actor = new GameActor(gameID, dataAccess, threads);
+        CountDownLatch done = new CountDownLatch(1);
+        actor.tell(a -> {
+            throw new IllegalStateException("boom");
+        });
+        actor.tell(a -> done.countDown());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
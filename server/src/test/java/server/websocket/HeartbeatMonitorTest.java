@@ -0,0 +1,142 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatMonitorTest {
+    private final HeartbeatSettings settings = new HeartbeatSettings(100, 300, 1_000);
+    private final List<String> reaped = new ArrayList<>();
+    private int pings;
+    private long now;
+
+    private final HeartbeatMonitor monitor = new HeartbeatMonitor(settings, () -> now, Runnable::run,
+            (session, reason) -> reaped.add(reason));
+
+    @Test
+    void pingsQuietClientAndReapsItWhenNoReplyComes() {
+        Session session = session();
+        monitor.track(session);
+        monitor.joined(session);
+
+        for (now = 0; now <= 250; now += 10) {
+            monitor.tick(now);
+        }
+        assertEquals(2, pings);
+        assertEquals(List.of(), reaped);
+
+        for (; now <= 500; now += 10) {
+            monitor.tick(now);
+        }
+        assertEquals(List.of("No reply to pings"), reaped);
+        HeartbeatStats stats = monitor.stats();
+        assertEquals(0, stats.sessions());
+        assertEquals(1, stats.reapedUnresponsive());
+    }
+
+    @Test
+    void clientThatKeepsAnsweringStays() {
+        Session session = session();
+        monitor.track(session);
+        monitor.joined(session);
+
+        for (now = 0; now <= 2_000; now += 10) {
+            if (now % 150 == 0) {
+                monitor.heard(session);
+            }
+            monitor.tick(now);
+        }
+
+        assertEquals(List.of(), reaped);
+        assertEquals(1, monitor.stats().sessions());
+    }
+
+    @Test
+    void reapsClientThatNeverJoinsAGame() {
+        Session session = session();
+        monitor.track(session);
+
+        for (now = 0; now <= 1_200; now += 10) {
+            monitor.heard(session);
+            monitor.tick(now);
+        }
+
+        assertEquals(List.of("Idle without joining a game"), reaped);
+        assertEquals(1, monitor.stats().reapedIdle());
+    }
+
+    @Test
+    void untrackedSessionIsLeftAlone() {
+        Session session = session();
+        monitor.track(session);
+        monitor.untrack(session);
+
+        for (now = 0; now <= 1_000; now += 10) {
+            monitor.tick(now);
+        }
+
+        assertEquals(0, pings);
+        assertEquals(List.of(), reaped);
+    }
+
+    @Test
+    void stuckPingDoesNotHoldUpOtherSessions() throws InterruptedException {
+        CountDownLatch unstick = new CountDownLatch(1);
+        List<String> reapedHere = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pinger = Executors.newVirtualThreadPerTaskExecutor();
+        HeartbeatMonitor threaded = new HeartbeatMonitor(settings, () -> now, pinger,
+                (session, reason) -> reapedHere.add(reason));
+        Session stuck = session(() -> unstick.await());
+        threaded.track(stuck);
+        threaded.joined(stuck);
+        Session quiet = session();
+        threaded.track(quiet);
+        threaded.joined(quiet);
+
+        for (now = 0; now <= 500; now += 10) {
+            threaded.tick(now);
+        }
+
+        // Both went unanswered, and the stuck ping didn't stop the other being checked
+        assertEquals(List.of("No reply to pings", "No reply to pings"), reapedHere);
+        assertEquals(0, threaded.stats().sessions());
+        unstick.countDown();
+        threaded.stop();
+        assertTrue(pinger.isShutdown());
+    }
+
+    private Session session() {
+        return session(() -> pings++);
+    }
+
+    private interface Ping {
+        void send() throws InterruptedException;
+    }
+
+    private Session session(Ping ping) {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendPing")) {
+                        ping.send();
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package server.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayBufferTest {
+
+    @Test
+    void returnsOnlyMessagesAfterSequence() {
+        ReplayBuffer buffer = new ReplayBuffer(8);
+        for (int i = 1; i <= 5; i++) {
+            buffer.append(new OutboundFrame("m" + i, false), null);
+        }
+
+        List<ReplayBuffer.Entry> missed = buffer.after(3);
+        assertEquals(2, missed.size());
+        assertEquals(4L, missed.get(0).sequence());
+        assertEquals("m5", missed.get(1).frame().text());
+        assertTrue(buffer.after(5).isEmpty());
+        assertEquals(5, buffer.after(0).size());
+    }
+
+    @Test
+    void cannotReplayMessagesAlreadyDropped() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.append(new OutboundFrame("m" + i, false), null);
+        }
+
+        assertEquals(10L, buffer.lastSequence());
+        assertNull(buffer.after(5));
+        assertEquals(List.of("m7", "m8", "m9", "m10"),
+                buffer.after(6).stream().map(entry -> entry.frame().text()).toList());
+    }
+
+    @Test
+    void unknownSequenceCannotBeReplayed() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        buffer.append(new OutboundFrame("m1", false), "white");
+
+        assertNull(buffer.after(2));
+        assertEquals("white", buffer.after(0).get(0).exclude());
+    }
+
+    @Test
+    void cacheKeepsOnlyRecentlyUsedGames() {
+        ReplayCache cache = new ReplayCache(2, 4);
+        ReplayBuffer first = cache.stream(1);
+        cache.release(1);
+        cache.stream(2);
+        cache.release(2);
+        assertSame(first, cache.stream(1));
+        cache.release(1);
+
+        cache.stream(3);
+        cache.release(3);
+        assertEquals(2, cache.size());
+        assertSame(first, cache.stream(1));
+    }
+
+    @Test
+    void cacheNeverDropsALiveActorsStream() {
+        ReplayCache cache = new ReplayCache(1, 4);
+        ReplayBuffer live = cache.stream(1);
+        cache.stream(2);
+        cache.stream(3);
+
+        assertEquals(3, cache.size());
+        assertSame(live, cache.stream(1));
+    }
+
+    @Test
+    void droppedGameCarriesOnNumbering() {
+        ReplayCache cache = new ReplayCache(1, 4);
+        ReplayBuffer old = cache.stream(1);
+        old.append(new OutboundFrame("m1", false), null);
+        old.append(new OutboundFrame("m2", false), null);
+        cache.release(1);
+        cache.stream(2);
+        cache.release(2);
+
+        ReplayBuffer renewed = cache.stream(1);
+
+        assertNotSame(old, renewed);
+        assertEquals(2, renewed.lastSequence());
+        assertNull(renewed.after(1), "a client part way through the old stream must get the whole game");
+        renewed.append(new OutboundFrame("m3", false), null);
+        assertEquals(3, renewed.after(2).get(0).sequence());
+    }
+}
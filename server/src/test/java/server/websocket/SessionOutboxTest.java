@@ -0,0 +1,140 @@
+package server.websocket;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import websocket.BinaryCodec;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionOutboxTest {
+    private final List<String> written = new ArrayList<>();
+    private final List<WriteCallback> callbacks = new ArrayList<>();
+    private boolean completeInline;
+    private String closeReason;
+
+    @Test
+    void writesInOrderWhenWritesCompleteInline() {
+        completeInline = true;
+        SessionOutbox outbox = new SessionOutbox(session(), OutboundLimits.DEFAULT);
+
+        // Enough messages that recursing on each completion would overflow the stack
+        for (int i = 0; i < 50_000; i++) {
+            outbox.offer(new OutboundFrame("m" + i, false));
+        }
+
+        assertEquals(50_000, written.size());
+        assertEquals("m49999", written.get(49_999));
+        assertEquals(0, outbox.size());
+    }
+
+    @Test
+    void newerGameStateReplacesUnsentOne() {
+        SessionOutbox outbox = new SessionOutbox(session(), OutboundLimits.DEFAULT);
+
+        outbox.offer(new OutboundFrame("load1", true));
+        outbox.offer(new OutboundFrame("load2", true));
+        outbox.offer(new OutboundFrame("note", false));
+        outbox.offer(new OutboundFrame("load3", true));
+        assertEquals(List.of("load1"), written);
+
+        callbacks.get(0).writeSuccess();
+        callbacks.get(1).writeSuccess();
+        assertEquals(List.of("load1", "note", "load3"), written);
+    }
+
+    @Test
+    void gameStateDropsUnsentMoveDeltas() {
+        SessionOutbox outbox = new SessionOutbox(session(), OutboundLimits.DEFAULT);
+
+        outbox.offer(new OutboundFrame("move1", false, true));
+        outbox.offer(new OutboundFrame("move2", false, true));
+        outbox.offer(new OutboundFrame("note", false));
+        outbox.offer(new OutboundFrame("load", true));
+        outbox.offer(new OutboundFrame("move3", false, true));
+
+        callbacks.get(0).writeSuccess();
+        callbacks.get(1).writeSuccess();
+        callbacks.get(2).writeSuccess();
+        assertEquals(List.of("move1", "note", "load", "move3"), written);
+    }
+
+    @Test
+    void binarySessionIsSentTheBinaryEncoding() {
+        completeInline = true;
+        SessionOutbox outbox = new SessionOutbox(session(), OutboundLimits.DEFAULT, true);
+
+        outbox.offer(OutboundFrame.of(new Gson(), new NotificationMessage("white moved e2-e4")));
+        outbox.offer(OutboundFrame.of(new Gson(), new LoadGameMessage(new ChessGame())));
+
+        assertEquals(List.of("NOTIFICATION", "LOAD_GAME"), written);
+    }
+
+    @Test
+    void evictsClientAtHardLimit() {
+        SessionOutbox outbox = new SessionOutbox(session(), new OutboundLimits(2, 4, 60_000));
+
+        for (int i = 0; i < 5; i++) {
+            outbox.offer(new OutboundFrame("m" + i, false));
+        }
+
+        assertTrue(outbox.isClosed());
+        assertNotNull(closeReason);
+        outbox.offer(new OutboundFrame("late", false));
+        assertEquals(List.of("m0"), written);
+    }
+
+    @Test
+    void evictsClientThatStaysOverHighWaterMark() throws InterruptedException {
+        SessionOutbox outbox = new SessionOutbox(session(), new OutboundLimits(1, 100, 10));
+
+        outbox.offer(new OutboundFrame("m0", false));
+        outbox.offer(new OutboundFrame("m1", false));
+        outbox.offer(new OutboundFrame("m2", false));
+        assertFalse(outbox.isClosed());
+        Thread.sleep(30);
+        outbox.offer(new OutboundFrame("m3", false));
+
+        assertTrue(outbox.isClosed());
+    }
+
+    private Session session() {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("send") && args.length == 2) {
+                        written.add(args[0] instanceof ByteBuffer bytes
+                                ? BinaryCodec.decodeMessage(bytes).getServerMessageType().name()
+                                : (String) args[0]);
+                        WriteCallback callback = (WriteCallback) args[1];
+                        if (completeInline) {
+                            callback.writeSuccess();
+                        } else {
+                            callbacks.add(callback);
+                        }
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "close" -> {
+                        if (args != null && args.length == 2) {
+                            closeReason = (String) args[1];
+                        }
+                        yield null;
+                    }
+                    case "isOpen" -> closeReason == null;
+                    default -> null;
+                });
+    }
+}
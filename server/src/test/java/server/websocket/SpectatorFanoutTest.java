@@ -0,0 +1,128 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorFanoutTest {
+    private final Map<Session, List<String>> received = new ConcurrentHashMap<>();
+
+    @Test
+    void everySpectatorGetsBroadcastsInOrder() throws InterruptedException {
+        int spectators = 1_000;
+        CountDownLatch done = new CountDownLatch(spectators * 3);
+        SpectatorFanout fanout = new SpectatorFanout(new SpectatorSettings(4, 0), (session, frame) -> {
+            received.computeIfAbsent(session, s -> Collections.synchronizedList(new ArrayList<>())).add(frame.text());
+            done.countDown();
+        });
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < spectators; i++) {
+            Session session = session();
+            sessions.add(session);
+            fanout.watch(1, session, false, List.of(new OutboundFrame("state", true)));
+        }
+
+        fanout.publish(1, new OutboundFrame("first", false), null, null);
+        fanout.publish(2, new OutboundFrame("other game", false), null, null);
+        fanout.publish(1, new OutboundFrame("second", false), null, null);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (Session session : sessions) {
+            assertEquals(List.of("state", "first", "second"), received.get(session));
+        }
+        List<SpectatorShardStats> stats = fanout.stats();
+        assertEquals(4, stats.size());
+        assertEquals(spectators, stats.stream().mapToInt(SpectatorShardStats::watchers).sum());
+        assertEquals(spectators * 3L, stats.stream().mapToLong(SpectatorShardStats::delivered).sum());
+        fanout.close();
+    }
+
+    @Test
+    void deltasExclusionAndUnwatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        SpectatorFanout fanout = new SpectatorFanout(new SpectatorSettings(2, 0), (session, frame) -> {
+            received.computeIfAbsent(session, s -> Collections.synchronizedList(new ArrayList<>())).add(frame.text());
+            done.countDown();
+        });
+        Session full = session();
+        Session deltas = session();
+        Session leaving = session();
+        fanout.watch(1, full, false, List.of());
+        fanout.watch(1, deltas, true, List.of());
+        fanout.watch(1, leaving, false, List.of());
+        fanout.unwatch(1, leaving);
+
+        fanout.publish(1, new OutboundFrame("load", true), new OutboundFrame("move", false, true), null);
+        fanout.publish(1, new OutboundFrame("note", false), null, deltas);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // Anything wrongly sent to the one who left was queued before this
+        assertTrue(fanout.drain(5, TimeUnit.SECONDS));
+        assertEquals(List.of("load", "note"), received.get(full));
+        assertEquals(List.of("move"), received.get(deltas));
+        assertNull(received.get(leaving));
+        fanout.close();
+    }
+
+    @Test
+    void publishOnlyQueuesOnShardsWithSpectators() {
+        // The delay keeps the broadcasts queued long enough to look at
+        SpectatorFanout fanout = new SpectatorFanout(new SpectatorSettings(4, 10_000), (session, frame) -> {
+        });
+        fanout.watch(1, session(), false, List.of());
+
+        fanout.publish(1, new OutboundFrame("move", false), null, null);
+        fanout.publish(2, new OutboundFrame("nobody is watching", false), null, null);
+
+        assertEquals(1, fanout.stats().stream().filter(shard -> shard.queued() > 0).count());
+        fanout.close();
+    }
+
+    @Test
+    void closeStopsTheWorkers() throws InterruptedException {
+        SpectatorFanout fanout = new SpectatorFanout(new SpectatorSettings(3, 0), (session, frame) -> {
+        });
+        fanout.close();
+
+        // No worker is left to run the sentinel tasks
+        assertFalse(fanout.drain(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void holdsBackBroadcastsByTheDelay() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        long[] deliveredAt = new long[1];
+        SpectatorFanout fanout = new SpectatorFanout(new SpectatorSettings(1, 200), (session, frame) -> {
+            deliveredAt[0] = System.nanoTime();
+            done.countDown();
+        });
+        Session session = session();
+        fanout.watch(1, session, false, List.of());
+
+        long published = System.nanoTime();
+        fanout.publish(1, new OutboundFrame("move", false), null, null);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(deliveredAt[0] - published) >= 190);
+        fanout.close();
+    }
+
+    private Session session() {
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,55 @@
+package server.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEachItemOnceItsDeadlinePasses() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 40);
+
+        assertEquals(List.of(), wheel.advance(20));
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(List.of("b"), wheel.advance(45));
+        assertEquals(List.of(), wheel.advance(100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlineBeyondOneTurnWaitsForItsOwnTurn() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        // Same slot as tick 1, but three turns later
+        wheel.schedule("late", 130);
+
+        assertEquals(List.of(), wheel.advance(10));
+        assertEquals(List.of(), wheel.advance(120));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("late"), wheel.advance(130));
+    }
+
+    @Test
+    void longPauseFiresEverythingDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 0);
+        for (int i = 1; i <= 10; i++) {
+            wheel.schedule(i, i * 10);
+        }
+        wheel.schedule(99, 1_000);
+
+        assertEquals(10, wheel.advance(500).size());
+        assertEquals(List.of(99), wheel.advance(1_000));
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 100);
+        wheel.schedule("overdue", 50);
+
+        assertEquals(List.of("overdue"), wheel.advance(110));
+    }
+}
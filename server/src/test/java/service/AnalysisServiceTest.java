@@ -0,0 +1,110 @@
+package service;
+
+import chess.engine.SearchMetrics;
+import dataaccess.DataAccessException;
+import dataaccess.Dataaccess;
+import dataaccess.MemoryDataaccess;
+import model.AnalysisRequest;
+import model.AnalysisResult;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServiceTest {
+    private Dataaccess dataAccess;
+    private AuthService authService;
+    private GameService gameService;
+    private SearchMetrics metrics;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataaccess();
+        dataAccess.clearAll();
+        authService = new AuthService(dataAccess);
+        gameService = new GameService(dataAccess, authService);
+        metrics = new SearchMetrics();
+        AuthData auth = new UserService(dataAccess, authService)
+                .register(new UserData("analyst", "password", "a@example.com"));
+        authToken = auth.authToken();
+    }
+
+    @Test
+    void analysesStoredGame() throws Exception {
+        AnalysisService service = new AnalysisService(dataAccess, authService, metrics, 1, 1);
+        int gameId = gameService.createGame(authToken, "analysed");
+
+        AnalysisResult result = service.analyze(authToken, new AnalysisRequest(gameId, null, 2, 2, null, null));
+
+        assertEquals(2, result.lines().size());
+        assertEquals(2, result.depth());
+        assertTrue(result.lines().get(0).score() >= result.lines().get(1).score());
+        assertEquals(4, result.lines().get(0).moves().get(0).length());
+        assertEquals(1, metrics.totals().searches());
+        service.shutdown();
+    }
+
+    @Test
+    void analysesFenWithinNodeBudget() throws Exception {
+        AnalysisService service = new AnalysisService(dataAccess, authService, metrics, 1, 1);
+        AnalysisRequest request = new AnalysisRequest(null, "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", 1, 10, 5_000L, null);
+
+        AnalysisResult result = service.analyze(authToken, request);
+
+        assertEquals("a1a8", result.lines().get(0).moves().get(0));
+        assertTrue(result.nodes() <= 5_000);
+        service.shutdown();
+    }
+
+    @Test
+    void rejectsBadRequests() {
+        AnalysisService service = new AnalysisService(dataAccess, authService, metrics, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.analyze(authToken, new AnalysisRequest(null, null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.analyze(authToken, new AnalysisRequest(null, "8/8/8/8/8/8/8/8 w", null, null, null, null)));
+        assertThrows(DataAccessException.class,
+                () -> service.analyze("bad-token", new AnalysisRequest(null, "4k3/8/8/8/8/8/8/4K3 w", null, null, null, null)));
+        service.shutdown();
+    }
+
+    @Test
+    void shedsLoadWhenQueueIsFull() throws Exception {
+        AnalysisService service = new AnalysisService(dataAccess, authService, metrics, 1, 1);
+        AnalysisRequest slow = new AnalysisRequest(null, "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3",
+                3, 10, AnalysisService.MAX_NODES, 1_000L);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable client = () -> {
+            started.countDown();
+            try {
+                service.analyze(authToken, slow);
+            } catch (Exception e) {
+                // Only the rejection of the third request matters here
+            }
+        };
+        Thread first = new Thread(client);
+        Thread second = new Thread(client);
+        first.start();
+        second.start();
+        started.await();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.queued() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, service.queued());
+
+        // One request is running and one is queued, so a third is turned away
+        assertThrows(RejectedExecutionException.class, () -> service.analyze(authToken, slow));
+        first.join();
+        second.join();
+        service.shutdown();
+    }
+}
@@ -6,6 +6,7 @@ import dataaccess.DataAccessException;
 import model.UserData;
 import model.AuthData;
 import org.junit.jupiter.api.BeforeEach;
+import org.mindrot.jbcrypt.BCrypt;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,7 +47,9 @@ class UserServiceTest {
         UserData storedUser = dataAccess.getUser("newUser");
         assertNotNull(storedUser);
         assertEquals(userData.username(), storedUser.username());
-        assertEquals(userData.password(), storedUser.password());
+        // Only the hash is stored
+        assertNotEquals(userData.password(), storedUser.password());
+        assertTrue(BCrypt.checkpw(userData.password(), storedUser.password()));
         assertEquals(userData.email(), storedUser.email());
     }
 
@@ -0,0 +1,167 @@
+package chess;
+
+/**
+ * Which squares each side attacks, kept up to date as pieces are added and
+ * removed rather than recomputed by generating moves.
+ * <p>
+ * For every occupied square the map remembers the squares its piece attacks.
+ * Changing a square only re-derives the attacks of the piece on that square and
+ * of any sliding piece whose ray reaches it, since those are the only attacks a
+ * single-square change can extend or cut short. Per-square attacker counts then
+ * give "is this square attacked" as one bit test.
+ * <p>
+ * Squares are numbered 0-63 as {@code (row - 1) * 8 + (col - 1)}.
+ */
+final class AttackMap {
+    private static final int[] KING_DELTAS = {-11, -10, -9, -1, 1, 9, 10, 11};
+    private static final int[] KNIGHT_DELTAS = {-21, -19, -12, -8, 8, 12, 19, 21};
+    private static final int[] BISHOP_DELTAS = {-11, -9, 9, 11};
+    private static final int[] ROOK_DELTAS = {-10, -1, 1, 10};
+    private static final int[] QUEEN_DELTAS = {-11, -10, -9, -1, 1, 9, 10, 11};
+    private static final int[] WHITE_PAWN_DELTAS = {9, 11};
+    private static final int[] BLACK_PAWN_DELTAS = {-11, -9};
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+
+    private final byte[] cells;
+    // Squares attacked by the piece on each square, and which side that piece is on
+    private final long[] attacksFrom = new long[64];
+    private final byte[] owner = new byte[64];
+    private final byte[][] counts = new byte[2][64];
+    private final long[] attacked = new long[2];
+
+    /**
+     * @param cells the board's mailbox; the map writes changed squares into it via {@link #set}
+     */
+    AttackMap(byte[] cells) {
+        this.cells = cells;
+        for (int square = 0; square < 64; square++) {
+            add(square);
+        }
+    }
+
+    /**
+     * Puts a piece code on a square and updates every attack it affects.
+     */
+    void set(int index, byte code) {
+        int square = Mailbox.square(index);
+        long squareBit = 1L << square;
+
+        // Sliders reaching this square see it whether it is empty or occupied,
+        // so the set found now is the set whose rays change
+        long sliders = 0;
+        for (int from = 0; from < 64; from++) {
+            if ((attacksFrom[from] & squareBit) != 0 && isSlider(cells[Mailbox.indexOfSquare(from)])) {
+                sliders |= 1L << from;
+            }
+        }
+
+        remove(square);
+        cells[index] = code;
+        add(square);
+
+        while (sliders != 0) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            sliders &= sliders - 1;
+            remove(from);
+            add(from);
+        }
+    }
+
+    boolean isAttacked(int square, ChessGame.TeamColor by) {
+        return (attacked[side(by)] & (1L << square)) != 0;
+    }
+
+    int attackerCount(int square, ChessGame.TeamColor by) {
+        return counts[side(by)][square];
+    }
+
+    long attackedSquares(ChessGame.TeamColor by) {
+        return attacked[side(by)];
+    }
+
+    private void add(int square) {
+        byte code = cells[Mailbox.indexOfSquare(square)];
+        if (code <= Mailbox.EMPTY) {
+            attacksFrom[square] = 0;
+            return;
+        }
+        int side = (code & Mailbox.BLACK) == 0 ? WHITE : BLACK;
+        long targets = attacks(Mailbox.indexOfSquare(square), code);
+        attacksFrom[square] = targets;
+        owner[square] = (byte) side;
+
+        byte[] sideCounts = counts[side];
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (sideCounts[target]++ == 0) {
+                attacked[side] |= 1L << target;
+            }
+        }
+    }
+
+    private void remove(int square) {
+        long targets = attacksFrom[square];
+        byte[] sideCounts = counts[owner[square]];
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (--sideCounts[target] == 0) {
+                attacked[owner[square]] &= ~(1L << target);
+            }
+        }
+        attacksFrom[square] = 0;
+    }
+
+    private long attacks(int index, byte code) {
+        int type = (code & 7) - 1;
+        return switch (TYPES[type]) {
+            case KING -> steps(index, KING_DELTAS);
+            case KNIGHT -> steps(index, KNIGHT_DELTAS);
+            case PAWN -> steps(index, (code & Mailbox.BLACK) == 0 ? WHITE_PAWN_DELTAS : BLACK_PAWN_DELTAS);
+            case BISHOP -> rays(index, BISHOP_DELTAS);
+            case ROOK -> rays(index, ROOK_DELTAS);
+            case QUEEN -> rays(index, QUEEN_DELTAS);
+        };
+    }
+
+    private long steps(int index, int[] deltas) {
+        long targets = 0;
+        for (int delta : deltas) {
+            int to = index + delta;
+            if (cells[to] != Mailbox.OFF_BOARD) {
+                targets |= 1L << Mailbox.square(to);
+            }
+        }
+        return targets;
+    }
+
+    private long rays(int index, int[] deltas) {
+        long targets = 0;
+        for (int delta : deltas) {
+            int to = index + delta;
+            while (cells[to] != Mailbox.OFF_BOARD) {
+                targets |= 1L << Mailbox.square(to);
+                if (cells[to] != Mailbox.EMPTY) {
+                    break;
+                }
+                to += delta;
+            }
+        }
+        return targets;
+    }
+
+    private static boolean isSlider(byte code) {
+        int type = (code & 7) - 1;
+        return type == ChessPiece.PieceType.QUEEN.ordinal() || type == ChessPiece.PieceType.BISHOP.ordinal()
+                || type == ChessPiece.PieceType.ROOK.ordinal();
+    }
+
+    private static int side(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.BLACK ? BLACK : WHITE;
+    }
+}
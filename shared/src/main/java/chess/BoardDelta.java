@@ -0,0 +1,121 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * The difference between two positions: the squares whose contents changed and,
+ * for whole games, the new side to move. An ordinary move changes two squares,
+ * so a delta is far smaller than the board it describes.
+ * <p>
+ * Each change is packed into one int as {@code square << 4 | pieceCode}, where
+ * square is {@code (row - 1) * 8 + (col - 1)} and the code is 0 for an emptied
+ * square, otherwise the piece type's ordinal plus one, plus 8 for black.
+ * Deltas are immutable.
+ */
+public final class BoardDelta {
+    private static final int[] NO_CHANGES = new int[0];
+
+    private final int[] changes;
+    private final ChessGame.TeamColor teamTurn;
+
+    private BoardDelta(int[] changes, ChessGame.TeamColor teamTurn) {
+        this.changes = changes;
+        this.teamTurn = teamTurn;
+    }
+
+    /**
+     * Compares two mailboxes square by square.
+     *
+     * @param teamTurn the new side to move, or null if it is unchanged or not tracked
+     */
+    static BoardDelta between(byte[] from, byte[] to, ChessGame.TeamColor teamTurn) {
+        // At most 64 changes; count first so only the exact-size array is allocated
+        int count = 0;
+        for (int square = 0; square < 64; square++) {
+            int index = Mailbox.indexOfSquare(square);
+            if (from[index] != to[index]) {
+                count++;
+            }
+        }
+        int[] changes = count == 0 ? NO_CHANGES : new int[count];
+        int next = 0;
+        for (int square = 0; square < 64 && next < count; square++) {
+            int index = Mailbox.indexOfSquare(square);
+            if (from[index] != to[index]) {
+                changes[next++] = square << 4 | to[index];
+            }
+        }
+        return new BoardDelta(changes, teamTurn);
+    }
+
+    /**
+     * @return the number of squares that change
+     */
+    public int size() {
+        return changes.length;
+    }
+
+    /**
+     * @return true if neither the board nor the side to move changes
+     */
+    public boolean isEmpty() {
+        return changes.length == 0 && teamTurn == null;
+    }
+
+    public ChessPosition position(int change) {
+        int square = changes[change] >>> 4;
+        return Mailbox.position(Mailbox.indexOfSquare(square));
+    }
+
+    /**
+     * @return the piece the square holds afterwards, or null if it is emptied
+     */
+    public ChessPiece piece(int change) {
+        return Mailbox.piece(changes[change] & 0xF);
+    }
+
+    /**
+     * @return the side to move afterwards, or null if it does not change
+     */
+    public ChessGame.TeamColor teamTurn() {
+        return teamTurn;
+    }
+
+    void applyTo(ChessBoard board) {
+        for (int change = 0; change < changes.length; change++) {
+            board.addPiece(position(change), piece(change));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardDelta that)) {
+            return false;
+        }
+        return teamTurn == that.teamTurn && Arrays.equals(changes, that.changes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(changes) + (teamTurn == null ? 0 : teamTurn.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BoardDelta[");
+        for (int change = 0; change < changes.length; change++) {
+            ChessPosition position = position(change);
+            ChessPiece piece = piece(change);
+            sb.append(change == 0 ? "" : ", ")
+                    .append((char) ('a' + position.getColumn() - 1)).append(position.getRow())
+                    .append('=').append(piece == null ? "empty" : piece.getTeamColor() + " " + piece.getPieceType());
+        }
+        if (teamTurn != null) {
+            sb.append(changes.length == 0 ? "" : ", ").append(teamTurn).append(" to move");
+        }
+        return sb.append(']').toString();
+    }
+}
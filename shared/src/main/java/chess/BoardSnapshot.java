@@ -0,0 +1,172 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable position: the pieces on the board and the side to move, packed
+ * four bits per square into four longs.
+ * <p>
+ * A snapshot is never modified after construction, so it can be handed to any
+ * number of reader threads (broadcasters, list endpoints, analysis) without
+ * locks or defensive copies. {@link #withMove} derives the next position in a
+ * handful of bit operations, which is how {@link ChessGame} keeps one up to date
+ * after every move.
+ */
+public final class BoardSnapshot {
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // Shared instances for every nibble value; pieces are immutable
+    private static final ChessPiece[] PIECES = new ChessPiece[16];
+
+    static {
+        for (ChessPiece.PieceType type : TYPES) {
+            PIECES[Mailbox.code(ChessGame.TeamColor.WHITE, type)] = new ChessPiece(ChessGame.TeamColor.WHITE, type);
+            PIECES[Mailbox.code(ChessGame.TeamColor.BLACK, type)] = new ChessPiece(ChessGame.TeamColor.BLACK, type);
+        }
+    }
+
+    private final long[] squares;
+    private final ChessGame.TeamColor teamTurn;
+    private final long zobristKey;
+
+    private BoardSnapshot(long[] squares, ChessGame.TeamColor teamTurn, long zobristKey) {
+        this.squares = squares;
+        this.teamTurn = teamTurn;
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * Captures a board and side to move.
+     */
+    public static BoardSnapshot of(ChessBoard board, ChessGame.TeamColor teamTurn) {
+        long[] squares = new long[4];
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    int square = square(row, col);
+                    squares[square >>> 4] |= (long) Mailbox.code(piece.getTeamColor(), piece.getPieceType()) << shift(square);
+                }
+            }
+        }
+        return new BoardSnapshot(squares, teamTurn, Zobrist.hash(board, teamTurn));
+    }
+
+    /**
+     * @return the position of the game's board; prefer {@link ChessGame#snapshot()},
+     * which reuses the snapshot the game keeps
+     */
+    public static BoardSnapshot of(ChessGame game) {
+        return of(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * @return the piece on a square, or null if it is empty
+     */
+    public ChessPiece getPiece(int row, int col) {
+        return PIECES[nibble(square(row, col))];
+    }
+
+    public ChessPiece getPiece(ChessPosition position) {
+        return getPiece(position.getRow(), position.getColumn());
+    }
+
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return the {@link Zobrist} hash of this position, kept up to date incrementally
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Plays a move without checking that it is legal.
+     *
+     * @return the position after the move, with the other side to move
+     */
+    public BoardSnapshot withMove(ChessMove move) {
+        int from = square(move.getStartPosition().getRow(), move.getStartPosition().getColumn());
+        int to = square(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        int moving = nibble(from);
+        int captured = nibble(to);
+        int placed = move.getPromotionPiece() == null ? moving
+                : Mailbox.code(PIECES[moving].getTeamColor(), move.getPromotionPiece());
+
+        long[] next = squares.clone();
+        next[from >>> 4] &= ~(0xFL << shift(from));
+        next[to >>> 4] = (next[to >>> 4] & ~(0xFL << shift(to))) | ((long) placed << shift(to));
+
+        long key = zobristKey ^ Zobrist.sideKey()
+                ^ Zobrist.pieceKey(PIECES[moving], move.getStartPosition().getRow(), move.getStartPosition().getColumn())
+                ^ Zobrist.pieceKey(PIECES[placed], move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        if (captured != 0) {
+            key ^= Zobrist.pieceKey(PIECES[captured], move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        }
+        ChessGame.TeamColor nextTurn = teamTurn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return new BoardSnapshot(next, nextTurn, key);
+    }
+
+    /**
+     * @return the same position with a different side to move, e.g. after a resignation
+     */
+    public BoardSnapshot withTeamTurn(ChessGame.TeamColor team) {
+        if (team == teamTurn) {
+            return this;
+        }
+        long key = zobristKey;
+        // RESIGNED hashes like WHITE, matching Zobrist.hash
+        if ((teamTurn == ChessGame.TeamColor.BLACK) != (team == ChessGame.TeamColor.BLACK)) {
+            key ^= Zobrist.sideKey();
+        }
+        return new BoardSnapshot(squares, team, key);
+    }
+
+    /**
+     * @return a new mutable board holding this position
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = PIECES[nibble(square)];
+            if (piece != null) {
+                board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 1), piece);
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardSnapshot that)) {
+            return false;
+        }
+        return teamTurn == that.teamTurn && Arrays.equals(squares, that.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    @Override
+    public String toString() {
+        return toBoard() + "\n" + teamTurn + " to move";
+    }
+
+    private int nibble(int square) {
+        return (int) (squares[square >>> 4] >>> shift(square)) & 0xF;
+    }
+
+    private static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    private static int shift(int square) {
+        return (square & 15) * 4;
+    }
+}
@@ -8,9 +8,28 @@ import java.util.Arrays;
  */
 public class ChessBoard {
     private ChessPiece[][] squares = new ChessPiece[8][8];
+    // Mailbox copy of squares for move generation (see Mailbox). Not serialized,
+    // so the JSON form is unchanged; rebuilt on first use after deserializing.
+    private transient byte[] cells;
+    // Built on the first attack query and then updated by addPiece
+    private transient AttackMap attacks;
+
     public ChessBoard() {
     }
 
+    /**
+     * Creates a copy of another board. Pieces are immutable, so only the
+     * square array itself needs to be duplicated.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        for (int i = 0; i < 8; i++) {
+            squares[i] = Arrays.copyOf(other.squares[i], 8);
+        }
+        cells = other.cells == null ? null : other.cells.clone();
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -19,6 +38,81 @@ public class ChessBoard {
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
         squares[position.getRow() -1 ][position.getColumn() - 1] = piece;
+        if (attacks != null) {
+            attacks.set(Mailbox.index(position), Mailbox.code(piece));
+        } else if (cells != null) {
+            cells[Mailbox.index(position)] = Mailbox.code(piece);
+        }
+    }
+
+    /**
+     * Works out the square changes that turn this board into another.
+     *
+     * @param other the board to compare with
+     * @return the changes, which {@link #apply} replays on a copy of this board
+     */
+    public BoardDelta diff(ChessBoard other) {
+        return BoardDelta.between(cells(), other.cells(), null);
+    }
+
+    /**
+     * Applies the square changes of a delta. Any side-to-move change is left to
+     * {@link ChessGame#apply}.
+     */
+    public void apply(BoardDelta delta) {
+        delta.applyTo(this);
+    }
+
+    /**
+     * @return true if any piece of the given team attacks the square
+     */
+    public boolean isAttacked(ChessPosition square, ChessGame.TeamColor by) {
+        return attacks().isAttacked(square(square), by);
+    }
+
+    /**
+     * @return how many pieces of the given team attack the square
+     */
+    public int attackerCount(ChessPosition square, ChessGame.TeamColor by) {
+        return attacks().attackerCount(square(square), by);
+    }
+
+    /**
+     * @return every square the team attacks, as a bitmask with bit
+     * {@code (row - 1) * 8 + (col - 1)} set for each one
+     */
+    public long attackedSquares(ChessGame.TeamColor by) {
+        return attacks().attackedSquares(by);
+    }
+
+    private AttackMap attacks() {
+        AttackMap current = attacks;
+        if (current == null) {
+            current = new AttackMap(cells());
+            attacks = current;
+        }
+        return current;
+    }
+
+    private static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    /**
+     * @return the board as mailbox piece codes, for move generation; callers must not modify it
+     */
+    byte[] cells() {
+        byte[] current = cells;
+        if (current == null) {
+            current = Mailbox.emptyBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    current[Mailbox.index(row, col)] = Mailbox.code(squares[row - 1][col - 1]);
+                }
+            }
+            cells = current;
+        }
+        return current;
     }
 
     /**
@@ -43,6 +137,8 @@ public class ChessBoard {
                 squares[i][j] = null;
             }
         }
+        cells = null;
+        attacks = null;
         // White back row
         addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK ));
         addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT ));
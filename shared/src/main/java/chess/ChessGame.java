@@ -1,6 +1,12 @@
 package chess;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -13,6 +19,8 @@ public class ChessGame {
     private ChessBoard board;
     private GameState gameState;
     private TeamColor teamTurn;
+    // Position after the latest change, or null until first asked for; never serialized
+    private transient volatile BoardSnapshot snapshot;
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -21,6 +29,89 @@ public class ChessGame {
         this.teamTurn = TeamColor.WHITE;
     }
 
+    /**
+     * Copies a game: board, side to move and move history. The copy can be
+     * played on or sent elsewhere without affecting the original.
+     */
+    public ChessGame(ChessGame other) {
+        this.board = new ChessBoard(other.board);
+        this.gameState = new GameState();
+        for (ChessMove move : other.getMoveHistory()) {
+            gameState.addMove(move);
+        }
+        this.teamTurn = other.teamTurn;
+        this.snapshot = other.snapshot;
+    }
+
+    /**
+     * Puts the game back to the starting position with white to move, reusing
+     * the existing board so one instance can replay many games.
+     */
+    public void reset() {
+        this.board.resetBoard();
+        this.gameState = new GameState();
+        this.teamTurn = TeamColor.WHITE;
+        this.snapshot = null;
+    }
+
+    /**
+     * Returns an immutable copy of the current position that other threads can
+     * keep reading while this game goes on being played. It is built on first
+     * use and from then on updated incrementally by {@link #makeMove}, so asking
+     * for it after each move is cheap.
+     * <p>
+     * Changes made directly to the board returned by {@link #getBoard()} are not
+     * seen until {@link #setBoard} is called again.
+     */
+    public BoardSnapshot snapshot() {
+        BoardSnapshot current = snapshot;
+        if (current == null) {
+            current = BoardSnapshot.of(board, teamTurn);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Works out how to get from this game's position to another's: the board
+     * changes plus the new side to move if it differs. Move history is not
+     * part of the delta.
+     */
+    public BoardDelta diff(ChessGame other) {
+        return BoardDelta.between(board.cells(), other.board.cells(),
+                teamTurn == other.teamTurn ? null : other.teamTurn);
+    }
+
+    /**
+     * Applies a delta from {@link #diff}, e.g. one received from the server.
+     */
+    public void apply(BoardDelta delta) {
+        board.apply(delta);
+        if (delta.teamTurn() != null) {
+            teamTurn = delta.teamTurn();
+        }
+        // The board was changed directly, so rebuild the snapshot on demand
+        snapshot = null;
+    }
+
+    /**
+     * @return the moves played so far, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        return gameState.getMoveHistory();
+    }
+
+    /**
+     * Replaces the record of moves played, e.g. when rebuilding a game received
+     * from elsewhere. The board is not changed.
+     */
+    public void setMoveHistory(List<ChessMove> moves) {
+        gameState = new GameState();
+        for (ChessMove move : moves) {
+            gameState.addMove(move);
+        }
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -35,6 +126,10 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        BoardSnapshot current = snapshot;
+        if (current != null) {
+            snapshot = current.withTeamTurn(team);
+        }
     }
 
     /**
@@ -63,12 +158,61 @@ public class ChessGame {
         return null;
     }
 
+    /**
+     * Iterates the legal moves of the side to move lazily; see {@link #legalMoves(TeamColor)}.
+     */
+    public Iterator<ChessMove> legalMoves() {
+        return legalMoves(teamTurn);
+    }
+
+    /**
+     * Iterates a team's legal moves, generating and checking them only as the
+     * iteration asks for them. Callers that only need the first few moves should
+     * use this rather than {@link #validMoves}.
+     */
+    public Iterator<ChessMove> legalMoves(TeamColor team) {
+        return new LegalMoveIterator(this, team);
+    }
+
+    /**
+     * @return a lazy stream of the side to move's legal moves
+     */
+    public Stream<ChessMove> legalMoveStream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(legalMoves(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @return true if the team has at least one legal move, stopping at the first one found
+     */
+    public boolean hasAnyLegalMove(TeamColor team) {
+        return legalMoves(team).hasNext();
+    }
+
+    /**
+     * Checks a single move for the side to move without generating the legal
+     * moves of any other piece.
+     *
+     * @return true if {@link #makeMove} would accept the move
+     */
+    public boolean isLegal(ChessMove move) {
+        if (!isValidMoveForCurrentTurn(move)) {
+            return false;
+        }
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        return piece.pieceMoves(board, move.getStartPosition(), gameState).contains(move) && !wouldLeaveInCheck(move);
+    }
+
+    GameState getGameState() {
+        return gameState;
+    }
+
     private boolean isValidMoveForCurrentTurn(ChessMove move) {
         ChessPiece piece = board.getPiece(move.getStartPosition());
         return piece != null && piece.getTeamColor() == teamTurn;
     }
 
-    private boolean wouldLeaveInCheck(ChessMove move) {
+    boolean wouldLeaveInCheck(ChessMove move) {
         // Make the move
         ChessPiece piece = board.getPiece(move.getStartPosition());
         ChessPiece capturedPiece = board.getPiece(move.getEndPosition());
@@ -96,8 +240,7 @@ public class ChessGame {
             throw new InvalidMoveException("It's not this team's turn");
         }
 
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (validMoves == null || !validMoves.contains(move)) {
+        if (!isLegal(move)) {
             throw new InvalidMoveException("Invalid move");
         }
 
@@ -116,6 +259,11 @@ public class ChessGame {
 
         // Switch turns
         teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        // Only kept up to date once someone has asked for it; otherwise built on demand
+        BoardSnapshot current = snapshot;
+        if (current != null) {
+            snapshot = current.withMove(move);
+        }
     }
 
     /**
@@ -130,39 +278,19 @@ public class ChessGame {
             return false;
         }
         TeamColor oppositeColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == oppositeColor) {
-                    if (canAttackKing(piece, position, kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return board.isAttacked(kingPosition, oppositeColor);
     }
 
-    private boolean canAttackKing(ChessPiece piece, ChessPosition piecePosition, ChessPosition kingPosition) {
-        Collection<ChessMove> moves = piece.pieceMoves(board, piecePosition, gameState);
-        for (ChessMove move : moves) {
-            if (move.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
+    ChessPosition findKingPosition(TeamColor teamColor) {
+        if (teamColor == TeamColor.RESIGNED) {
+            return null;
         }
-        return false;
-    }
-
-    private ChessPosition findKingPosition(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    return position;
-                }
+        byte king = Mailbox.code(teamColor, ChessPiece.PieceType.KING);
+        byte[] cells = board.cells();
+        for (int square = 0; square < 64; square++) {
+            int index = Mailbox.indexOfSquare(square);
+            if (cells[index] == king) {
+                return Mailbox.position(index);
             }
         }
         return null;
@@ -196,19 +324,7 @@ public class ChessGame {
     }
 
     private boolean hasNoValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return !hasAnyLegalMove(teamColor);
     }
 
     /**
@@ -218,6 +334,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.snapshot = null;
     }
 
     /**
@@ -0,0 +1,126 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation. Only the piece
+ * placement and side-to-move fields are used; the castling, en passant and
+ * move counter fields are accepted but ignored, as {@link ChessGame} does not
+ * track them.
+ */
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Parses a FEN string into a new game.
+     *
+     * @throws IllegalArgumentException if the placement or side to move is malformed
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 ranks: " + fen);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                } else {
+                    if (col > 8) {
+                        throw new IllegalArgumentException("Rank " + row + " is too long: " + fen);
+                    }
+                    board.addPiece(new ChessPosition(row, col), piece(c));
+                    col++;
+                }
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Rank " + row + " does not have 8 squares: " + fen);
+            }
+        }
+
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        if (fields.length > 1) {
+            turn = switch (fields[1]) {
+                case "w" -> ChessGame.TeamColor.WHITE;
+                case "b" -> ChessGame.TeamColor.BLACK;
+                default -> throw new IllegalArgumentException("Side to move must be w or b: " + fen);
+            };
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    /**
+     * Writes a game's position as FEN, with empty castling and en passant fields.
+     */
+    public static String toFen(ChessGame game) {
+        return toFen(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * Writes a snapshot's position as FEN, like {@link #toFen(ChessGame)}.
+     */
+    public static String toFen(BoardSnapshot position) {
+        return toFen(position.toBoard(), position.getTeamTurn());
+    }
+
+    private static String toFen(ChessBoard board, ChessGame.TeamColor turn) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(letter(piece));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (row > 1) {
+                sb.append('/');
+            }
+        }
+        sb.append(turn == ChessGame.TeamColor.WHITE ? " w" : " b");
+        return sb.append(" - - 0 1").toString();
+    }
+
+    private static ChessPiece piece(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Not a FEN piece letter: " + c);
+        };
+        return new ChessPiece(color, type);
+    }
+
+    private static char letter(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+}
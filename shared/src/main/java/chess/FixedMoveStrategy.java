@@ -3,37 +3,33 @@ package chess;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import static chess.ChessUtils.isValidPosition;
-
 public class FixedMoveStrategy implements MoveStrategy {
-    private final int[][] moveOffsets;
+    // Mailbox index deltas of the move offsets
+    private final int[] deltas;
     private final boolean isKing;
 
     public FixedMoveStrategy(int[][] moveOffsets, boolean isKing) {
-        this.moveOffsets = moveOffsets;
+        this.deltas = Mailbox.deltas(moveOffsets);
         this.isKing = isKing;
     }
 
     @Override
     public Collection<ChessMove> calculateMoves(ChessPiece piece, ChessBoard board, ChessPosition position, GameState gameState) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int currentRow = position.getRow();
-        int currentColumn = position.getColumn();
-
-        for (int[] offset : moveOffsets) {
-            int newRow = currentRow + offset[0];
-            int newColumn = currentColumn + offset[1];
-
-            if (isValidPosition(newRow, newColumn)) {
-                ChessPosition newPosition = new ChessPosition(newRow, newColumn);
-                ChessPiece targetPiece = board.getPiece(newPosition);
-
-                if (targetPiece == null || targetPiece.getTeamColor() != piece.getTeamColor()) {
-                    moves.add(new ChessMove(position, newPosition, null));
-                }
+        Collection<ChessMove> moves = new ArrayList<>(deltas.length);
+        byte[] cells = board.cells();
+        int from = Mailbox.index(position);
+        int ownColor = Mailbox.color(piece.getTeamColor());
+
+        for (int delta : deltas) {
+            int to = from + delta;
+            byte target = cells[to];
+
+            // Off-board cells and our own pieces stop the move; empty squares and captures are fine
+            if (target == Mailbox.EMPTY || (target != Mailbox.OFF_BOARD && !Mailbox.isColor(target, ownColor))) {
+                moves.add(new ChessMove(position, Mailbox.position(to), null));
             }
         }
 
         return moves;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class GameState {
@@ -40,5 +41,12 @@ public class GameState {
         return enPassantTarget;
     }
 
+    /**
+     * @return the moves played so far, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        return Collections.unmodifiableList(moveHistory);
+    }
+
     // Add other necessary methods
 }
\ No newline at end of file
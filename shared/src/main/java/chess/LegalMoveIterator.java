@@ -0,0 +1,84 @@
+package chess;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks a side's legal moves lazily. Moves are produced in stages: first the
+ * king's, since those are the likeliest to exist when in check, then every other
+ * piece in board order. A piece's pseudo-legal moves are only generated when the
+ * iteration reaches it, and each one is checked for leaving the king in check
+ * only when it is about to be returned, so callers that stop after the first
+ * move do a fraction of the work of {@link ChessGame#validMoves}.
+ * <p>
+ * The board must not be changed while iterating.
+ */
+class LegalMoveIterator implements Iterator<ChessMove> {
+    private final ChessGame game;
+    private final ChessBoard board;
+    private final ChessGame.TeamColor team;
+
+    private ChessPosition kingPosition;
+    private boolean kingDone;
+    // Next square (0-63) to look for a non-king piece on
+    private int nextSquare;
+    private Iterator<ChessMove> pieceMoves;
+    private ChessMove next;
+
+    LegalMoveIterator(ChessGame game, ChessGame.TeamColor team) {
+        this.game = game;
+        this.board = game.getBoard();
+        this.team = team;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (pieceMoves != null && pieceMoves.hasNext()) {
+                ChessMove candidate = pieceMoves.next();
+                if (!game.wouldLeaveInCheck(candidate)) {
+                    next = candidate;
+                }
+            } else if (!nextPiece()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ChessMove next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ChessMove move = next;
+        next = null;
+        return move;
+    }
+
+    /**
+     * Moves on to the next piece of the team.
+     *
+     * @return false once every piece has been visited
+     */
+    private boolean nextPiece() {
+        if (!kingDone) {
+            kingDone = true;
+            kingPosition = game.findKingPosition(team);
+            if (kingPosition != null) {
+                pieceMoves = board.getPiece(kingPosition).pieceMoves(board, kingPosition, game.getGameState()).iterator();
+                return true;
+            }
+        }
+        while (nextSquare < 64) {
+            ChessPosition position = new ChessPosition(nextSquare / 8 + 1, nextSquare % 8 + 1);
+            nextSquare++;
+            ChessPiece piece = board.getPiece(position);
+            if (piece != null && piece.getTeamColor() == team && !position.equals(kingPosition)) {
+                pieceMoves = piece.pieceMoves(board, position, game.getGameState()).iterator();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Layout of the 10x12 mailbox board used for move generation: the 8x8 board
+ * sits inside a border of {@link #OFF_BOARD} cells, one file wide on each side
+ * and two ranks deep at each end, so any king, knight or sliding step from a
+ * real square lands either on the board or on the border. Move generators can
+ * then step by a fixed index delta and stop at the sentinel instead of checking
+ * row and column bounds.
+ * <p>
+ * Cells hold a piece code: {@link #EMPTY}, or the piece type's ordinal plus one,
+ * with {@link #BLACK} set for black pieces. The same codes are used wherever
+ * a piece is packed into a number, e.g. by {@link BoardSnapshot} and the
+ * engine's position batches.
+ */
+public final class Mailbox {
+    static final int SIZE = 120;
+    static final byte EMPTY = 0;
+    static final byte OFF_BOARD = -1;
+    static final int BLACK = 8;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // Shared instances for every piece code; pieces and positions are immutable
+    private static final ChessPiece[] PIECES = new ChessPiece[16];
+    private static final ChessPosition[] POSITIONS = new ChessPosition[SIZE];
+
+    static {
+        for (ChessPiece.PieceType type : TYPES) {
+            PIECES[code(ChessGame.TeamColor.WHITE, type)] = new ChessPiece(ChessGame.TeamColor.WHITE, type);
+            PIECES[code(ChessGame.TeamColor.BLACK, type)] = new ChessPiece(ChessGame.TeamColor.BLACK, type);
+        }
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                POSITIONS[index(row, col)] = new ChessPosition(row, col);
+            }
+        }
+    }
+
+    private Mailbox() {
+    }
+
+    /**
+     * @return a mailbox of empty squares inside the off-board border
+     */
+    static byte[] emptyBoard() {
+        byte[] cells = new byte[SIZE];
+        Arrays.fill(cells, OFF_BOARD);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                cells[index(row, col)] = EMPTY;
+            }
+        }
+        return cells;
+    }
+
+    static int index(int row, int col) {
+        return (row + 1) * 10 + col;
+    }
+
+    static int index(ChessPosition position) {
+        return index(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 0-63 square number, {@code (row - 1) * 8 + (col - 1)}, of an on-board index
+     */
+    static int square(int index) {
+        return (index / 10 - 2) * 8 + (index % 10 - 1);
+    }
+
+    /**
+     * @return the mailbox index of a 0-63 square number
+     */
+    static int indexOfSquare(int square) {
+        return index(square / 8 + 1, square % 8 + 1);
+    }
+
+    static int row(int index) {
+        return index / 10 - 1;
+    }
+
+    /**
+     * @return the shared position object for an on-board index
+     */
+    static ChessPosition position(int index) {
+        return POSITIONS[index];
+    }
+
+    /**
+     * Converts (row, column) offsets into index deltas.
+     */
+    static int[] deltas(int[][] offsets) {
+        int[] deltas = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            deltas[i] = offsets[i][0] * 10 + offsets[i][1];
+        }
+        return deltas;
+    }
+
+    public static byte code(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return (byte) (type.ordinal() + 1 + (color == ChessGame.TeamColor.BLACK ? BLACK : 0));
+    }
+
+    public static byte code(ChessPiece piece) {
+        return piece == null ? EMPTY : code(piece.getTeamColor(), piece.getPieceType());
+    }
+
+    /**
+     * @return the shared piece for a code, or null for an empty square
+     */
+    static ChessPiece piece(int code) {
+        return PIECES[code];
+    }
+
+    /**
+     * @return true if the cell holds a piece of the given colour code (0 or {@link #BLACK})
+     */
+    static boolean isColor(byte cell, int color) {
+        return cell > EMPTY && (cell & BLACK) == color;
+    }
+
+    static int color(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.BLACK ? BLACK : 0;
+    }
+}
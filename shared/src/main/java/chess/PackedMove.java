@@ -0,0 +1,44 @@
+package chess;
+
+/**
+ * Packs a {@link ChessMove} into the low 16 bits of an int so it can be stored
+ * in files and arrays without allocating move objects.
+ * <p>
+ * Layout: bits 0-5 start square, bits 6-11 end square, bits 12-14 promotion
+ * piece (0 for none, otherwise {@code PieceType.ordinal() + 1}).
+ * Squares are numbered {@code (row - 1) * 8 + (column - 1)}.
+ */
+public class PackedMove {
+    public static final int NONE = -1;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public static int pack(ChessMove move) {
+        int from = square(move.getStartPosition());
+        int to = square(move.getEndPosition());
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    public static ChessMove unpack(int packed) {
+        int promotion = (packed >>> 12) & 0x7;
+        return new ChessMove(position(from(packed)), position(to(packed)),
+                promotion == 0 ? null : TYPES[promotion - 1]);
+    }
+
+    public static int from(int packed) {
+        return packed & 0x3F;
+    }
+
+    public static int to(int packed) {
+        return (packed >>> 6) & 0x3F;
+    }
+
+    public static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    public static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+}
@@ -8,37 +8,37 @@ public class PawnMoveStrategy implements MoveStrategy {
     @Override
     public Collection<ChessMove> calculateMoves(ChessPiece piece, ChessBoard board, ChessPosition position, GameState gameState) {
         Collection<ChessMove> moves = new ArrayList<>();
-        int direction = (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? 1 : -1;
+        byte[] cells = board.cells();
+        boolean white = piece.getTeamColor() == ChessGame.TeamColor.WHITE;
+        // One rank forward as a mailbox index delta
+        int forward = white ? 10 : -10;
+        int from = Mailbox.index(position);
         int currentRow = position.getRow();
-        int currentColumn = position.getColumn();
 
         // Forward move
-        addPawnMove(moves, board, position, currentRow + direction, currentColumn);
+        int ahead = from + forward;
+        if (cells[ahead] == Mailbox.EMPTY) {
+            addPawnMove(moves, position, ahead);
 
-        // Initial two-square move
-        if ((piece.getTeamColor() == ChessGame.TeamColor.WHITE && currentRow == 2) ||
-                (piece.getTeamColor() == ChessGame.TeamColor.BLACK && currentRow == 7)) {
-            // Check if the square immediately in front is empty
-            ChessPosition nextPosition = new ChessPosition(currentRow + direction, currentColumn);
-            if (board.getPiece(nextPosition) == null) {
-                // If the immediate square is empty, check the double move square
-                ChessPosition doublePosition = new ChessPosition(currentRow + 2 * direction, currentColumn);
-                if (board.getPiece(doublePosition) == null) {
-                    // Both squares are empty, so add the double move
-                    addPawnMove(moves, board, position, currentRow + 2 * direction, currentColumn);
+            // Initial two-square move, only if the square immediately in front is empty
+            if ((white && currentRow == 2) || (!white && currentRow == 7)) {
+                int twoAhead = ahead + forward;
+                if (cells[twoAhead] == Mailbox.EMPTY) {
+                    addPawnMove(moves, position, twoAhead);
                 }
             }
         }
 
         // Diagonal captures
-        addPawnCapture(moves, board, position, currentRow + direction, currentColumn - 1);
-        addPawnCapture(moves, board, position, currentRow + direction, currentColumn + 1);
+        int enemyColor = white ? Mailbox.BLACK : 0;
+        addPawnCapture(moves, cells, position, ahead - 1, enemyColor);
+        addPawnCapture(moves, cells, position, ahead + 1, enemyColor);
 
         // En passant
         ChessPosition enPassantTarget = gameState.getEnPassantTarget();
         if (enPassantTarget != null) {
-            if (Math.abs(enPassantTarget.getColumn() - currentColumn) == 1 &&
-                    enPassantTarget.getRow() == currentRow + direction) {
+            if (Math.abs(enPassantTarget.getColumn() - position.getColumn()) == 1 &&
+                    enPassantTarget.getRow() == currentRow + (white ? 1 : -1)) {
                 moves.add(new ChessMove(position, enPassantTarget, null));
             }
         }
@@ -46,37 +46,20 @@ public class PawnMoveStrategy implements MoveStrategy {
         return moves;
     }
 
-    private void addPawnMove(Collection<ChessMove> moves, ChessBoard board, ChessPosition from, int toRow, int toColumn) {
-        if (!isValidPosition(toRow, toColumn)) {
-            return;
-        }
-
-
-        ChessPosition to = new ChessPosition(toRow, toColumn);
-        if (board.getPiece(to) == null) {
-            if (toRow == 1 || toRow == 8) {
-                // Promotion
-                addPromotionMoves(moves, from, to);
-            } else {
-                moves.add(new ChessMove(from, to, null));
-            }
+    private void addPawnMove(Collection<ChessMove> moves, ChessPosition from, int to) {
+        int toRow = Mailbox.row(to);
+        if (toRow == 1 || toRow == 8) {
+            // Promotion
+            addPromotionMoves(moves, from, Mailbox.position(to));
+        } else {
+            moves.add(new ChessMove(from, Mailbox.position(to), null));
         }
     }
 
-    private void addPawnCapture(Collection<ChessMove> moves, ChessBoard board, ChessPosition from, int toRow, int toColumn) {
-        if (!isValidPosition(toRow, toColumn)){
-            return;
-        }
-
-        ChessPosition to = new ChessPosition(toRow, toColumn);
-        ChessPiece targetPiece = board.getPiece(to);
-        if (targetPiece != null && targetPiece.getTeamColor() != board.getPiece(from).getTeamColor()) {
-            if (toRow == 1 || toRow == 8) {
-                // Promotion
-                addPromotionMoves(moves, from, to);
-            } else {
-                moves.add(new ChessMove(from, to, null));
-            }
+    private void addPawnCapture(Collection<ChessMove> moves, byte[] cells, ChessPosition from, int to, int enemyColor) {
+        // Off-board cells are never an enemy piece, so no bounds check is needed
+        if (Mailbox.isColor(cells[to], enemyColor)) {
+            addPawnMove(moves, from, to);
         }
     }
 
@@ -86,8 +69,4 @@ public class PawnMoveStrategy implements MoveStrategy {
         moves.add(new ChessMove(from, to, ChessPiece.PieceType.BISHOP));
         moves.add(new ChessMove(from, to, ChessPiece.PieceType.KNIGHT));
     }
-
-    private boolean isValidPosition(int row, int column) {
-        return row >= 1 && row <= 8 && column >= 1 && column <= 8;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of chess positions. Every (piece, square) pair and the side to
+ * move get a fixed random 64-bit key, and a position's hash is the XOR of the keys
+ * that apply to it. The keys come from a fixed seed so hashes are stable across
+ * runs and can be stored on disk.
+ * <p>
+ * Castling rights and en passant targets are not part of the hash since the
+ * game does not track them.
+ */
+public class Zobrist {
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    /**
+     * @return the key for a piece standing on a square
+     */
+    public static long pieceKey(ChessPiece piece, int row, int col) {
+        int pieceIndex = piece.getPieceType().ordinal() + (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : 6);
+        return PIECE_KEYS[pieceIndex][(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return the key toggled whenever the side to move changes
+     */
+    public static long sideKey() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Hashes a board with the given side to move.
+     */
+    public static long hash(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        long hash = sideToMove == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    hash ^= pieceKey(piece, row, col);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the current position of a game.
+     */
+    public static long hash(ChessGame game) {
+        return hash(game.getBoard(), game.getTeamTurn());
+    }
+}
@@ -0,0 +1,88 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Mailbox;
+
+/**
+ * Scores whole {@link PositionBatch}es with the same material and piece-square
+ * terms as {@link Evaluator}, giving identical results.
+ * <p>
+ * Every (piece, square) pair's contribution from white's point of view is
+ * folded into one table, so a position's score is the sum of 64 table entries.
+ * When the {@code jdk.incubator.vector} module is present (run with
+ * {@code --add-modules jdk.incubator.vector}) the sums are computed a full
+ * vector of positions at a time by {@link VectorBatchKernel}; otherwise a plain
+ * loop is used.
+ */
+public class BatchEvaluator {
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // (code * 64 + square) -> signed value of that piece on that square, white positive
+    static final int[] TABLE = buildTable();
+
+    private final boolean vectorized;
+
+    /**
+     * Uses the vector kernel when it is available.
+     */
+    public BatchEvaluator() {
+        this(VECTOR_AVAILABLE);
+    }
+
+    /**
+     * @param vectorized whether to use the vector kernel; ignored when the module is missing
+     */
+    public BatchEvaluator(boolean vectorized) {
+        this.vectorized = vectorized && VECTOR_AVAILABLE;
+    }
+
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Scores every position in the batch.
+     *
+     * @param scores receives one score per position, in centipawns from the point
+     *               of view of that position's side to move; must hold at least
+     *               {@link PositionBatch#size()} entries
+     */
+    public void evaluate(PositionBatch batch, int[] scores) {
+        int count = batch.size();
+        if (scores.length < count) {
+            throw new IllegalArgumentException("Need " + count + " scores, got " + scores.length);
+        }
+        if (vectorized) {
+            VectorBatchKernel.sum(TABLE, batch.squares, batch.sign, batch.stride(), count, scores);
+        } else {
+            scalarSum(batch.squares, batch.sign, batch.stride(), count, scores);
+        }
+    }
+
+    private static void scalarSum(int[] squares, int[] sign, int stride, int count, int[] scores) {
+        for (int position = 0; position < count; position++) {
+            int score = 0;
+            for (int square = 0; square < 64; square++) {
+                score += TABLE[squares[square * stride + position]];
+            }
+            scores[position] = score * sign[position];
+        }
+    }
+
+    private static int[] buildTable() {
+        int[] table = new int[16 * 64];
+        for (ChessGame.TeamColor color : new ChessGame.TeamColor[]{ChessGame.TeamColor.WHITE, ChessGame.TeamColor.BLACK}) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece piece = new ChessPiece(color, type);
+                int code = Mailbox.code(piece);
+                for (int square = 0; square < 64; square++) {
+                    int value = Evaluator.pieceValue(type) + Evaluator.squareBonus(piece, square / 8 + 1, square % 8 + 1);
+                    table[code * 64 + square] = color == ChessGame.TeamColor.WHITE ? value : -value;
+                }
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,136 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Static evaluation of a board: material plus piece-square bonuses.
+ * Scores are in centipawns from the point of view of the given team.
+ */
+public class Evaluator {
+    public static final int PAWN_VALUE = 100;
+    public static final int KNIGHT_VALUE = 320;
+    public static final int BISHOP_VALUE = 330;
+    public static final int ROOK_VALUE = 500;
+    public static final int QUEEN_VALUE = 900;
+    public static final int KING_VALUE = 20000;
+
+    // Piece-square tables from white's point of view, rank 8 first so they read like a board
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] KING_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+
+    /**
+     * @return the material value of a piece type in centipawns
+     */
+    public static int pieceValue(ChessPiece.PieceType type) {
+        return switch (type) {
+            case PAWN -> PAWN_VALUE;
+            case KNIGHT -> KNIGHT_VALUE;
+            case BISHOP -> BISHOP_VALUE;
+            case ROOK -> ROOK_VALUE;
+            case QUEEN -> QUEEN_VALUE;
+            case KING -> KING_VALUE;
+        };
+    }
+
+    /**
+     * Piece-square bonus for a piece standing on the given square.
+     *
+     * @param row 1-8, 1 being white's back rank
+     * @param col 1-8
+     */
+    public static int squareBonus(ChessPiece piece, int row, int col) {
+        int rank = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? row : 9 - row;
+        int index = (8 - rank) * 8 + (col - 1);
+        return switch (piece.getPieceType()) {
+            case PAWN -> PAWN_TABLE[index];
+            case KNIGHT -> KNIGHT_TABLE[index];
+            case BISHOP -> BISHOP_TABLE[index];
+            case ROOK -> ROOK_TABLE[index];
+            case QUEEN -> QUEEN_TABLE[index];
+            case KING -> KING_TABLE[index];
+        };
+    }
+
+    /**
+     * Evaluates the board for the given team.
+     *
+     * @param board the board to score
+     * @param team  the team whose point of view the score is from
+     * @return positive if the team is better, negative if worse
+     */
+    public int evaluate(ChessBoard board, ChessGame.TeamColor team) {
+        int score = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    continue;
+                }
+                int value = pieceValue(piece.getPieceType()) + squareBonus(piece, row, col);
+                score += piece.getTeamColor() == team ? value : -value;
+            }
+        }
+        return score;
+    }
+}
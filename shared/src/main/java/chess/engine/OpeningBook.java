@@ -0,0 +1,167 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+import chess.Zobrist;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only view of a book file written by {@link OpeningBookCompiler}.
+ * <p>
+ * The file is memory-mapped, so the operating system's page cache is shared by
+ * every process that opens the same book, and nothing is copied onto the heap.
+ * Entries are sorted by Zobrist key and looked up by binary search; the
+ * key-based lookups below do not allocate.
+ * <p>
+ * File layout (big-endian): a 4-byte magic, a 4-byte entry count, then
+ * {@value #ENTRY_SIZE}-byte entries of {@code long key, short move, short weight},
+ * sorted by key and, within a key, by descending weight.
+ */
+public class OpeningBook {
+    public static final int MAGIC = 0x43424B31; // "CBK1"
+    public static final int HEADER_SIZE = 8;
+    public static final int ENTRY_SIZE = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book file");
+        }
+        this.entries = buffer.getInt(4);
+        if ((long) HEADER_SIZE + (long) entries * ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("Truncated opening book file");
+        }
+    }
+
+    /**
+     * Memory-maps a book file.
+     *
+     * @param path the book to open
+     * @return the mapped book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return the total number of (position, move) entries in the book
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Finds the first entry for a position.
+     *
+     * @param key the Zobrist key of the position
+     * @return the entry index, or -1 if the position is not in the book
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = entries - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = key(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key || (mid > 0 && key(mid - 1) == key)) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of book moves stored for the position
+     */
+    public int count(long key) {
+        int first = find(key);
+        if (first < 0) {
+            return 0;
+        }
+        int index = first;
+        while (index < entries && key(index) == key) {
+            index++;
+        }
+        return index - first;
+    }
+
+    /**
+     * @return the most played move for the position as a {@link PackedMove}, or
+     * {@link PackedMove#NONE} if the position is not in the book
+     */
+    public int bestMove(long key) {
+        int first = find(key);
+        return first < 0 ? PackedMove.NONE : move(first);
+    }
+
+    /**
+     * Picks a book move with probability proportional to its weight.
+     *
+     * @return the chosen move as a {@link PackedMove}, or {@link PackedMove#NONE}
+     */
+    public int weightedMove(long key, RandomGenerator random) {
+        int first = find(key);
+        if (first < 0) {
+            return PackedMove.NONE;
+        }
+        int total = 0;
+        int index = first;
+        while (index < entries && key(index) == key) {
+            total += weight(index);
+            index++;
+        }
+        int pick = random.nextInt(Math.max(total, 1));
+        for (int i = first; i < index; i++) {
+            pick -= weight(i);
+            if (pick < 0) {
+                return move(i);
+            }
+        }
+        return move(first);
+    }
+
+    /**
+     * Convenience lookup for the current position of a game.
+     *
+     * @return the most played book move, or null if the position is not in the book
+     */
+    public ChessMove lookup(ChessGame game) {
+        int move = bestMove(Zobrist.hash(game));
+        return move == PackedMove.NONE ? null : PackedMove.unpack(move);
+    }
+
+    public long key(int index) {
+        return buffer.getLong(offset(index));
+    }
+
+    public int move(int index) {
+        return buffer.getShort(offset(index) + 8) & 0xFFFF;
+    }
+
+    public int weight(int index) {
+        return buffer.getShort(offset(index) + 10) & 0xFFFF;
+    }
+
+    // In long, as in the size check, so a bad index fails rather than wrapping
+    private static int offset(int index) {
+        return Math.toIntExact((long) HEADER_SIZE + (long) index * ENTRY_SIZE);
+    }
+}
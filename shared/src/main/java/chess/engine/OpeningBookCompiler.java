@@ -0,0 +1,123 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.Zobrist;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} file from PGN games. Every game is replayed for
+ * its first {@code maxPly} half-moves and each (position, move) pair is counted;
+ * the counts become the move weights in the book.
+ * <p>
+ * Usage: {@code OpeningBookCompiler <out.book> <maxPly> <games.pgn>...}
+ */
+public class OpeningBookCompiler {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    // key -> (packed move -> times played)
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+    private int gamesRead;
+
+    public OpeningBookCompiler(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: OpeningBookCompiler <out.book> <maxPly> <games.pgn>...");
+            System.exit(1);
+        }
+        OpeningBookCompiler compiler = new OpeningBookCompiler(Integer.parseInt(args[1]));
+        for (int i = 2; i < args.length; i++) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[i]))) {
+                compiler.addGames(reader);
+            }
+        }
+        int entries = compiler.write(Path.of(args[0]));
+        System.out.println("Read " + compiler.gamesRead + " games, wrote " + entries + " book entries");
+    }
+
+    /**
+     * Adds every game in a PGN stream to the book.
+     */
+    public void addGames(Reader pgn) throws IOException {
+        PgnReader reader = new PgnReader(pgn);
+        PgnGame game;
+        while ((game = reader.next()) != null) {
+            addGame(game);
+        }
+    }
+
+    /**
+     * Adds the opening of one game. Replay stops at the first move that cannot be
+     * played, e.g. castling, which the game does not support.
+     */
+    public void addGame(PgnGame pgnGame) {
+        gamesRead++;
+        ChessGame game = new ChessGame();
+        List<String> moves = pgnGame.moves();
+        for (int ply = 0; ply < maxPly && ply < moves.size(); ply++) {
+            ChessMove move = San.parse(game, moves.get(ply));
+            if (move == null) {
+                return;
+            }
+            long key = Zobrist.hash(game);
+            counts.computeIfAbsent(key, k -> new HashMap<>()).merge(PackedMove.pack(move), 1, Integer::sum);
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the collected positions as a sorted book file.
+     *
+     * @return the number of entries written
+     */
+    public int write(Path path) throws IOException {
+        long[] keys = counts.keySet().stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(keys);
+
+        int entries = 0;
+        for (Map<Integer, Integer> moves : counts.values()) {
+            entries += moves.size();
+        }
+
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(entries);
+            for (long key : keys) {
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(counts.get(key).entrySet());
+                moves.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(Math.min(move.getValue(), MAX_WEIGHT));
+                }
+            }
+        }
+        return entries;
+    }
+}
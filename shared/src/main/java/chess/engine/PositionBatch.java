@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.BoardSnapshot;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Mailbox;
+
+import java.util.Arrays;
+
+/**
+ * A batch of positions laid out structure-of-arrays style for
+ * {@link BatchEvaluator}: for each of the 64 squares, one contiguous run holding
+ * that square's contents in every position of the batch. Evaluating a square
+ * across the batch is then a sequential read that vector hardware can consume
+ * several positions at a time.
+ * <p>
+ * A square's entry is the offset of its (piece, square) weight in the
+ * evaluator's table, {@code code * 64 + square}, where code is the piece's
+ * {@link Mailbox#code}, 0 for an empty square.
+ * <p>
+ * A batch can be cleared and refilled, so one allocation serves any number of
+ * positions.
+ */
+public final class PositionBatch {
+    // Stride is padded so the widest vector never runs past the end of a square's run
+    private static final int PAD = 64;
+
+    private final int capacity;
+    private final int stride;
+    final int[] squares;
+    final int[] sign;
+    private int size;
+
+    public PositionBatch(int capacity) {
+        this.capacity = capacity;
+        this.stride = (capacity + PAD - 1) / PAD * PAD;
+        this.squares = new int[64 * stride];
+        this.sign = new int[stride];
+        clear();
+    }
+
+    /**
+     * Adds a position.
+     *
+     * @param sideToMove the side the position's score will be from the point of view of
+     * @return the position's index within the batch
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        int index = next();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                set(index, (row - 1) * 8 + col - 1, board.getPiece(new ChessPosition(row, col)));
+            }
+        }
+        sign[index] = sideToMove == ChessGame.TeamColor.BLACK ? -1 : 1;
+        return index;
+    }
+
+    public int add(BoardSnapshot position) {
+        int index = next();
+        for (int square = 0; square < 64; square++) {
+            set(index, square, position.getPiece(square / 8 + 1, square % 8 + 1));
+        }
+        sign[index] = position.getTeamTurn() == ChessGame.TeamColor.BLACK ? -1 : 1;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Empties the batch. Unused slots score as empty boards.
+     */
+    public void clear() {
+        for (int square = 0; square < 64; square++) {
+            Arrays.fill(squares, square * stride, (square + 1) * stride, square);
+        }
+        Arrays.fill(sign, 0);
+        size = 0;
+    }
+
+    int stride() {
+        return stride;
+    }
+
+    private int next() {
+        if (size == capacity) {
+            throw new IllegalStateException("Position batch is full");
+        }
+        return size++;
+    }
+
+    private void set(int index, int square, ChessPiece piece) {
+        squares[square * stride + index] = Mailbox.code(piece) * 64 + square;
+    }
+}
@@ -0,0 +1,649 @@
+package chess.engine;
+
+import chess.BoardSnapshot;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PackedMove;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alpha-beta search over a private copy of a game's board. The main search is
+ * followed by a captures-only quiescence search so that the score at the horizon
+ * is only taken in quiet positions. Captures that lose material according to
+ * static exchange evaluation are never tried in quiescence.
+ * <p>
+ * Main search results are kept in a {@link TranspositionTable}, and each search
+ * counts what it did in plain fields (a search runs on one thread) that are
+ * returned as {@link SearchStats} and optionally added to shared {@link SearchMetrics}.
+ */
+public class Search {
+    public static final int MATE_SCORE = 100000;
+    private static final int INFINITY = 1000000;
+    // Scores beyond this are mates, stored relative to the node rather than the root
+    private static final int MATE_BOUND = MATE_SCORE - 1000;
+    private static final int DEFAULT_TABLE_BITS = 16;
+    // In check quiescence tries every evasion, quiet ones included, so a run of
+    // checking captures can blow up; past this many plies it takes the static score
+    private static final int MAX_QUIESCENCE_PLIES = 16;
+
+    private final ChessBoard board;
+    private final ChessGame work;
+    private final Evaluator evaluator;
+    private ChessGame.TeamColor sideToMove;
+    private OpeningBook openingBook;
+    private Tablebases tablebases;
+    private TranspositionTable table;
+    private SearchMetrics metrics;
+    // Zobrist key of the position on the board, updated by makeMove and unmakeMove
+    private long hash;
+
+    private long nodes;
+    private long qnodes;
+
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = Long.MAX_VALUE;
+    private long deadline = Long.MAX_VALUE;
+    // Set once a limit is hit; every node then returns at once and the
+    // unfinished iteration is thrown away
+    private boolean aborted;
+    // Set from another thread by stop()
+    private volatile boolean stopRequested;
+
+    private long ttProbes;
+    private long ttHits;
+    private long ttCollisions;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private SearchStats stats;
+    // Best root moves and their scores from the last completed iteration
+    private final List<ChessMove> topMoves = new ArrayList<>();
+    private final List<Integer> topScores = new ArrayList<>();
+
+    /**
+     * @param game the game to search from; it is copied and never modified
+     */
+    public Search(ChessGame game) {
+        this(new ChessBoard(game.getBoard()), game.getTeamTurn());
+    }
+
+    /**
+     * Searches from a snapshot, so analysis can run on another thread while the
+     * game itself carries on.
+     */
+    public Search(BoardSnapshot position) {
+        this(position.toBoard(), position.getTeamTurn());
+    }
+
+    private Search(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        this.board = board;
+        this.work = new ChessGame();
+        this.work.setBoard(board);
+        this.work.setTeamTurn(sideToMove);
+        this.sideToMove = sideToMove;
+        this.evaluator = new Evaluator();
+        this.hash = Zobrist.hash(board, sideToMove);
+    }
+
+    /**
+     * Sets a book to consult before searching. When the root position is in the
+     * book its most played move is returned without searching, if it is legal.
+     *
+     * @param openingBook the book, or null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets the endgame tables to probe. Positions they cover are scored from the
+     * tables instead of being searched.
+     *
+     * @param tablebases the tables, or null to always search
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Sets the transposition table to use, which may be shared with other
+     * searches. Without one, each search allocates a small table of its own.
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Sets totals that each search adds its statistics to when it finishes.
+     */
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return statistics for the last call to {@link #search}, or null before the first
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Caps the nodes (main plus quiescence) a search may visit. When the cap is
+     * reached the result of the last completed iteration is returned.
+     *
+     * @param nodeLimit the cap, or {@link Long#MAX_VALUE} for none
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Caps the wall-clock time a search may take, in the same way as {@link #setNodeLimit}.
+     *
+     * @param millis the cap in milliseconds, or {@link Long#MAX_VALUE} for none
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimitNanos = millis == Long.MAX_VALUE ? Long.MAX_VALUE : millis * 1_000_000;
+    }
+
+    /**
+     * Asks a search running on another thread to finish as soon as possible. It
+     * returns the result of its last completed iteration, as when a limit is hit.
+     * A stopped search stays stopped; create a new one to search again.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Searches the position with iterative deepening up to the given depth, or
+     * until a node or time limit is reached.
+     *
+     * @param depth the nominal search depth in plies, not counting quiescence
+     * @return the best move found along with its score and node counts
+     */
+    public SearchResult search(int depth) {
+        return run(depth, 1);
+    }
+
+    /**
+     * Searches like {@link #search} but keeps the best few root moves rather than
+     * just one, each with its expected continuation taken from the transposition
+     * table (multi-PV analysis). Moves outside the top {@code count} are only
+     * proved worse, not scored, so this costs less than searching each move fully.
+     *
+     * @param depth the nominal search depth in plies
+     * @param count how many lines to return
+     * @return up to {@code count} lines, best first; empty if there are no legal moves
+     */
+    public List<SearchLine> searchLines(int depth, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Line count must be positive: " + count);
+        }
+        run(depth, count);
+        List<SearchLine> lines = new ArrayList<>(topMoves.size());
+        for (int i = 0; i < topMoves.size(); i++) {
+            lines.add(new SearchLine(principalVariation(topMoves.get(i), Math.max(1, depth)), topScores.get(i)));
+        }
+        return lines;
+    }
+
+    private SearchResult run(int depth, int lineCount) {
+        nodes = 0;
+        qnodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        ttCollisions = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        aborted = false;
+        if (table == null) {
+            table = new TranspositionTable(DEFAULT_TABLE_BITS);
+        }
+        long start = System.nanoTime();
+        deadline = timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeLimitNanos;
+        List<long[]> iterations = new ArrayList<>();
+        topMoves.clear();
+        topScores.clear();
+        SearchResult result = iterate(depth, lineCount, iterations);
+        if (topMoves.isEmpty() && result.bestMove() != null) {
+            // Book and tablebase moves, or no iteration finished
+            topMoves.add(result.bestMove());
+            topScores.add(result.score());
+        }
+
+        long[] iterationNodes = new long[iterations.size()];
+        long[] iterationNanos = new long[iterations.size()];
+        for (int i = 0; i < iterationNodes.length; i++) {
+            iterationNodes[i] = iterations.get(i)[0];
+            iterationNanos[i] = iterations.get(i)[1];
+        }
+        stats = new SearchStats(nodes, qnodes, System.nanoTime() - start, ttProbes, ttHits, ttCollisions,
+                cutoffs, firstMoveCutoffs, iterationNodes, iterationNanos);
+        if (metrics != null) {
+            metrics.record(stats);
+        }
+        return result;
+    }
+
+    /**
+     * Runs iterative deepening, adding {nodes, nanos} for each completed iteration.
+     */
+    private SearchResult iterate(int depth, int lineCount, List<long[]> iterations) {
+        if (openingBook != null) {
+            int bookMove = openingBook.bestMove(Zobrist.hash(board, sideToMove));
+            // A bad book, or a key collision, can give a move that isn't legal here
+            if (bookMove != PackedMove.NONE && work.isLegal(PackedMove.unpack(bookMove))) {
+                return new SearchResult(PackedMove.unpack(bookMove), 0, 0, nodes, qnodes);
+            }
+        }
+        List<ChessMove> rootMoves = legalMoves();
+        if (rootMoves.isEmpty()) {
+            int score = work.isInCheck(sideToMove) ? -MATE_SCORE : 0;
+            return new SearchResult(null, score, 0, nodes, qnodes);
+        }
+        orderMoves(rootMoves);
+
+        SearchResult tablebaseResult = tablebaseRoot(rootMoves);
+        if (tablebaseResult != null) {
+            return tablebaseResult;
+        }
+
+        ChessMove bestMove = rootMoves.get(0);
+        int bestScore = -INFINITY;
+        int completed = 0;
+        List<ChessMove> iterationMoves = new ArrayList<>(lineCount + 1);
+        List<Integer> iterationScores = new ArrayList<>(lineCount + 1);
+        for (int iteration = 1; iteration <= depth; iteration++) {
+            long iterationStart = System.nanoTime();
+            long nodesBefore = nodes + qnodes;
+            iterationMoves.clear();
+            iterationScores.clear();
+            for (ChessMove move : rootMoves) {
+                // A move only has to be searched exactly if it could make the top lines
+                int alpha = iterationMoves.size() < lineCount ? -INFINITY : iterationScores.get(lineCount - 1);
+                ChessPiece captured = makeMove(move);
+                int score = -negamax(iteration - 1, -INFINITY, -alpha, 1);
+                unmakeMove(move, captured);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    int at = 0;
+                    while (at < iterationScores.size() && iterationScores.get(at) >= score) {
+                        at++;
+                    }
+                    iterationMoves.add(at, move);
+                    iterationScores.add(at, score);
+                    if (iterationMoves.size() > lineCount) {
+                        iterationMoves.remove(lineCount);
+                        iterationScores.remove(lineCount);
+                    }
+                }
+            }
+            if (aborted) {
+                break;
+            }
+            bestMove = iterationMoves.get(0);
+            bestScore = iterationScores.get(0);
+            completed = iteration;
+            topMoves.clear();
+            topMoves.addAll(iterationMoves);
+            topScores.clear();
+            topScores.addAll(iterationScores);
+            iterations.add(new long[]{nodes + qnodes - nodesBefore, System.nanoTime() - iterationStart});
+            // Search the previous best lines first on the next iteration
+            rootMoves.removeAll(iterationMoves);
+            rootMoves.addAll(0, iterationMoves);
+        }
+        if (completed == 0) {
+            // Not even one ply finished; fall back on the best-ordered move
+            bestScore = evaluator.evaluate(board, sideToMove);
+        }
+        return new SearchResult(bestMove, bestScore, completed, nodes, qnodes);
+    }
+
+    /**
+     * Follows the best moves stored in the transposition table from the given
+     * root move, stopping at a missing or illegal entry or a repeated position.
+     */
+    private List<ChessMove> principalVariation(ChessMove first, int maxLength) {
+        List<ChessMove> line = new ArrayList<>();
+        List<ChessPiece> captures = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        ChessMove move = first;
+        while (move != null && line.size() < maxLength && seen.add(hash)) {
+            captures.add(makeMove(move));
+            line.add(move);
+            long entry = table.probe(hash);
+            move = null;
+            if (entry != TranspositionTable.MISS && TranspositionTable.move(entry) != PackedMove.NONE) {
+                ChessMove next = PackedMove.unpack(TranspositionTable.move(entry));
+                if (legalMoves().contains(next)) {
+                    move = next;
+                }
+            }
+        }
+        for (int i = line.size() - 1; i >= 0; i--) {
+            unmakeMove(line.get(i), captures.get(i));
+        }
+        return line;
+    }
+
+    /**
+     * Picks the root move straight from the endgame tables when every move leads
+     * to a position they cover.
+     *
+     * @return the result, or null if the tables do not cover the position
+     */
+    private SearchResult tablebaseRoot(List<ChessMove> rootMoves) {
+        if (tablebases == null || tablebases.probe(board, sideToMove) == Tablebase.UNKNOWN) {
+            return null;
+        }
+        ChessMove bestMove = null;
+        int bestScore = -INFINITY;
+        for (ChessMove move : rootMoves) {
+            ChessPiece captured = makeMove(move);
+            int childScore = tablebases.probe(board, sideToMove);
+            if (childScore == Tablebase.UNKNOWN && captured == null && move.getPromotionPiece() == null) {
+                unmakeMove(move, captured);
+                return null;
+            }
+            // Captures and promotions can leave the tables; score those with quiescence
+            int score = childScore == Tablebase.UNKNOWN ? -quiescence(-INFINITY, INFINITY, 1, 0) : -toRootScore(childScore, 1);
+            unmakeMove(move, captured);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, 0, nodes, qnodes);
+    }
+
+    /**
+     * Converts a table score, counted in plies from the probed node, to one counted from the root.
+     */
+    private static int toRootScore(int score, int ply) {
+        if (score > 0) {
+            return score - ply;
+        }
+        return score < 0 ? score + ply : 0;
+    }
+
+    /**
+     * Runs only the quiescence search on the current position.
+     *
+     * @return the quiescence score for the side to move
+     */
+    public int quiesce() {
+        return quiescence(-INFINITY, INFINITY, 0, 0);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply, 0);
+        }
+        if (outOfBudget()) {
+            return 0;
+        }
+        nodes++;
+
+        if (tablebases != null) {
+            int score = tablebases.probe(board, sideToMove);
+            if (score != Tablebase.UNKNOWN) {
+                return toRootScore(score, ply);
+            }
+        }
+
+        ttProbes++;
+        long entry = table.probe(hash);
+        int hashMove = PackedMove.NONE;
+        if (entry != TranspositionTable.MISS) {
+            ttHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return bound == TranspositionTable.EXACT ? score
+                            : bound == TranspositionTable.LOWER_BOUND ? beta : alpha;
+                }
+            }
+        } else if (table.isCollision(hash)) {
+            ttCollisions++;
+        }
+
+        List<ChessMove> moves = legalMoves();
+        if (moves.isEmpty()) {
+            return work.isInCheck(sideToMove) ? -MATE_SCORE + ply : 0;
+        }
+        orderMoves(moves);
+        if (hashMove != PackedMove.NONE) {
+            ChessMove first = PackedMove.unpack(hashMove);
+            if (moves.remove(first)) {
+                moves.add(0, first);
+            }
+        }
+
+        int originalAlpha = alpha;
+        ChessMove bestMove = null;
+        for (int i = 0; i < moves.size(); i++) {
+            ChessMove move = moves.get(i);
+            ChessPiece captured = makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            unmakeMove(move, captured);
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                cutoffs++;
+                if (i == 0) {
+                    firstMoveCutoffs++;
+                }
+                table.store(hash, toTableScore(beta, ply), PackedMove.pack(move), depth, TranspositionTable.LOWER_BOUND);
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+        table.store(hash, toTableScore(alpha, ply), bestMove == null ? PackedMove.NONE : PackedMove.pack(bestMove),
+                depth, alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND);
+        return alpha;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted from
+     * the node so they stay right when the position is reached at another ply.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score + ply;
+        }
+        return score < -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score - ply;
+        }
+        return score < -MATE_BOUND ? score + ply : score;
+    }
+
+    private int quiescence(int alpha, int beta, int ply, int qply) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        qnodes++;
+        if (qply >= MAX_QUIESCENCE_PLIES) {
+            return evaluator.evaluate(board, sideToMove);
+        }
+
+        if (tablebases != null) {
+            int score = tablebases.probe(board, sideToMove);
+            if (score != Tablebase.UNKNOWN) {
+                return toRootScore(score, ply);
+            }
+        }
+
+        // In check there is no standing pat; every evasion has to be looked at
+        if (work.isInCheck(sideToMove)) {
+            List<ChessMove> evasions = legalMoves();
+            if (evasions.isEmpty()) {
+                return -MATE_SCORE + ply;
+            }
+            orderMoves(evasions);
+            for (ChessMove move : evasions) {
+                ChessPiece captured = makeMove(move);
+                int score = -quiescence(-beta, -alpha, ply + 1, qply + 1);
+                unmakeMove(move, captured);
+                if (score >= beta) {
+                    return beta;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+            return alpha;
+        }
+
+        int standPat = evaluator.evaluate(board, sideToMove);
+        if (standPat >= beta) {
+            return beta;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        List<ChessMove> captures = legalMoves();
+        captures.removeIf(move -> !isCapture(move) && move.getPromotionPiece() == null);
+        orderMoves(captures);
+        for (ChessMove move : captures) {
+            if (StaticExchange.isLosing(board, move)) {
+                continue;
+            }
+            ChessPiece captured = makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1, qply + 1);
+            unmakeMove(move, captured);
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * @return true once the node or time limit has been reached or the search was stopped
+     */
+    private boolean outOfBudget() {
+        if (!aborted) {
+            long visited = nodes + qnodes;
+            // Reading the clock is comparatively slow, so only do it every 1024 nodes
+            aborted = stopRequested || visited >= nodeLimit
+                    || ((visited & 1023) == 0 && System.nanoTime() > deadline);
+        }
+        return aborted;
+    }
+
+    private List<ChessMove> legalMoves() {
+        List<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == sideToMove) {
+                    Collection<ChessMove> pieceMoves = work.validMoves(position);
+                    if (pieceMoves != null) {
+                        moves.addAll(pieceMoves);
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private boolean isCapture(ChessMove move) {
+        return board.getPiece(move.getEndPosition()) != null;
+    }
+
+    /**
+     * Orders captures first, most valuable victim then least valuable attacker,
+     * followed by the quiet moves in generation order.
+     */
+    private void orderMoves(List<ChessMove> moves) {
+        moves.sort((a, b) -> Integer.compare(orderingScore(b), orderingScore(a)));
+    }
+
+    private int orderingScore(ChessMove move) {
+        int score = 0;
+        ChessPiece victim = board.getPiece(move.getEndPosition());
+        if (victim != null) {
+            ChessPiece attacker = board.getPiece(move.getStartPosition());
+            score += 10 * Evaluator.pieceValue(victim.getPieceType()) - attacker.getPieceType().ordinal();
+        }
+        if (move.getPromotionPiece() != null) {
+            score += Evaluator.pieceValue(move.getPromotionPiece());
+        }
+        return score;
+    }
+
+    private ChessPiece makeMove(ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            piece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
+        }
+        hash ^= keyChange(move, board.getPiece(move.getStartPosition()), piece, captured);
+        board.addPiece(move.getEndPosition(), piece);
+        board.addPiece(move.getStartPosition(), null);
+        sideToMove = opponent(sideToMove);
+        work.setTeamTurn(sideToMove);
+        return captured;
+    }
+
+    private void unmakeMove(ChessMove move, ChessPiece captured) {
+        ChessPiece placed = board.getPiece(move.getEndPosition());
+        ChessPiece piece = placed;
+        if (move.getPromotionPiece() != null) {
+            piece = new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        hash ^= keyChange(move, piece, placed, captured);
+        board.addPiece(move.getStartPosition(), piece);
+        board.addPiece(move.getEndPosition(), captured);
+        sideToMove = opponent(sideToMove);
+        work.setTeamTurn(sideToMove);
+    }
+
+    /**
+     * @return the Zobrist key difference between the positions before and after the move
+     */
+    private static long keyChange(ChessMove move, ChessPiece moved, ChessPiece placed, ChessPiece captured) {
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        long change = Zobrist.sideKey()
+                ^ Zobrist.pieceKey(moved, from.getRow(), from.getColumn())
+                ^ Zobrist.pieceKey(placed, to.getRow(), to.getColumn());
+        if (captured != null) {
+            change ^= Zobrist.pieceKey(captured, to.getRow(), to.getColumn());
+        }
+        return change;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
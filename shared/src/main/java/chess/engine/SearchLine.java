@@ -0,0 +1,14 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * One line of a multi-PV search.
+ *
+ * @param moves the root move followed by the expected continuation
+ * @param score score of the root move in centipawns for the side to move
+ */
+public record SearchLine(List<ChessMove> moves, int score) {
+}
@@ -0,0 +1,75 @@
+package chess.engine;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals over many searches, e.g. every analysis a server has run.
+ * Searches given this object with {@link Search#setMetrics} add their
+ * {@link SearchStats} when they finish; recording never blocks.
+ */
+public class SearchMetrics {
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder qnodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder ttProbes = new LongAdder();
+    private final LongAdder ttHits = new LongAdder();
+    private final LongAdder ttCollisions = new LongAdder();
+    private final LongAdder cutoffs = new LongAdder();
+    private final LongAdder firstMoveCutoffs = new LongAdder();
+    private final LongAdder depth = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(SearchStats stats) {
+        searches.increment();
+        nodes.add(stats.nodes());
+        qnodes.add(stats.qnodes());
+        searchNanos.add(stats.elapsedNanos());
+        ttProbes.add(stats.ttProbes());
+        ttHits.add(stats.ttHits());
+        ttCollisions.add(stats.ttCollisions());
+        cutoffs.add(stats.cutoffs());
+        firstMoveCutoffs.add(stats.firstMoveCutoffs());
+        depth.add(stats.iterationNodes().length);
+        maxNanos.accumulate(stats.elapsedNanos());
+    }
+
+    /**
+     * @return the totals so far, in a form that serializes straight to JSON
+     */
+    public Totals totals() {
+        long count = searches.sum();
+        long visited = nodes.sum() + qnodes.sum();
+        long nanos = searchNanos.sum();
+        long probes = ttProbes.sum();
+        long cuts = cutoffs.sum();
+        return new Totals(count, nodes.sum(), qnodes.sum(),
+                nanos == 0 ? 0 : visited * 1_000_000_000.0 / nanos,
+                probes == 0 ? 0 : (double) ttHits.sum() / probes,
+                probes == 0 ? 0 : (double) ttCollisions.sum() / probes,
+                cuts == 0 ? 0 : (double) firstMoveCutoffs.sum() / cuts,
+                count == 0 ? 0 : (double) depth.sum() / count,
+                count == 0 ? 0 : nanos / 1e6 / count,
+                maxNanos.get() / 1e6);
+    }
+
+    /**
+     * Aggregated search metrics.
+     *
+     * @param searches            searches recorded
+     * @param nodes               main search nodes
+     * @param qnodes              quiescence nodes
+     * @param nodesPerSecond      nodes per second of search time
+     * @param ttHitRate           fraction of table probes that hit
+     * @param ttCollisionRate     fraction of table probes that found another position
+     * @param firstMoveCutoffRate fraction of cutoffs made by the first move
+     * @param averageDepth        mean completed depth
+     * @param averageMillis       mean search time
+     * @param maxMillis           longest search time
+     */
+    public record Totals(long searches, long nodes, long qnodes, double nodesPerSecond, double ttHitRate,
+                         double ttCollisionRate, double firstMoveCutoffRate, double averageDepth,
+                         double averageMillis, double maxMillis) {
+    }
+}
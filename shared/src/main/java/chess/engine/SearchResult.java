@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * Outcome of a search.
+ *
+ * @param bestMove the move the search settled on, or null if the side to move has no moves
+ * @param score    score of the best move in centipawns for the side to move
+ * @param depth    deepest fully completed iteration
+ * @param nodes    nodes visited by the main search
+ * @param qnodes   nodes visited by the quiescence search
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long qnodes) {
+}
@@ -0,0 +1,53 @@
+package chess.engine;
+
+/**
+ * Counters from one call to {@link Search#search}, for tuning how much CPU each
+ * search is given.
+ *
+ * @param nodes            nodes visited by the main search
+ * @param qnodes           nodes visited by the quiescence search
+ * @param elapsedNanos     wall-clock time of the search
+ * @param ttProbes         transposition table lookups
+ * @param ttHits           lookups that found the position
+ * @param ttCollisions     lookups whose slot held a different position
+ * @param cutoffs          beta cutoffs in the main search
+ * @param firstMoveCutoffs beta cutoffs caused by the first move searched
+ * @param iterationNodes   main plus quiescence nodes used by each completed iteration
+ * @param iterationNanos   time taken by each completed iteration
+ */
+public record SearchStats(long nodes, long qnodes, long elapsedNanos, long ttProbes, long ttHits,
+                          long ttCollisions, long cutoffs, long firstMoveCutoffs,
+                          long[] iterationNodes, long[] iterationNanos) {
+
+    public long totalNodes() {
+        return nodes + qnodes;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalNodes() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double ttHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    public double ttCollisionRate() {
+        return ttProbes == 0 ? 0 : (double) ttCollisions / ttProbes;
+    }
+
+    /**
+     * @return the fraction of cutoffs found on the first move, a measure of move ordering
+     */
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * @return the ratio of nodes in the last completed iteration to the one
+     * before it, or 0 if fewer than two iterations completed
+     */
+    public double branchingFactor() {
+        int n = iterationNodes.length;
+        return n < 2 || iterationNodes[n - 2] == 0 ? 0 : (double) iterationNodes[n - 1] / iterationNodes[n - 2];
+    }
+}
@@ -0,0 +1,180 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import static chess.ChessUtils.isValidPosition;
+
+/**
+ * Static exchange evaluation (SEE). Works out the material result of the
+ * sequence of captures on a single square, each side always recapturing with
+ * its least valuable attacker, without making any moves on the board.
+ */
+public class StaticExchange {
+    private static final int[][] KNIGHT_OFFSETS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_OFFSETS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] DIAGONALS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] ORTHOGONALS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    // Longest possible exchange is every piece on the board taking in turn
+    private static final int MAX_EXCHANGE = 32;
+
+    /**
+     * Evaluates the exchange started by the given move.
+     *
+     * @param board the current board, left unchanged
+     * @param move  the (capturing) move that starts the exchange
+     * @return the expected material gain in centipawns for the side making the move
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        ChessPosition target = move.getEndPosition();
+        ChessPiece mover = board.getPiece(move.getStartPosition());
+        ChessPiece victim = board.getPiece(target);
+
+        int[] gain = new int[MAX_EXCHANGE];
+        boolean[][] removed = new boolean[8][8];
+
+        gain[0] = victim == null ? 0 : Evaluator.pieceValue(victim.getPieceType());
+        int onSquare = Evaluator.pieceValue(mover.getPieceType());
+        if (move.getPromotionPiece() != null) {
+            int promoted = Evaluator.pieceValue(move.getPromotionPiece());
+            gain[0] += promoted - Evaluator.PAWN_VALUE;
+            onSquare = promoted;
+        }
+        removed[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = true;
+
+        ChessGame.TeamColor side = opponent(mover.getTeamColor());
+        int depth = 0;
+        while (depth + 1 < MAX_EXCHANGE) {
+            ChessPosition attacker = leastValuableAttacker(board, target, side, removed);
+            if (attacker == null) {
+                break;
+            }
+            depth++;
+            // Speculative score if the piece on the square is taken and not recaptured
+            gain[depth] = onSquare - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                // Neither side can improve on standing pat here
+                break;
+            }
+            onSquare = Evaluator.pieceValue(board.getPiece(attacker).getPieceType());
+            removed[attacker.getRow() - 1][attacker.getColumn() - 1] = true;
+            side = opponent(side);
+        }
+
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return true if the move is expected to lose material
+     */
+    public static boolean isLosing(ChessBoard board, ChessMove move) {
+        return evaluate(board, move) < 0;
+    }
+
+    /**
+     * Finds the cheapest piece of the given team attacking the target square,
+     * looking through any pieces that have already been used in the exchange.
+     */
+    private static ChessPosition leastValuableAttacker(ChessBoard board, ChessPosition target,
+                                                       ChessGame.TeamColor side, boolean[][] removed) {
+        ChessPosition best = null;
+        int bestValue = Integer.MAX_VALUE;
+        int row = target.getRow();
+        int col = target.getColumn();
+
+        // A pawn attacks the target from one rank behind it, relative to its own direction
+        int pawnRow = side == ChessGame.TeamColor.WHITE ? row - 1 : row + 1;
+        for (int dc = -1; dc <= 1; dc += 2) {
+            ChessPosition from = pieceAt(board, pawnRow, col + dc, side, ChessPiece.PieceType.PAWN, removed);
+            if (from != null) {
+                return from;
+            }
+        }
+
+        for (int[] offset : KNIGHT_OFFSETS) {
+            ChessPosition from = pieceAt(board, row + offset[0], col + offset[1], side, ChessPiece.PieceType.KNIGHT, removed);
+            if (from != null) {
+                return from;
+            }
+        }
+
+        for (int[] direction : DIAGONALS) {
+            ChessPosition from = firstOnRay(board, row, col, direction, removed);
+            if (from != null) {
+                ChessPiece piece = board.getPiece(from);
+                ChessPiece.PieceType type = piece.getPieceType();
+                if (piece.getTeamColor() == side && (type == ChessPiece.PieceType.BISHOP || type == ChessPiece.PieceType.QUEEN)
+                        && Evaluator.pieceValue(type) < bestValue) {
+                    best = from;
+                    bestValue = Evaluator.pieceValue(type);
+                }
+            }
+        }
+
+        for (int[] direction : ORTHOGONALS) {
+            ChessPosition from = firstOnRay(board, row, col, direction, removed);
+            if (from != null) {
+                ChessPiece piece = board.getPiece(from);
+                ChessPiece.PieceType type = piece.getPieceType();
+                if (piece.getTeamColor() == side && (type == ChessPiece.PieceType.ROOK || type == ChessPiece.PieceType.QUEEN)
+                        && Evaluator.pieceValue(type) < bestValue) {
+                    best = from;
+                    bestValue = Evaluator.pieceValue(type);
+                }
+            }
+        }
+
+        if (best != null) {
+            return best;
+        }
+
+        for (int[] offset : KING_OFFSETS) {
+            ChessPosition from = pieceAt(board, row + offset[0], col + offset[1], side, ChessPiece.PieceType.KING, removed);
+            if (from != null) {
+                return from;
+            }
+        }
+        return null;
+    }
+
+    private static ChessPosition pieceAt(ChessBoard board, int row, int col, ChessGame.TeamColor side,
+                                         ChessPiece.PieceType type, boolean[][] removed) {
+        if (!isValidPosition(row, col) || removed[row - 1][col - 1]) {
+            return null;
+        }
+        ChessPosition position = new ChessPosition(row, col);
+        ChessPiece piece = board.getPiece(position);
+        if (piece != null && piece.getTeamColor() == side && piece.getPieceType() == type) {
+            return position;
+        }
+        return null;
+    }
+
+    private static ChessPosition firstOnRay(ChessBoard board, int row, int col, int[] direction, boolean[][] removed) {
+        int r = row + direction[0];
+        int c = col + direction[1];
+        while (isValidPosition(r, c)) {
+            if (!removed[r - 1][c - 1]) {
+                ChessPosition position = new ChessPosition(r, c);
+                if (board.getPiece(position) != null) {
+                    return position;
+                }
+            }
+            r += direction[0];
+            c += direction[1];
+        }
+        return null;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,252 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An endgame table for one material signature such as "KQK" or "KBNK", giving
+ * the win/draw/loss result and distance to mate for every position, read from a
+ * memory-mapped file written by {@link TablebaseGenerator}.
+ * <p>
+ * The signature lists white's pieces then black's, each starting with the king,
+ * e.g. "KPK" is king and pawn against a lone king. Positions where the colours
+ * are the other way round are probed by mirroring the board.
+ * <p>
+ * File layout: a 4-byte magic, a 4-byte piece count, {@value #MAX_PIECES} piece
+ * codes (one byte each, padded), then one value byte per position index.
+ */
+public class Tablebase {
+    public static final int MAGIC = 0x43544231; // "CTB1"
+    public static final int MAX_PIECES = 8;
+    public static final int HEADER_SIZE = 8 + MAX_PIECES;
+
+    /**
+     * Returned by {@link #probe} for positions the table does not cover.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    // Value byte encoding: 0 draw, 1-127 side to move mates in n plies,
+    // 128-254 side to move is mated in (n - 128) plies, 255 illegal position
+    static final int DRAW = 0;
+    static final int LOSS_BASE = 128;
+    static final int ILLEGAL = 255;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final MappedByteBuffer buffer;
+    private final ChessPiece[] pieces;
+    private final String signature;
+
+    private Tablebase(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tablebase file");
+        }
+        int count = buffer.getInt(4);
+        if (count < 2 || count > MAX_PIECES) {
+            throw new IOException("Bad piece count in tablebase file: " + count);
+        }
+        pieces = new ChessPiece[count];
+        for (int i = 0; i < count; i++) {
+            pieces[i] = decodePiece(buffer.get(8 + i));
+        }
+        signature = signature(pieces);
+        if (HEADER_SIZE + size(count) > buffer.capacity()) {
+            throw new IOException("Truncated tablebase file");
+        }
+    }
+
+    /**
+     * Memory-maps a table file.
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Tablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public String signature() {
+        return signature;
+    }
+
+    /**
+     * Probes a position.
+     *
+     * @param board      the position, which must hold exactly this table's material
+     *                   in either colour orientation
+     * @param sideToMove the side to move
+     * @return a {@link Search}-style score for the side to move: {@code MATE_SCORE - n}
+     * when it mates in n plies, {@code -(MATE_SCORE - n)} when it is mated in n plies,
+     * 0 for a draw, or {@link #UNKNOWN} if the material does not match
+     */
+    public int probe(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        String material = signature(board);
+        boolean mirrored;
+        if (signature.equals(material)) {
+            mirrored = false;
+        } else if (signature.equals(mirror(material))) {
+            mirrored = true;
+        } else {
+            return UNKNOWN;
+        }
+        long index = index(board, sideToMove, mirrored);
+        return index < 0 ? UNKNOWN : toScore(buffer.get(HEADER_SIZE + (int) index) & 0xFF);
+    }
+
+    /**
+     * Converts a stored value byte to a search score.
+     */
+    static int toScore(int value) {
+        if (value == DRAW || value == ILLEGAL) {
+            return value == DRAW ? 0 : UNKNOWN;
+        }
+        if (value < LOSS_BASE) {
+            return Search.MATE_SCORE - value;
+        }
+        return -(Search.MATE_SCORE - (value - LOSS_BASE));
+    }
+
+    private long index(ChessBoard board, ChessGame.TeamColor sideToMove, boolean mirrored) {
+        int[] squares = new int[pieces.length];
+        boolean[] used = new boolean[64];
+        for (int i = 0; i < pieces.length; i++) {
+            ChessPiece wanted = pieces[i];
+            int found = -1;
+            for (int square = 0; square < 64 && found < 0; square++) {
+                if (used[square]) {
+                    continue;
+                }
+                int row = square / 8 + 1;
+                int col = square % 8 + 1;
+                ChessPiece piece = board.getPiece(new ChessPosition(mirrored ? 9 - row : row, col));
+                if (piece != null && piece.getPieceType() == wanted.getPieceType()
+                        && (piece.getTeamColor() == wanted.getTeamColor()) != mirrored) {
+                    found = square;
+                }
+            }
+            if (found < 0) {
+                return -1;
+            }
+            used[found] = true;
+            squares[i] = found;
+        }
+        boolean whiteToMove = (sideToMove == ChessGame.TeamColor.WHITE) != mirrored;
+        return index(squares, whiteToMove);
+    }
+
+    /**
+     * Position index: side to move, then one square (0-63) per piece in signature order.
+     */
+    static long index(int[] squares, boolean whiteToMove) {
+        long index = whiteToMove ? 0 : 1;
+        for (int square : squares) {
+            index = index * 64 + square;
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of position indexes for a table with this many pieces
+     */
+    static long size(int pieceCount) {
+        return 2L << (6 * pieceCount);
+    }
+
+    /**
+     * Parses a signature like "KBNK" into its pieces, white's first.
+     */
+    static ChessPiece[] parseSignature(String signature) {
+        int split = signature.indexOf('K', 1);
+        if (!signature.startsWith("K") || split < 0) {
+            throw new IllegalArgumentException("Signature must look like KxxK[yy]: " + signature);
+        }
+        ChessPiece[] pieces = new ChessPiece[signature.length()];
+        for (int i = 0; i < signature.length(); i++) {
+            ChessGame.TeamColor color = i < split ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            pieces[i] = new ChessPiece(color, pieceType(signature.charAt(i)));
+        }
+        return pieces;
+    }
+
+    /**
+     * Canonical signature of the material on a board: white's pieces then
+     * black's, each in {@link ChessPiece.PieceType} order starting with the king.
+     */
+    static String signature(ChessBoard board) {
+        int[][] counts = new int[2][TYPES.length];
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    counts[piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : 1][piece.getPieceType().ordinal()]++;
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int[] side : counts) {
+            for (ChessPiece.PieceType type : TYPES) {
+                sb.append(String.valueOf(letter(type)).repeat(side[type.ordinal()]));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String signature(ChessPiece[] pieces) {
+        ChessBoard board = new ChessBoard();
+        // Lay the pieces out on distinct squares just to reuse the board-based ordering
+        for (int i = 0; i < pieces.length; i++) {
+            board.addPiece(new ChessPosition(i / 8 + 1, i % 8 + 1), pieces[i]);
+        }
+        return signature(board);
+    }
+
+    /**
+     * @return the signature with the colours swapped, e.g. "KQK" becomes "KKQ"
+     */
+    static String mirror(String signature) {
+        int split = signature.indexOf('K', 1);
+        return split < 0 ? signature : signature.substring(split) + signature.substring(0, split);
+    }
+
+    static byte encodePiece(ChessPiece piece) {
+        return (byte) (piece.getPieceType().ordinal() + (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : 8));
+    }
+
+    static ChessPiece decodePiece(byte code) {
+        ChessGame.TeamColor color = (code & 8) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        return new ChessPiece(color, TYPES[code & 7]);
+    }
+
+    private static char letter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'P' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Not a piece letter: " + c);
+        };
+    }
+}
@@ -0,0 +1,492 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Builds an endgame table by retrograde analysis.
+ * <p>
+ * Every position is first scored with the game's own move generator: mates and
+ * stalemates are resolved immediately and everything else records how many legal
+ * moves stay inside the table. Then, one ply at a time, the positions resolved at
+ * the previous ply are un-moved: predecessors of a lost position are wins, and a
+ * predecessor of a won position whose last remaining move has just been shown to
+ * lose becomes a loss. Whatever is left at the end is a draw. Each ply's frontier
+ * is split across the common fork-join pool.
+ * <p>
+ * The losing side resists as long as it can, so a lost position is not resolved
+ * before its slowest losing move out of the table: one whose moves all leave the
+ * table into losses is queued at the longest of them, and one that runs out of
+ * moves in the table before then waits until that ply.
+ * <p>
+ * Moves that leave the table (captures and promotions) are scored with the
+ * dependency tables passed in, or as draws when the remaining material cannot
+ * mate. Generate "KQK" and "KRK" before "KPK" and pass them as dependencies.
+ * <p>
+ * Usage: {@code TablebaseGenerator <outDir> <signature>...}, e.g.
+ * {@code TablebaseGenerator tb KQK KRK KPK KBNK}
+ */
+public class TablebaseGenerator {
+    private static final int MAX_GENERATED_PIECES = 4;
+    private static final int CHUNK = 4096;
+    private static final int RESOLVED = -1;
+
+    private final ChessPiece[] pieces;
+    private final Map<String, Tablebase> dependencies;
+    private final int pieceCount;
+    private final int positions;
+
+    private byte[] values;
+    private AtomicIntegerArray remaining;
+    // Plies to be mated through the slowest move leaving the table, or 0
+    private byte[] longestExternalLoss;
+    private final ThreadLocal<ChessGame> workers = ThreadLocal.withInitial(() -> {
+        ChessGame game = new ChessGame();
+        game.setBoard(new ChessBoard());
+        return game;
+    });
+
+    /**
+     * @param signature    the material to generate, e.g. "KQK"
+     * @param dependencies tables for the material reachable by captures and
+     *                     promotions, keyed by signature
+     */
+    public TablebaseGenerator(String signature, Map<String, Tablebase> dependencies) {
+        this.pieces = Tablebase.parseSignature(signature);
+        if (pieces.length > MAX_GENERATED_PIECES) {
+            throw new IllegalArgumentException("At most " + MAX_GENERATED_PIECES + " pieces are supported");
+        }
+        this.dependencies = dependencies;
+        this.pieceCount = pieces.length;
+        this.positions = (int) Tablebase.size(pieceCount);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <outDir> <signature>...");
+            System.exit(1);
+        }
+        Path outDir = Path.of(args[0]);
+        Files.createDirectories(outDir);
+        Map<String, Tablebase> generated = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            TablebaseGenerator generator = new TablebaseGenerator(args[i], generated);
+            Path file = outDir.resolve(args[i] + ".tb");
+            generator.generate(file);
+            Tablebase table = Tablebase.open(file);
+            generated.put(table.signature(), table);
+            System.out.printf("%s: %d positions in %.1fs%n", args[i], generator.positions,
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * Generates the table and writes it to a file.
+     */
+    public void generate(Path file) throws IOException {
+        values = new byte[positions];
+        remaining = new AtomicIntegerArray(positions);
+        longestExternalLoss = new byte[positions];
+
+        // Level 0 holds the mated positions; external wins are queued at their own
+        // ply, as are losses held back to their slowest move out of the table
+        Map<Integer, IntList> pending = new HashMap<>();
+        Map<Integer, IntList> losses = new HashMap<>();
+        List<InitChunk> chunks = IntStream.range(0, (positions + CHUNK - 1) / CHUNK).parallel()
+                .mapToObj(this::initialize)
+                .toList();
+        for (InitChunk chunk : chunks) {
+            merge(chunk.pending, pending);
+            merge(chunk.losses, losses);
+        }
+
+        // The last ply stored as a loss must stay below ILLEGAL
+        IntList frontier = pending.getOrDefault(0, new IntList());
+        for (int ply = 0; ply < Tablebase.LOSS_BASE - 2
+                && (!frontier.isEmpty() || hasPendingAfter(pending, ply) || hasPendingAfter(losses, ply)); ply++) {
+            final int level = ply;
+            final int[] current = frontier.toArray();
+            List<RetractChunk> next = IntStream.range(0, (current.length + CHUNK - 1) / CHUNK).parallel()
+                    .mapToObj(chunk -> retract(current, chunk, level))
+                    .toList();
+            frontier = new IntList();
+            for (RetractChunk chunk : next) {
+                frontier.addAll(chunk.next);
+                merge(chunk.losses, losses);
+            }
+            IntList held = losses.remove(level + 1);
+            if (held != null) {
+                // Already claimed when they were held back
+                for (int i = 0; i < held.size; i++) {
+                    values[held.items[i]] = (byte) (Tablebase.LOSS_BASE + level + 1);
+                }
+                frontier.addAll(held);
+            }
+            IntList external = pending.get(level + 1);
+            if (external != null) {
+                for (int i = 0; i < external.size; i++) {
+                    int index = external.items[i];
+                    if (claim(index)) {
+                        values[index] = (byte) (level + 1);
+                        frontier.add(index);
+                    }
+                }
+            }
+        }
+
+        write(file);
+    }
+
+    private boolean hasPendingAfter(Map<Integer, IntList> pending, int ply) {
+        return pending.keySet().stream().anyMatch(p -> p > ply);
+    }
+
+    private static void merge(Map<Integer, IntList> from, Map<Integer, IntList> into) {
+        from.forEach((ply, list) -> into.computeIfAbsent(ply, k -> new IntList()).addAll(list));
+    }
+
+    /**
+     * Scores every position in one chunk of the index space with the move generator.
+     */
+    private InitChunk initialize(int chunk) {
+        InitChunk result = new InitChunk();
+        ChessGame game = workers.get();
+        ChessBoard board = game.getBoard();
+        int[] squares = new int[pieceCount];
+        int end = Math.min(positions, (chunk + 1) * CHUNK);
+        for (int index = chunk * CHUNK; index < end; index++) {
+            ChessGame.TeamColor toMove = decode(index, squares);
+            if (!place(board, squares)) {
+                values[index] = (byte) Tablebase.ILLEGAL;
+                remaining.set(index, RESOLVED);
+                continue;
+            }
+            if (game.isInCheck(opponent(toMove))) {
+                values[index] = (byte) Tablebase.ILLEGAL;
+                remaining.set(index, RESOLVED);
+                clear(board, squares);
+                continue;
+            }
+
+            int inTable = 0;
+            int legal = 0;
+            boolean escape = false;
+            int bestExternalWin = Integer.MAX_VALUE;
+            int longestLoss = 0;
+            for (int i = 0; i < pieceCount; i++) {
+                if (pieces[i].getTeamColor() != toMove) {
+                    continue;
+                }
+                Collection<ChessMove> moves = game.validMoves(position(squares[i]));
+                if (moves == null) {
+                    continue;
+                }
+                for (ChessMove move : moves) {
+                    legal++;
+                    boolean capture = board.getPiece(move.getEndPosition()) != null;
+                    if (!capture && move.getPromotionPiece() == null) {
+                        inTable++;
+                        continue;
+                    }
+                    int score = externalScore(board, move, toMove);
+                    if (score > 0) {
+                        // The opponent wins after this move, like an in-table move already counted down
+                        longestLoss = Math.max(longestLoss, Search.MATE_SCORE - score + 1);
+                        continue;
+                    }
+                    if (score < 0) {
+                        bestExternalWin = Math.min(bestExternalWin, Search.MATE_SCORE + score + 1);
+                    } else {
+                        escape = true;
+                    }
+                }
+            }
+            boolean inCheck = legal == 0 && game.isInCheck(toMove);
+            clear(board, squares);
+
+            if (legal == 0) {
+                values[index] = inCheck ? (byte) Tablebase.LOSS_BASE : (byte) Tablebase.DRAW;
+                remaining.set(index, RESOLVED);
+                if (values[index] != Tablebase.DRAW) {
+                    result.pending.computeIfAbsent(0, k -> new IntList()).add(index);
+                }
+                continue;
+            }
+            boolean canAvoidLoss = escape || bestExternalWin != Integer.MAX_VALUE;
+            if (!canAvoidLoss && inTable == 0) {
+                // Every move leaves the table into a loss; held back to the slowest one
+                remaining.set(index, RESOLVED);
+                if (longestLoss < Tablebase.LOSS_BASE) {
+                    result.losses.computeIfAbsent(longestLoss, k -> new IntList()).add(index);
+                }
+                continue;
+            }
+            // A drawing escape means the position can never be lost
+            remaining.set(index, canAvoidLoss ? inTable + 1 : inTable);
+            if (bestExternalWin != Integer.MAX_VALUE) {
+                result.pending.computeIfAbsent(bestExternalWin, k -> new IntList()).add(index);
+            }
+            if (!canAvoidLoss) {
+                // Beyond what a loss can be stored as, it is left as a draw
+                longestExternalLoss[index] = (byte) (longestLoss < Tablebase.LOSS_BASE ? longestLoss : Tablebase.ILLEGAL);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Score of the position after a capture or promotion, from the opponent's point of view.
+     */
+    private int externalScore(ChessBoard board, ChessMove move, ChessGame.TeamColor toMove) {
+        ChessBoard after = new ChessBoard(board);
+        ChessPiece piece = after.getPiece(move.getStartPosition());
+        if (move.getPromotionPiece() != null) {
+            piece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
+        }
+        after.addPiece(move.getEndPosition(), piece);
+        after.addPiece(move.getStartPosition(), null);
+
+        String material = Tablebase.signature(after);
+        Tablebase table = dependencies.get(material);
+        if (table == null) {
+            table = dependencies.get(Tablebase.mirror(material));
+        }
+        if (table != null) {
+            int score = table.probe(after, opponent(toMove));
+            return score == Tablebase.UNKNOWN ? 0 : score;
+        }
+        return 0;
+    }
+
+    /**
+     * Un-moves every position in one chunk of the frontier, returning the
+     * predecessors resolved at the next ply and the losses held back until later.
+     */
+    private RetractChunk retract(int[] frontier, int chunk, int ply) {
+        RetractChunk result = new RetractChunk();
+        ChessGame game = workers.get();
+        ChessBoard board = game.getBoard();
+        int[] squares = new int[pieceCount];
+        int[] previous = new int[pieceCount];
+        int end = Math.min(frontier.length, (chunk + 1) * CHUNK);
+        for (int f = chunk * CHUNK; f < end; f++) {
+            int index = frontier[f];
+            boolean lost = (values[index] & 0xFF) >= Tablebase.LOSS_BASE;
+            ChessGame.TeamColor toMove = decode(index, squares);
+            ChessGame.TeamColor mover = opponent(toMove);
+            place(board, squares);
+
+            for (int i = 0; i < pieceCount; i++) {
+                if (pieces[i].getTeamColor() != mover) {
+                    continue;
+                }
+                for (int from : unmoves(board, squares[i], pieces[i])) {
+                    System.arraycopy(squares, 0, previous, 0, pieceCount);
+                    previous[i] = from;
+                    int predecessor = (int) Tablebase.index(previous, mover == ChessGame.TeamColor.WHITE);
+                    if (lost) {
+                        if (claim(predecessor)) {
+                            values[predecessor] = (byte) (ply + 1);
+                            result.next.add(predecessor);
+                        }
+                    } else if (countDown(predecessor)) {
+                        int slowest = longestExternalLoss[predecessor] & 0xFF;
+                        if (slowest == Tablebase.ILLEGAL) {
+                            // Mated too far off to store: stays a draw
+                            continue;
+                        }
+                        if (slowest > ply + 1) {
+                            result.losses.computeIfAbsent(slowest, k -> new IntList()).add(predecessor);
+                        } else {
+                            values[predecessor] = (byte) (Tablebase.LOSS_BASE + ply + 1);
+                            result.next.add(predecessor);
+                        }
+                    }
+                }
+            }
+            clear(board, squares);
+        }
+        return result;
+    }
+
+    /**
+     * Squares the piece could have come from on its last move. Non-pawn moves are
+     * symmetric, so these are the empty squares it can move to now; pawns step back.
+     */
+    private List<Integer> unmoves(ChessBoard board, int square, ChessPiece piece) {
+        List<Integer> result = new ArrayList<>();
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            int direction = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? -1 : 1;
+            int row = square / 8 + 1;
+            int col = square % 8 + 1;
+            int startRow = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 2 : 7;
+            int oneBack = row + direction;
+            if (oneBack != 1 && oneBack != 8 && board.getPiece(new ChessPosition(oneBack, col)) == null) {
+                result.add(square + 8 * direction);
+                int twoBack = row + 2 * direction;
+                if (twoBack == startRow && board.getPiece(new ChessPosition(twoBack, col)) == null) {
+                    result.add(square + 16 * direction);
+                }
+            }
+            return result;
+        }
+        ChessPosition position = position(square);
+        for (ChessMove move : piece.pieceMoves(board, position)) {
+            if (board.getPiece(move.getEndPosition()) == null) {
+                ChessPosition end = move.getEndPosition();
+                result.add((end.getRow() - 1) * 8 + end.getColumn() - 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks an unresolved position as resolved.
+     *
+     * @return true if this call resolved it
+     */
+    private boolean claim(int index) {
+        while (true) {
+            int count = remaining.get(index);
+            if (count == RESOLVED) {
+                return false;
+            }
+            if (remaining.compareAndSet(index, count, RESOLVED)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records that one more move from the position is known to lose.
+     *
+     * @return true if that was its last move, making the position lost
+     */
+    private boolean countDown(int index) {
+        while (true) {
+            int count = remaining.get(index);
+            if (count == RESOLVED || count == 0) {
+                return false;
+            }
+            int next = count == 1 ? RESOLVED : count - 1;
+            if (remaining.compareAndSet(index, count, next)) {
+                return next == RESOLVED;
+            }
+        }
+    }
+
+    private ChessGame.TeamColor decode(int index, int[] squares) {
+        for (int i = pieceCount - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * Puts the pieces on the board.
+     *
+     * @return false (leaving the board empty) if the squares do not form a possible position
+     */
+    private boolean place(ChessBoard board, int[] squares) {
+        for (int i = 0; i < pieceCount; i++) {
+            int row = squares[i] / 8 + 1;
+            boolean pawnOnEdge = pieces[i].getPieceType() == ChessPiece.PieceType.PAWN && (row == 1 || row == 8);
+            if (pawnOnEdge || board.getPiece(position(squares[i])) != null) {
+                clear(board, Arrays.copyOf(squares, i));
+                return false;
+            }
+            board.addPiece(position(squares[i]), pieces[i]);
+        }
+        return true;
+    }
+
+    private void clear(ChessBoard board, int[] squares) {
+        for (int square : squares) {
+            board.addPiece(position(square), null);
+        }
+    }
+
+    private void write(Path file) throws IOException {
+        for (int index = 0; index < positions; index++) {
+            if (remaining.get(index) != RESOLVED) {
+                values[index] = (byte) Tablebase.DRAW;
+            }
+        }
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(pieceCount);
+            for (int i = 0; i < Tablebase.MAX_PIECES; i++) {
+                out.writeByte(i < pieceCount ? Tablebase.encodePiece(pieces[i]) : 0);
+            }
+            out.write(values);
+        }
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    private static class InitChunk {
+        final Map<Integer, IntList> pending = new HashMap<>();
+        final Map<Integer, IntList> losses = new HashMap<>();
+    }
+
+    private static class RetractChunk {
+        final IntList next = new IntList();
+        final Map<Integer, IntList> losses = new HashMap<>();
+    }
+
+    /**
+     * Growable list of primitive ints, to keep frontiers of millions of positions off the boxed heap.
+     */
+    private static class IntList {
+        int[] items = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.items[i]);
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of endgame tables, probed by the material on the board.
+ */
+public class Tablebases {
+    private final Map<String, Tablebase> tables = new HashMap<>();
+
+    /**
+     * Opens every {@code *.tb} file in a directory.
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.tb")) {
+            for (Path file : files) {
+                tablebases.add(Tablebase.open(file));
+            }
+        }
+        return tablebases;
+    }
+
+    public void add(Tablebase table) {
+        tables.put(table.signature(), table);
+    }
+
+    /**
+     * @return the score for the side to move as described in {@link Tablebase#probe},
+     * or {@link Tablebase#UNKNOWN} if no table covers the material on the board
+     */
+    public int probe(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        if (tables.isEmpty()) {
+            return Tablebase.UNKNOWN;
+        }
+        String material = Tablebase.signature(board);
+        Tablebase table = tables.get(material);
+        if (table == null) {
+            table = tables.get(Tablebase.mirror(material));
+        }
+        return table == null ? Tablebase.UNKNOWN : table.probe(board, sideToMove);
+    }
+}
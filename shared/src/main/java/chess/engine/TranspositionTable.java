@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by Zobrist hash, so positions
+ * reached by different move orders are only searched once.
+ * <p>
+ * Each slot holds the key and one packed data word: score in bits 0-31, packed
+ * best move in bits 32-47, depth in bits 48-55 and bound type in bits 56-57.
+ * The key is stored XORed with the data, so a slot torn by two threads writing
+ * at once simply fails to match rather than returning another position's data.
+ * A table can therefore be shared between searches on different threads.
+ */
+public class TranspositionTable {
+    /**
+     * Returned by {@link #probe} when the position is not in the table.
+     */
+    public static final long MISS = 0L;
+
+    static final int EXACT = 1;
+    static final int LOWER_BOUND = 2;
+    static final int UPPER_BOUND = 3;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * @param sizeBits log2 of the number of slots; each slot takes 16 bytes
+     */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 30) {
+            throw new IllegalArgumentException("Table size must be 2^1 to 2^30 slots: " + sizeBits);
+        }
+        keys = new long[1 << sizeBits];
+        data = new long[1 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return the packed entry for the position, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = data[slot];
+        return entry != MISS && (keys[slot] ^ entry) == key ? entry : MISS;
+    }
+
+    /**
+     * @return true if the position's slot is taken by a different position
+     */
+    public boolean isCollision(long key) {
+        int slot = (int) key & mask;
+        long entry = data[slot];
+        return entry != MISS && (keys[slot] ^ entry) != key;
+    }
+
+    /**
+     * Stores a result, replacing whatever is in the slot unless it is the same
+     * position searched to a greater depth.
+     */
+    public void store(long key, int score, int move, int depth, int bound) {
+        int slot = (int) key & mask;
+        long old = data[slot];
+        if (old != MISS && (keys[slot] ^ old) == key && depth(old) > depth) {
+            return;
+        }
+        long entry = (score & 0xFFFFFFFFL) | ((long) (move & 0xFFFF) << 32)
+                | ((long) (depth & 0xFF) << 48) | ((long) bound << 56);
+        data[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * @return the stored best move, or {@link PackedMove#NONE}
+     */
+    static int move(long entry) {
+        int move = (int) (entry >>> 32) & 0xFFFF;
+        return move == 0xFFFF ? PackedMove.NONE : move;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> 56) & 0x3;
+    }
+}
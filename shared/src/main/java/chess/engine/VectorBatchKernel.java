@@ -0,0 +1,41 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vectorized inner loop of {@link BatchEvaluator}. Kept in its own class so
+ * nothing touches {@code jdk.incubator.vector} unless the module is present.
+ */
+final class VectorBatchKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorBatchKernel() {
+    }
+
+    /**
+     * For each position, gathers its 64 table entries one square at a time
+     * across a full vector of positions and sums them.
+     */
+    static void sum(int[] table, int[] squares, int[] sign, int stride, int count, int[] scores) {
+        int lanes = SPECIES.length();
+        int position = 0;
+        for (; position + lanes <= count; position += lanes) {
+            IntVector score = IntVector.zero(SPECIES);
+            for (int square = 0; square < 64; square++) {
+                score = score.add(IntVector.fromArray(SPECIES, table, 0, squares, square * stride + position));
+            }
+            score.mul(IntVector.fromArray(SPECIES, sign, position)).intoArray(scores, position);
+        }
+        // The batch stride is padded, so a final partial vector can be computed
+        // in full and only the used lanes copied out
+        if (position < count) {
+            IntVector score = IntVector.zero(SPECIES);
+            for (int square = 0; square < 64; square++) {
+                score = score.add(IntVector.fromArray(SPECIES, table, 0, squares, square * stride + position));
+            }
+            int[] tail = score.mul(IntVector.fromArray(SPECIES, sign, position)).toArray();
+            System.arraycopy(tail, 0, scores, position, count - position);
+        }
+    }
+}
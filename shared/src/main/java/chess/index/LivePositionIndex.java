@@ -0,0 +1,182 @@
+package chess.index;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Zobrist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A position index that takes new positions as moves are made. Lookups combine
+ * an optional on-disk {@link PositionIndex} with the positions recorded since it
+ * was built, which are held in memory until the next {@link #compact}.
+ * Recording and lookups may happen from any thread.
+ * <p>
+ * Compacting writes a new file beside the old one and moves it into place, so
+ * an index file can be compacted onto itself while lookups still read it.
+ */
+public class LivePositionIndex {
+    private volatile PositionIndex base;
+    private final Map<Long, Queue<PositionHit>> recent = new ConcurrentHashMap<>();
+    // Bumped by clear(), so work started before it can tell; guarded by this
+    private long generation;
+
+    public LivePositionIndex() {
+        this(null);
+    }
+
+    /**
+     * @param base the index built so far, or null to start empty
+     */
+    public LivePositionIndex(PositionIndex base) {
+        this.base = base;
+    }
+
+    /**
+     * Records that a game reached a position.
+     */
+    public void record(long key, int gameId, int ply) {
+        PositionHit hit = new PositionHit(gameId, ply);
+        // compute() keeps this atomic with compact() dropping emptied queues
+        recent.compute(key, (k, hits) -> {
+            Queue<PositionHit> queue = hits == null ? new ConcurrentLinkedQueue<>() : hits;
+            queue.add(hit);
+            return queue;
+        });
+    }
+
+    /**
+     * Records the position a game is in after its latest move.
+     */
+    public void record(int gameId, ChessGame game) {
+        record(game.snapshot().zobristKey(), gameId, game.getMoveHistory().size());
+    }
+
+    /**
+     * Records every position of a game already in progress, e.g. when indexing
+     * stored games at startup.
+     */
+    public void recordGame(int gameId, List<ChessMove> moves) {
+        ChessGame replay = new ChessGame();
+        record(Zobrist.hash(replay), gameId, 0);
+        for (int ply = 0; ply < moves.size(); ply++) {
+            try {
+                replay.makeMove(moves.get(ply));
+            } catch (InvalidMoveException e) {
+                return;
+            }
+            record(Zobrist.hash(replay), gameId, ply + 1);
+        }
+    }
+
+    /**
+     * Lists where a position occurred: indexed games first, then recent ones.
+     */
+    public List<PositionHit> lookup(long key, int limit) {
+        PositionIndex index = base;
+        List<PositionHit> hits = index == null ? new ArrayList<>() : index.lookup(key, limit);
+        Queue<PositionHit> recentHits = recent.get(key);
+        if (recentHits != null) {
+            for (PositionHit hit : recentHits) {
+                if (hits.size() >= limit) {
+                    break;
+                }
+                hits.add(hit);
+            }
+        }
+        return hits;
+    }
+
+    public List<PositionHit> lookup(ChessGame game, int limit) {
+        return lookup(Zobrist.hash(game), limit);
+    }
+
+    /**
+     * Forgets every position, including the base index.
+     */
+    public synchronized void clear() {
+        base = null;
+        recent.clear();
+        generation++;
+    }
+
+    /**
+     * @return a number that changes whenever the index is cleared
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @return how many recorded positions are held in memory rather than on disk
+     */
+    public int recentSize() {
+        int size = 0;
+        for (Queue<PositionHit> hits : recent.values()) {
+            size += hits.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the base index plus everything recorded so far to a new index file
+     * and switches lookups over to it. Positions recorded while this runs are kept.
+     */
+    public synchronized void compact(Path path) throws IOException {
+        try (PositionIndexBuilder builder = new PositionIndexBuilder()) {
+            compact(path, builder, generation);
+        }
+    }
+
+    /**
+     * Like {@link #compact(Path)}, also adding whatever is in the builder, e.g.
+     * games indexed in bulk in the background. Entries already in the index are
+     * not duplicated.
+     *
+     * @param generation {@link #generation()} from before the builder was
+     *                   filled; if the index has been cleared since, nothing is
+     *                   written, as the builder may hold games that no longer exist
+     * @return false if the index was cleared in the meantime
+     */
+    public synchronized boolean compact(Path path, PositionIndexBuilder builder, long generation)
+            throws IOException {
+        if (generation != this.generation) {
+            return false;
+        }
+        PositionIndex index = base;
+        Map<Long, List<PositionHit>> merged = new HashMap<>();
+        if (index != null) {
+            for (long i = 0; i < index.size(); i++) {
+                builder.add(index.key(i), index.gameId(i), index.ply(i));
+            }
+        }
+        for (Map.Entry<Long, Queue<PositionHit>> entry : recent.entrySet()) {
+            List<PositionHit> hits = new ArrayList<>(entry.getValue());
+            merged.put(entry.getKey(), hits);
+            for (PositionHit hit : hits) {
+                builder.add(entry.getKey(), hit.gameId(), hit.ply());
+            }
+        }
+        Path written = path.resolveSibling(path.getFileName() + ".tmp");
+        builder.write(written);
+        Files.move(written, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        base = PositionIndex.open(path);
+        merged.forEach((key, hits) -> recent.computeIfPresent(key, (k, queue) -> {
+            queue.removeAll(hits);
+            return queue.isEmpty() ? null : queue;
+        }));
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package chess.index;
+
+/**
+ * One occurrence of a position in a game.
+ *
+ * @param gameId the game that reached the position
+ * @param ply    number of half-moves played before the position arose (0 is the start position)
+ */
+public record PositionHit(int gameId, int ply) {
+
+    static long pack(int gameId, int ply) {
+        return ((long) gameId << 32) | (ply & 0xFFFFFFFFL);
+    }
+
+    static PositionHit unpack(long packed) {
+        return new PositionHit((int) (packed >>> 32), (int) packed);
+    }
+}
@@ -0,0 +1,181 @@
+package chess.index;
+
+import chess.ChessGame;
+import chess.Zobrist;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of a position index file written by {@link PositionIndexBuilder},
+ * mapping the Zobrist key of every position reached in a set of games to the
+ * games and plies where it occurred.
+ * <p>
+ * The entries stay on disk, memory-mapped in segments so files larger than 2GB
+ * work. Only a sparse index holding every {@value #SPARSE_INTERVAL}th key is kept
+ * on the heap; a lookup binary searches it to find one block of entries, then
+ * binary searches that block in the mapped file, touching only a couple of pages.
+ * <p>
+ * File layout (big-endian): a 4-byte magic, 4 reserved bytes, an 8-byte entry
+ * count, then {@value #ENTRY_SIZE}-byte entries of {@code long key, int gameId,
+ * int ply}, sorted by key, then game, then ply.
+ */
+public class PositionIndex {
+    public static final int MAGIC = 0x43505831; // "CPX1"
+    public static final int HEADER_SIZE = 16;
+    public static final int ENTRY_SIZE = 16;
+    static final int SPARSE_INTERVAL = 256;
+
+    // Entries per mapped segment; a whole number of entries fits in each one
+    private static final long SEGMENT_ENTRIES = 1L << 26;
+
+    private final MappedByteBuffer[] segments;
+    private final long entries;
+    private final long[] sparseKeys;
+
+    private PositionIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Not a position index file");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.BIG_ENDIAN);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a position index file");
+        }
+        entries = header.getLong(8);
+        if (entries < 0 || HEADER_SIZE + entries * ENTRY_SIZE > size) {
+            throw new IOException("Truncated position index file");
+        }
+
+        int segmentCount = (int) ((entries + SEGMENT_ENTRIES - 1) / SEGMENT_ENTRIES);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = i * SEGMENT_ENTRIES;
+            long count = Math.min(SEGMENT_ENTRIES, entries - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ENTRY_SIZE, count * ENTRY_SIZE);
+            segments[i].order(ByteOrder.BIG_ENDIAN);
+        }
+
+        sparseKeys = new long[(int) ((entries + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL)];
+        for (int i = 0; i < sparseKeys.length; i++) {
+            sparseKeys[i] = key((long) i * SPARSE_INTERVAL);
+        }
+    }
+
+    /**
+     * Memory-maps an index file and loads its sparse index.
+     */
+    public static PositionIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new PositionIndex(channel);
+        }
+    }
+
+    /**
+     * @return the total number of (position, game, ply) entries
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * Finds the first entry for a position.
+     *
+     * @return the entry index, or -1 if no indexed game reached the position
+     */
+    public long find(long key) {
+        // Last sampled block starting below the key; the first match is in it or
+        // is the first entry of the next block
+        int low = 0;
+        int high = sparseKeys.length - 1;
+        int block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sparseKeys[mid] < key) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        long first = (long) block * SPARSE_INTERVAL;
+        long last = Math.min(first + SPARSE_INTERVAL, entries - 1);
+        while (first < last) {
+            long mid = (first + last) >>> 1;
+            if (key(mid) < key) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        return first < entries && key(first) == key ? first : -1;
+    }
+
+    /**
+     * @return the number of times the position occurs across all indexed games
+     */
+    public long count(long key) {
+        long first = find(key);
+        if (first < 0) {
+            return 0;
+        }
+        long index = first;
+        while (index < entries && key(index) == key) {
+            index++;
+        }
+        return index - first;
+    }
+
+    /**
+     * Lists where a position occurred, ordered by game then ply.
+     *
+     * @param limit the most hits to return
+     */
+    public List<PositionHit> lookup(long key, int limit) {
+        List<PositionHit> hits = new ArrayList<>();
+        long index = find(key);
+        if (index < 0) {
+            return hits;
+        }
+        while (index < entries && hits.size() < limit && key(index) == key) {
+            hits.add(new PositionHit(gameId(index), ply(index)));
+            index++;
+        }
+        return hits;
+    }
+
+    /**
+     * Convenience lookup for the current position of a game.
+     */
+    public List<PositionHit> lookup(ChessGame game, int limit) {
+        return lookup(Zobrist.hash(game), limit);
+    }
+
+    public long key(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    public int gameId(long index) {
+        return segment(index).getInt(offset(index) + 8);
+    }
+
+    public int ply(long index) {
+        return segment(index).getInt(offset(index) + 12);
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index / SEGMENT_ENTRIES)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % SEGMENT_ENTRIES) * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,302 @@
+package chess.index;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Zobrist;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Builds a {@link PositionIndex} file. Entries are collected in a fixed-size
+ * in-memory run; when it fills up it is sorted and spilled to a temporary file,
+ * and {@link #write} merges all the runs into the final sorted index. Memory use
+ * is therefore bounded however many games are added.
+ * <p>
+ * Usage: {@code PositionIndexBuilder <out.idx> <games.pgn>...}, numbering the
+ * PGN games from 1 in the order read.
+ */
+public class PositionIndexBuilder implements Closeable {
+    private static final int DEFAULT_RUN_SIZE = 1 << 22;
+
+    private final long[] keys;
+    private final long[] values;
+    private int buffered;
+    private final List<Path> runs = new ArrayList<>();
+    private final ChessGame game = new ChessGame();
+
+    public PositionIndexBuilder() {
+        this(DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param runSize how many entries to hold in memory before spilling a sorted run to disk
+     */
+    public PositionIndexBuilder(int runSize) {
+        this.keys = new long[runSize];
+        this.values = new long[runSize];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PositionIndexBuilder <out.idx> <games.pgn>...");
+            System.exit(1);
+        }
+        try (PositionIndexBuilder builder = new PositionIndexBuilder()) {
+            int nextGameId = 1;
+            for (int i = 1; i < args.length; i++) {
+                try (Reader reader = Files.newBufferedReader(Path.of(args[i]))) {
+                    nextGameId = builder.addGames(reader, nextGameId);
+                }
+            }
+            long entries = builder.write(Path.of(args[0]));
+            System.out.println("Indexed " + (nextGameId - 1) + " games, wrote " + entries + " entries");
+        }
+    }
+
+    public void add(long key, int gameId, int ply) throws IOException {
+        if (buffered == keys.length) {
+            spill();
+        }
+        keys[buffered] = key;
+        values[buffered] = PositionHit.pack(gameId, ply);
+        buffered++;
+    }
+
+    /**
+     * Indexes every position of a game from the start, stopping at the first move
+     * that cannot be played.
+     */
+    public void addGame(int gameId, List<ChessMove> moves) throws IOException {
+        game.reset();
+        add(Zobrist.hash(game), gameId, 0);
+        for (int ply = 0; ply < moves.size(); ply++) {
+            try {
+                game.makeMove(moves.get(ply));
+            } catch (InvalidMoveException e) {
+                return;
+            }
+            add(Zobrist.hash(game), gameId, ply + 1);
+        }
+    }
+
+    /**
+     * Indexes every game in a PGN stream.
+     *
+     * @param firstGameId the ID given to the first game, later games counting up from it
+     * @return the ID to give the next game
+     */
+    public int addGames(Reader pgn, int firstGameId) throws IOException {
+        PgnReader reader = new PgnReader(pgn);
+        int gameId = firstGameId;
+        PgnGame pgnGame;
+        while ((pgnGame = reader.next()) != null) {
+            game.reset();
+            add(Zobrist.hash(game), gameId, 0);
+            List<String> moves = pgnGame.moves();
+            for (int ply = 0; ply < moves.size(); ply++) {
+                ChessMove move = San.parse(game, moves.get(ply));
+                if (move == null) {
+                    break;
+                }
+                try {
+                    game.makeMove(move);
+                } catch (InvalidMoveException e) {
+                    break;
+                }
+                add(Zobrist.hash(game), gameId, ply + 1);
+            }
+            gameId++;
+        }
+        return gameId;
+    }
+
+    /**
+     * Merges everything added so far into a sorted index file. An entry added
+     * more than once is written once.
+     *
+     * @return the number of entries written
+     */
+    public long write(Path path) throws IOException {
+        sortBuffer();
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(RunReader::compareTo);
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            int next = 0;
+            long written = 0;
+            long lastKey = 0;
+            long lastValue = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+                out.writeInt(PositionIndex.MAGIC);
+                out.writeInt(0);
+                out.writeLong(0);
+                while (next < buffered || !queue.isEmpty()) {
+                    RunReader head = queue.peek();
+                    long key;
+                    long value;
+                    if (head == null || (next < buffered && compare(keys[next], values[next], head.key, head.value) <= 0)) {
+                        key = keys[next];
+                        value = values[next];
+                        next++;
+                    } else {
+                        queue.poll();
+                        key = head.key;
+                        value = head.value;
+                        if (head.advance()) {
+                            queue.add(head);
+                        }
+                    }
+                    // Sorted, so duplicates are adjacent; each is written once
+                    if (written == 0 || key != lastKey || value != lastValue) {
+                        writeEntry(out, key, value);
+                        lastKey = key;
+                        lastValue = value;
+                        written++;
+                    }
+                }
+            }
+            // The count goes in the header once it is known
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.seek(8);
+                file.writeLong(written);
+            }
+            return written;
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes any spilled runs.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        Path run = Files.createTempFile("positions", ".run");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < buffered; i++) {
+                writeEntry(out, keys[i], values[i]);
+            }
+        }
+        runs.add(run);
+        buffered = 0;
+    }
+
+    private static void writeEntry(DataOutputStream out, long key, long value) throws IOException {
+        out.writeLong(key);
+        out.writeLong(value);
+    }
+
+    private static int compare(long keyA, long valueA, long keyB, long valueB) {
+        int byKey = Long.compare(keyA, keyB);
+        return byKey != 0 ? byKey : Long.compare(valueA, valueB);
+    }
+
+    private void sortBuffer() {
+        sort(0, buffered - 1);
+    }
+
+    /**
+     * Quicksort over the parallel key and value arrays, so entries can be sorted
+     * without boxing millions of them.
+     */
+    private void sort(int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            long pivotValue = values[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], values[i], pivotKey, pivotValue) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], values[j], pivotKey, pivotValue) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+
+    private static class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        long key;
+        long value;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+                value = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return compare(key, value, other.key, other.value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
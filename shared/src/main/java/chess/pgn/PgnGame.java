@@ -0,0 +1,14 @@
+package chess.pgn;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from a PGN file.
+ *
+ * @param tags   the tag pairs, e.g. Event, White, Result
+ * @param moves  the main line in standard algebraic notation, check and annotation marks removed
+ * @param result the game termination marker ("1-0", "0-1", "1/2-1/2" or "*")
+ */
+public record PgnGame(Map<String, String> tags, List<String> moves, String result) {
+}
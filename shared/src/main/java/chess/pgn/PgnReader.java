@@ -0,0 +1,156 @@
+package chess.pgn;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams games out of PGN text one at a time, so arbitrarily large files can be
+ * processed without holding them in memory. Comments, variations, NAGs and move
+ * numbers are skipped; only the main line is returned.
+ */
+public class PgnReader implements Closeable {
+    private final BufferedReader reader;
+    private int pushedBack = -2;
+
+    public PgnReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the next game, or null once the input is exhausted
+     * @throws IOException if the underlying reader fails
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '[') {
+                if (!moves.isEmpty()) {
+                    // A new tag section without a result marker starts the next game
+                    unread(c);
+                    return new PgnGame(tags, moves, "*");
+                }
+                readTag(tags);
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            } else {
+                token.setLength(0);
+                while (c != -1 && !Character.isWhitespace(c) && c != '{' && c != '(' && c != ';' && c != '[') {
+                    token.append((char) c);
+                    c = read();
+                }
+                if (c != -1) {
+                    unread(c);
+                }
+                String text = token.toString();
+                if (isResult(text)) {
+                    return new PgnGame(tags, moves, text);
+                }
+                String move = cleanMove(text);
+                if (!move.isEmpty()) {
+                    moves.add(move);
+                }
+            }
+        }
+        return tags.isEmpty() && moves.isEmpty() ? null : new PgnGame(tags, moves, "*");
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        StringBuilder tag = new StringBuilder();
+        int c;
+        boolean inQuotes = false;
+        while ((c = read()) != -1 && (inQuotes || c != ']')) {
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            }
+            tag.append((char) c);
+        }
+        String text = tag.toString().trim();
+        int space = text.indexOf(' ');
+        if (space > 0) {
+            String value = text.substring(space + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            tags.put(text.substring(0, space), value);
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != end);
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) != -1) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipUntil('}');
+            }
+        }
+    }
+
+    /**
+     * Strips move numbers, NAGs and check/annotation marks from a move token.
+     */
+    private static String cleanMove(String token) {
+        if (token.startsWith("$")) {
+            return "";
+        }
+        int dot = token.lastIndexOf('.');
+        if (dot >= 0) {
+            token = token.substring(dot + 1);
+        }
+        int end = token.length();
+        while (end > 0 && "+#!?".indexOf(token.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return token.substring(0, end);
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
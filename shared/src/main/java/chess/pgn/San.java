@@ -0,0 +1,107 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Collection;
+
+/**
+ * Converts moves written in standard algebraic notation (e.g. "Nbd7", "exd5",
+ * "e8=Q") into {@link ChessMove}s by matching them against the legal moves of a
+ * game. Castling is not supported by the game, so "O-O" and "O-O-O" never match.
+ */
+public class San {
+
+    /**
+     * Finds the legal move in the game described by a SAN string.
+     *
+     * @param game the game, with the side to move set
+     * @param san  the move text, without check or annotation marks
+     * @return the matching move, or null if the text is malformed, ambiguous or not legal
+     */
+    public static ChessMove parse(ChessGame game, String san) {
+        if (san.length() < 2 || san.startsWith("O-O") || san.startsWith("0-0")) {
+            return null;
+        }
+
+        ChessPiece.PieceType promotion = null;
+        int end = san.length();
+        char last = san.charAt(end - 1);
+        if ("QRBN".indexOf(last) >= 0) {
+            promotion = pieceType(last);
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end < 2) {
+            return null;
+        }
+
+        int toCol = san.charAt(end - 2) - 'a' + 1;
+        int toRow = san.charAt(end - 1) - '0';
+        if (toCol < 1 || toCol > 8 || toRow < 1 || toRow > 8) {
+            return null;
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if ("KQRBN".indexOf(san.charAt(0)) >= 0) {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+
+        int fromCol = 0;
+        int fromRow = 0;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a' + 1;
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '0';
+            } else if (c != 'x') {
+                return null;
+            }
+        }
+
+        ChessPosition target = new ChessPosition(toRow, toCol);
+        ChessMove found = null;
+        for (int row = 1; row <= 8; row++) {
+            if (fromRow != 0 && row != fromRow) {
+                continue;
+            }
+            for (int col = 1; col <= 8; col++) {
+                if (fromCol != 0 && col != fromCol) {
+                    continue;
+                }
+                ChessPosition from = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(from);
+                if (piece == null || piece.getTeamColor() != game.getTeamTurn() || piece.getPieceType() != type) {
+                    continue;
+                }
+                Collection<ChessMove> moves = game.validMoves(from);
+                ChessMove candidate = new ChessMove(from, target, promotion);
+                if (moves != null && moves.contains(candidate)) {
+                    if (found != null) {
+                        return null;
+                    }
+                    found = candidate;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> throw new IllegalArgumentException("Not a piece letter: " + c);
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package chess.replay;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Replays large numbers of games through {@link ChessGame#makeMove} to check
+ * they are still legal, e.g. after a rules fix.
+ * <p>
+ * Games are pulled from the source in batches on the calling thread and each
+ * batch is split across a fork-join pool. Every worker thread keeps one
+ * {@link ChessGame} and resets it between games instead of allocating a new one.
+ * Only a bounded number of batches are in flight at once, so the source is
+ * streamed rather than loaded into memory.
+ * <p>
+ * Usage: {@code GameReplayer <games.pgn>...}
+ */
+public class GameReplayer {
+    private static final int BATCH_SIZE = 512;
+    private static final int SPLIT_THRESHOLD = 32;
+    private static final int MAX_FAILURES = 100;
+
+    private final ForkJoinPool pool;
+    private final int maxBatchesInFlight;
+    private final ThreadLocal<ChessGame> workerGames = ThreadLocal.withInitial(ChessGame::new);
+
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final Map<ReplayStatus, LongAdder> statusCounts = new EnumMap<>(ReplayStatus.class);
+    private final Queue<ReplayFailure> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    public GameReplayer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GameReplayer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.maxBatchesInFlight = Math.max(2, pool.getParallelism() * 2);
+        for (ReplayStatus status : ReplayStatus.values()) {
+            statusCounts.put(status, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: GameReplayer <games.pgn>...");
+            System.exit(1);
+        }
+        GameReplayer replayer = new GameReplayer();
+        long start = System.nanoTime();
+        for (String file : args) {
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(Path.of(file)))) {
+                replayer.replayAll(pgnGames(reader, file));
+            }
+        }
+        System.out.print(replayer.report(System.nanoTime() - start));
+    }
+
+    /**
+     * Replays every game from the source and reports on this run.
+     */
+    public ReplayReport replay(Iterator<ReplayGame> source) throws InterruptedException {
+        long start = System.nanoTime();
+        replayAll(source);
+        return report(System.nanoTime() - start);
+    }
+
+    /**
+     * Replays every game from the source, adding to this replayer's running totals.
+     */
+    public void replayAll(Iterator<ReplayGame> source) throws InterruptedException {
+        Feed feed = feed();
+        source.forEachRemaining(feed);
+        feed.finish();
+    }
+
+    /**
+     * Starts a push-style feed for sources that hand games over one at a time
+     * rather than being iterated, such as a streaming database query.
+     */
+    public Feed feed() {
+        return new Feed();
+    }
+
+    /**
+     * @return the totals for everything replayed so far
+     */
+    public ReplayReport report(long elapsedNanos) {
+        Map<ReplayStatus, Long> counts = new EnumMap<>(ReplayStatus.class);
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return new ReplayReport(games.sum(), moves.sum(), counts, List.copyOf(failures), elapsedNanos);
+    }
+
+    /**
+     * Replays a single game on the given (reused) game object.
+     */
+    ReplayStatus replay(ReplayGame replayGame, ChessGame game) {
+        game.reset();
+        int length = replayGame.length();
+        for (int ply = 0; ply < length; ply++) {
+            ChessMove move;
+            if (replayGame.moves() != null) {
+                move = replayGame.moves().get(ply);
+            } else {
+                move = San.parse(game, replayGame.sanMoves().get(ply));
+                if (move == null) {
+                    fail(replayGame, ply, replayGame.sanMoves().get(ply), "Not a legal move in this position");
+                    return ReplayStatus.ILLEGAL_MOVE;
+                }
+            }
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                fail(replayGame, ply, move.toString(), e.getMessage());
+                return ReplayStatus.ILLEGAL_MOVE;
+            }
+            moves.increment();
+        }
+
+        if (replayGame.expectedBoard() != null && !replayGame.expectedBoard().equals(game.getBoard())) {
+            fail(replayGame, length, null, "Final board differs from the stored board");
+            return ReplayStatus.BOARD_MISMATCH;
+        }
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        if (game.isInCheckmate(toMove)) {
+            return ReplayStatus.CHECKMATE;
+        }
+        return game.isInStalemate(toMove) ? ReplayStatus.STALEMATE : ReplayStatus.IN_PROGRESS;
+    }
+
+    private void fail(ReplayGame game, int ply, String move, String reason) {
+        if (failureCount.incrementAndGet() <= MAX_FAILURES) {
+            failures.add(new ReplayFailure(game.id(), ply, move, reason));
+        }
+    }
+
+    /**
+     * Adapts a PGN stream to a replay source. Games are identified as {@code name#n}.
+     */
+    public static Iterator<ReplayGame> pgnGames(PgnReader reader, String name) {
+        return new Iterator<>() {
+            private PgnGame next = read();
+            private int index = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ReplayGame next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ReplayGame game = ReplayGame.ofSan(name + "#" + index++, next.moves());
+                next = read();
+                return game;
+            }
+
+            private PgnGame read() {
+                try {
+                    return reader.next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Convenience for replaying PGN text that is already open.
+     */
+    public ReplayReport replayPgn(Reader pgn, String name) throws InterruptedException {
+        return replay(pgnGames(new PgnReader(pgn), name));
+    }
+
+    /**
+     * Collects games into batches and hands each full batch to the pool. Adding
+     * a game blocks while too many batches are already being replayed.
+     */
+    public class Feed implements Consumer<ReplayGame> {
+        private final Semaphore inFlight = new Semaphore(maxBatchesInFlight);
+        private final Phaser done = new Phaser(1);
+        private List<ReplayGame> batch = new ArrayList<>(BATCH_SIZE);
+
+        private Feed() {
+        }
+
+        @Override
+        public void accept(ReplayGame game) {
+            batch.add(game);
+            if (batch.size() == BATCH_SIZE) {
+                submit();
+            }
+        }
+
+        /**
+         * Submits the last partial batch and waits for every game to be replayed.
+         */
+        public void finish() throws InterruptedException {
+            if (!batch.isEmpty()) {
+                submit();
+            }
+            done.awaitAdvanceInterruptibly(done.arrive());
+        }
+
+        private void submit() {
+            List<ReplayGame> full = batch;
+            batch = new ArrayList<>(BATCH_SIZE);
+            inFlight.acquireUninterruptibly();
+            done.register();
+            pool.execute(() -> {
+                try {
+                    new BatchTask(full, 0, full.size()).invoke();
+                } finally {
+                    inFlight.release();
+                    done.arriveAndDeregister();
+                }
+            });
+        }
+    }
+
+    private class BatchTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are only ever run in this JVM, never serialized
+        private final transient List<ReplayGame> batch;
+        private final int from;
+        private final int to;
+
+        BatchTask(List<ReplayGame> batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(batch, from, mid), new BatchTask(batch, mid, to));
+                return;
+            }
+            ChessGame game = workerGames.get();
+            for (int i = from; i < to; i++) {
+                ReplayStatus status = replay(batch.get(i), game);
+                statusCounts.get(status).increment();
+                games.increment();
+            }
+        }
+    }
+}
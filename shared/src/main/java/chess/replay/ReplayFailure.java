@@ -0,0 +1,12 @@
+package chess.replay;
+
+/**
+ * A game that could not be replayed cleanly.
+ *
+ * @param gameId the game's {@link ReplayGame#id()}
+ * @param ply    the half-move (0-based) where replay failed, or the game length for a board mismatch
+ * @param move   the offending move as written, or null for a board mismatch
+ * @param reason why the game failed
+ */
+public record ReplayFailure(String gameId, int ply, String move, String reason) {
+}
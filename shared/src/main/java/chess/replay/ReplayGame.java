@@ -0,0 +1,30 @@
+package chess.replay;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * A game to be replayed. Moves are given either as {@link ChessMove}s (stored
+ * games) or as SAN text (PGN archives).
+ *
+ * @param id            identifies the game in the report, e.g. a game ID or PGN file and index
+ * @param moves         the moves as objects, or null when {@code sanMoves} is used
+ * @param sanMoves      the moves in standard algebraic notation, or null when {@code moves} is used
+ * @param expectedBoard the final board recorded for the game, or null if there is nothing to compare with
+ */
+public record ReplayGame(String id, List<ChessMove> moves, List<String> sanMoves, ChessBoard expectedBoard) {
+
+    public static ReplayGame ofMoves(String id, List<ChessMove> moves, ChessBoard expectedBoard) {
+        return new ReplayGame(id, moves, null, expectedBoard);
+    }
+
+    public static ReplayGame ofSan(String id, List<String> sanMoves) {
+        return new ReplayGame(id, null, sanMoves, null);
+    }
+
+    public int length() {
+        return moves != null ? moves.size() : sanMoves.size();
+    }
+}
@@ -0,0 +1,38 @@
+package chess.replay;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of a replay run.
+ *
+ * @param games         number of games replayed
+ * @param moves         number of half-moves successfully played
+ * @param statusCounts  number of games ending in each status
+ * @param failures      the first failures found, capped by the replayer
+ * @param elapsedNanos  wall-clock time of the run
+ */
+public record ReplayReport(long games, long moves, Map<ReplayStatus, Long> statusCounts,
+                           List<ReplayFailure> failures, long elapsedNanos) {
+
+    public double gamesPerHour() {
+        return elapsedNanos == 0 ? 0 : games * 3_600_000_000_000.0 / elapsedNanos;
+    }
+
+    public double movesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Replayed %d games (%d moves) in %.1fs: %.0f games/hour, %.0f moves/s%n",
+                games, moves, elapsedNanos / 1e9, gamesPerHour(), movesPerSecond()));
+        statusCounts.forEach((status, count) -> sb.append(String.format("  %-15s %d%n", status, count)));
+        for (ReplayFailure failure : failures) {
+            sb.append(String.format("  %s ply %d %s: %s%n", failure.gameId(), failure.ply(),
+                    failure.move() == null ? "" : failure.move(), failure.reason()));
+        }
+        return sb.toString();
+    }
+}
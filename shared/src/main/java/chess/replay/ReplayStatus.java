@@ -0,0 +1,12 @@
+package chess.replay;
+
+/**
+ * Where a replayed game ended up.
+ */
+public enum ReplayStatus {
+    CHECKMATE,
+    STALEMATE,
+    IN_PROGRESS,
+    ILLEGAL_MOVE,
+    BOARD_MISMATCH
+}
@@ -0,0 +1,80 @@
+package chess.tournament;
+
+import chess.ChessGame;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+
+/**
+ * How one side of a tournament searches. Each move stops at whichever of the
+ * limits is reached first.
+ *
+ * @param name      label used in reports
+ * @param depth     maximum iterative deepening depth in plies
+ * @param nodeLimit maximum nodes per move, or {@link Long#MAX_VALUE} for none
+ * @param moveTime  maximum milliseconds per move, or {@link Long#MAX_VALUE} for none
+ */
+public record EngineConfig(String name, int depth, long nodeLimit, long moveTime) {
+    // Same size as a search's own table, but kept for a whole game
+    private static final int TABLE_BITS = 16;
+
+    public static EngineConfig depth(String name, int depth) {
+        return new EngineConfig(name, depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parses a spec such as {@code depth=8,nodes=20000,movetime=100}; any key may
+     * be left out.
+     */
+    public static EngineConfig parse(String name, String spec) {
+        int depth = 64;
+        long nodes = Long.MAX_VALUE;
+        long moveTime = Long.MAX_VALUE;
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected key=value: " + part);
+            }
+            switch (kv[0].trim()) {
+                case "depth" -> depth = Integer.parseInt(kv[1].trim());
+                case "nodes" -> nodes = Long.parseLong(kv[1].trim());
+                case "movetime" -> moveTime = Long.parseLong(kv[1].trim());
+                default -> throw new IllegalArgumentException("Unknown engine option: " + kv[0]);
+            }
+        }
+        if (depth == 64 && nodes == Long.MAX_VALUE && moveTime == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Engine needs a depth, node or time limit: " + spec);
+        }
+        return new EngineConfig(name, depth, nodes, moveTime);
+    }
+
+    /**
+     * @return a table for this side's searches over one game
+     */
+    TranspositionTable newTable() {
+        return new TranspositionTable(TABLE_BITS);
+    }
+
+    /**
+     * @param table this side's table for the game, so each move starts from
+     *              what its earlier searches found
+     */
+    Search newSearch(ChessGame game, TranspositionTable table) {
+        Search search = new Search(game);
+        search.setTranspositionTable(table);
+        search.setNodeLimit(nodeLimit);
+        search.setTimeLimit(moveTime);
+        return search;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(" (depth ").append(depth);
+        if (nodeLimit != Long.MAX_VALUE) {
+            sb.append(", ").append(nodeLimit).append(" nodes");
+        }
+        if (moveTime != Long.MAX_VALUE) {
+            sb.append(", ").append(moveTime).append(" ms");
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,217 @@
+package chess.tournament;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays one engine configuration against another over many games at once,
+ * to measure search throughput and catch strength regressions.
+ * <p>
+ * Every opening is played twice with the colours swapped so neither engine
+ * gets the better side of an opening more often. A game ends on checkmate,
+ * stalemate, threefold repetition or after {@link #setMaxPlies max plies},
+ * the last two counting as draws.
+ * <p>
+ * Usage: {@code Tournament <games> <threads> <engine> <opponent> [openings.fen]},
+ * where each engine is a spec such as {@code depth=6,nodes=20000} and the
+ * openings file holds one FEN per line.
+ */
+public class Tournament {
+    private static final int DEFAULT_MAX_PLIES = 200;
+    private static final List<String> DEFAULT_OPENINGS = List.of(
+            Fen.START,
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+            "rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w - - 0 2",
+            "rnbqkb1r/pppppppp/5n2/8/2P5/8/PP1PPPPP/RNBQKBNR w - - 1 2",
+            "rnbqkbnr/pppp1ppp/4p3/8/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2");
+
+    private final EngineConfig engine;
+    private final EngineConfig opponent;
+    private final int threads;
+    private int maxPlies = DEFAULT_MAX_PLIES;
+
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder losses = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    // One array of move times per game, merged when the report is built
+    private final Queue<long[]> moveTimes = new ConcurrentLinkedQueue<>();
+
+    public Tournament(EngineConfig engine, EngineConfig opponent, int threads) {
+        this.engine = engine;
+        this.opponent = opponent;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: Tournament <games> <threads> <engine> <opponent> [openings.fen]");
+            System.err.println("  engine spec: depth=N,nodes=N,movetime=MS (any subset)");
+            System.exit(1);
+        }
+        int games = Integer.parseInt(args[0]);
+        int threads = Integer.parseInt(args[1]);
+        List<String> openings = DEFAULT_OPENINGS;
+        if (args.length > 4) {
+            openings = Files.readAllLines(Path.of(args[4])).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+        Tournament tournament = new Tournament(EngineConfig.parse("engine", args[2]),
+                EngineConfig.parse("opponent", args[3]), threads);
+        System.out.print(tournament.run(openings, games));
+    }
+
+    /**
+     * Sets how many plies a game may last before it is scored as a draw.
+     */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Plays the given number of games, cycling through the openings, and
+     * reports on this run together with any earlier ones.
+     */
+    public TournamentReport run(List<String> openings, int games) throws InterruptedException {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings given");
+        }
+        // Parse up front so a bad FEN fails the run rather than one game
+        List<ChessGame> positions = new ArrayList<>(openings.size());
+        for (String fen : openings) {
+            positions.add(Fen.parse(fen));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                ChessGame opening = positions.get((i / 2) % positions.size());
+                boolean engineIsWhite = i % 2 == 0;
+                results.add(pool.submit(() -> play(opening, engineIsWhite)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return report(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the totals for every game played so far
+     */
+    public TournamentReport report(long elapsedNanos) {
+        long total = 0;
+        for (long[] times : moveTimes) {
+            total += times.length;
+        }
+        long[] all = new long[(int) total];
+        int at = 0;
+        for (long[] times : moveTimes) {
+            System.arraycopy(times, 0, all, at, times.length);
+            at += times.length;
+        }
+        Arrays.sort(all);
+        long[] percentiles = {percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99),
+                all.length == 0 ? 0 : all[all.length - 1]};
+        return new TournamentReport(engine, opponent, wins.sum(), draws.sum(), losses.sum(),
+                moves.sum(), nodes.sum(), searchNanos.sum(), percentiles, elapsedNanos);
+    }
+
+    /**
+     * Plays out one game from the given opening, which is copied rather than changed.
+     */
+    void play(ChessGame opening, boolean engineIsWhite) {
+        ChessGame game = new ChessGame();
+        game.setBoard(new ChessBoard(opening.getBoard()));
+        game.setTeamTurn(opening.getTeamTurn());
+        ChessGame.TeamColor engineColor = engineIsWhite ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        // One table per side for the whole game rather than a new one every move
+        TranspositionTable engineTable = engine.newTable();
+        TranspositionTable opponentTable = opponent.newTable();
+
+        Map<Long, Integer> seen = new HashMap<>();
+        seen.put(game.snapshot().zobristKey(), 1);
+        long[] times = new long[maxPlies];
+        int ply = 0;
+        ChessGame.TeamColor winner = null;
+        while (true) {
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            if (!game.hasAnyLegalMove(turn)) {
+                if (game.isInCheck(turn)) {
+                    winner = turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                }
+                break;
+            }
+            if (ply == maxPlies) {
+                break;
+            }
+            boolean engineToMove = turn == engineColor;
+            EngineConfig side = engineToMove ? engine : opponent;
+            long started = System.nanoTime();
+            SearchResult result = side.newSearch(game, engineToMove ? engineTable : opponentTable)
+                    .search(side.depth());
+            long took = System.nanoTime() - started;
+            times[ply++] = took;
+            searchNanos.add(took);
+            nodes.add(result.nodes() + result.qnodes());
+            moves.increment();
+            try {
+                game.makeMove(result.bestMove());
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Search returned an illegal move " + result.bestMove()
+                        + " in " + Fen.toFen(game), e);
+            }
+            if (seen.merge(game.snapshot().zobristKey(), 1, Integer::sum) >= 3) {
+                break;
+            }
+        }
+        moveTimes.add(Arrays.copyOf(times, ply));
+
+        if (winner == null) {
+            draws.increment();
+        } else if (winner == engineColor) {
+            wins.increment();
+        } else {
+            losses.increment();
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,86 @@
+package chess.tournament;
+
+/**
+ * Summary of a tournament from the first engine's point of view.
+ *
+ * @param engine        the engine being measured
+ * @param opponent      the engine it played against
+ * @param wins          games the engine won
+ * @param draws         drawn games
+ * @param losses        games the engine lost
+ * @param moves         engine moves searched, by either side
+ * @param nodes         nodes visited by those searches
+ * @param searchNanos   total time spent in those searches
+ * @param moveTimeNanos move time at the 50th, 90th and 99th percentiles and the maximum
+ * @param elapsedNanos  wall-clock time of the run
+ */
+public record TournamentReport(EngineConfig engine, EngineConfig opponent, long wins, long draws, long losses,
+                               long moves, long nodes, long searchNanos, long[] moveTimeNanos, long elapsedNanos) {
+
+    // Two-sided 95% normal quantile
+    private static final double Z_95 = 1.96;
+
+    public long games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the engine's score as a fraction, counting a draw as half a win
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + draws / 2.0) / games();
+    }
+
+    /**
+     * @return the Elo difference implied by the score; positive when the engine is stronger
+     */
+    public double eloDifference() {
+        return elo(score());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval on {@link #eloDifference()},
+     * using the per-game variance of the score
+     */
+    public double eloMargin() {
+        long n = games();
+        if (n < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double s = score();
+        double variance = (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+        double error = Z_95 * Math.sqrt(variance / n);
+        return (elo(s + error) - elo(s - error)) / 2;
+    }
+
+    public double nodesPerSecond() {
+        return searchNanos == 0 ? 0 : nodes * 1_000_000_000.0 / searchNanos;
+    }
+
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s vs %s%n", engine, opponent));
+        sb.append(String.format("  %d games in %.1fs (%.1f games/s): +%d =%d -%d, score %.1f%%%n",
+                games(), elapsedNanos / 1e9, gamesPerSecond(), wins, draws, losses, score() * 100));
+        sb.append(String.format("  Elo difference %+.1f +/- %.1f (95%%)%n", eloDifference(), eloMargin()));
+        sb.append(String.format("  %d moves, %d nodes, %.0f nodes/s%n", moves, nodes, nodesPerSecond()));
+        sb.append(String.format("  Move time ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                moveTimeNanos[0] / 1e6, moveTimeNanos[1] / 1e6, moveTimeNanos[2] / 1e6, moveTimeNanos[3] / 1e6));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Body of a POST /analysis request. Exactly one of gameID and fen is given;
+ * the other fields are optional and capped by the server.
+ */
+public record AnalysisRequest(Integer gameID, String fen, Integer lines, Integer depth, Long nodes, Long movetime) {
+}
@@ -0,0 +1,13 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Engine analysis of one position. Moves are in coordinate notation such as
+ * "e2e4" or "e7e8q", and scores are centipawns for the side to move.
+ */
+public record AnalysisResult(String fen, int depth, List<Line> lines, long nodes, long millis) {
+
+    public record Line(List<String> moves, int score) {
+    }
+}
@@ -0,0 +1,281 @@
+package websocket;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.PackedMove;
+import websocket.commands.ConnectCommand;
+import websocket.commands.LeaveCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.ResignCommand;
+import websocket.commands.ResumeCommand;
+import websocket.commands.SyncCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of the WebSocket commands and server messages, used
+ * instead of JSON by clients that connect with {@code ?proto=binary}.
+ * <p>
+ * Each frame starts with a one-byte tag naming its type, so it decodes in one
+ * pass straight to the right class. Numbers are big-endian. A string is a
+ * two-byte length and its UTF-8 bytes, with length 0xFFFF for null. A move is
+ * a two-byte {@link PackedMove}, 0xFFFF for none. A board is 64 four-bit
+ * squares from a1 to h8: 0 for empty, otherwise the piece type's ordinal plus
+ * one, with bit 3 set for black.
+ * <p>
+ * A command is the tag, auth token and game ID (0x80000000 for none), followed
+ * by a flags byte for CONNECT, the move for MAKE_MOVE, and the last sequence
+ * number and flags byte for RESUME. A server message is the tag and sequence
+ * number (-1 for none), followed by the game for LOAD_GAME, the text for ERROR
+ * and NOTIFICATION, and the move, hash, status and ply for MOVE.
+ */
+public final class BinaryCodec {
+    /**
+     * Value of the {@code proto} query parameter that selects this encoding.
+     */
+    public static final String PROTOCOL = "binary";
+
+    private static final byte CONNECT = 1;
+    private static final byte MAKE_MOVE = 2;
+    private static final byte LEAVE = 3;
+    private static final byte RESIGN = 4;
+    private static final byte SYNC = 5;
+    private static final byte RESUME = 6;
+
+    private static final byte LOAD_GAME = 16;
+    private static final byte ERROR = 17;
+    private static final byte NOTIFICATION = 18;
+    private static final byte MOVE = 19;
+
+    private static final int FLAG_MOVE_DELTAS = 1;
+    private static final int NO_GAME_ID = Integer.MIN_VALUE;
+    private static final int NO_STRING = 0xFFFF;
+    private static final int NO_MOVE = 0xFFFF;
+    private static final int NO_TEAM = 0xFF;
+    private static final int BLACK = 8;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final MoveMessage.GameStatus[] STATUSES = MoveMessage.GameStatus.values();
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * @return the encoded command, ready to be read
+     */
+    public static ByteBuffer encode(UserGameCommand command) {
+        byte[] token = utf8(command.getAuthToken());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + stringSize(token) + 4 + 9);
+        switch (command.getCommandType()) {
+            case CONNECT -> buffer.put(CONNECT);
+            case MAKE_MOVE -> buffer.put(MAKE_MOVE);
+            case LEAVE -> buffer.put(LEAVE);
+            case RESIGN -> buffer.put(RESIGN);
+            case SYNC -> buffer.put(SYNC);
+            case RESUME -> buffer.put(RESUME);
+        }
+        putString(buffer, token);
+        buffer.putInt(command.getGameID() == null ? NO_GAME_ID : command.getGameID());
+        switch (command.getCommandType()) {
+            case CONNECT -> buffer.put((byte) (command instanceof ConnectCommand connect
+                    && connect.wantsMoveDeltas() ? FLAG_MOVE_DELTAS : 0));
+            case MAKE_MOVE -> putMove(buffer, command instanceof MakeMoveCommand move ? move.getMove() : null);
+            case RESUME -> {
+                ResumeCommand resume = (ResumeCommand) command;
+                buffer.putLong(resume.getLastSequence());
+                buffer.put((byte) (resume.wantsMoveDeltas() ? FLAG_MOVE_DELTAS : 0));
+            }
+            default -> {
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a command as its concrete class.
+     *
+     * @throws IllegalArgumentException if the frame is not a valid command
+     */
+    public static UserGameCommand decodeCommand(ByteBuffer buffer) {
+        try {
+            byte tag = buffer.get();
+            String authToken = getString(buffer);
+            int id = buffer.getInt();
+            Integer gameID = id == NO_GAME_ID ? null : id;
+            return switch (tag) {
+                case CONNECT -> new ConnectCommand(authToken, gameID, (buffer.get() & FLAG_MOVE_DELTAS) != 0);
+                case MAKE_MOVE -> new MakeMoveCommand(authToken, gameID, getMove(buffer));
+                case LEAVE -> new LeaveCommand(authToken, gameID);
+                case RESIGN -> new ResignCommand(authToken, gameID);
+                case SYNC -> new SyncCommand(authToken, gameID);
+                case RESUME -> new ResumeCommand(authToken, gameID, buffer.getLong(),
+                        (buffer.get() & FLAG_MOVE_DELTAS) != 0);
+                default -> throw new IllegalArgumentException("Unknown command tag " + tag);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Command frame is truncated");
+        }
+    }
+
+    /**
+     * @return the encoded message, ready to be read
+     */
+    public static ByteBuffer encode(ServerMessage message) {
+        long sequence = message.getSequence() == null ? -1 : message.getSequence();
+        return switch (message.getServerMessageType()) {
+            case LOAD_GAME -> {
+                ChessGame game = ((LoadGameMessage) message).getGame();
+                List<ChessMove> history = game.getMoveHistory();
+                ByteBuffer buffer = ByteBuffer.allocate(9 + 32 + 1 + 2 + 2 * history.size());
+                buffer.put(LOAD_GAME).putLong(sequence);
+                putBoard(buffer, game.getBoard());
+                buffer.put((byte) (game.getTeamTurn() == null ? NO_TEAM : game.getTeamTurn().ordinal()));
+                buffer.putShort((short) history.size());
+                for (ChessMove move : history) {
+                    putMove(buffer, move);
+                }
+                yield buffer.flip();
+            }
+            case ERROR -> text(ERROR, sequence, ((ErrorMessage) message).getErrorMessage());
+            case NOTIFICATION -> text(NOTIFICATION, sequence, ((NotificationMessage) message).getMessage());
+            case MOVE -> {
+                MoveMessage move = (MoveMessage) message;
+                ByteBuffer buffer = ByteBuffer.allocate(9 + 2 + 8 + 1 + 4);
+                buffer.put(MOVE).putLong(sequence);
+                putMove(buffer, move.getMove());
+                buffer.putLong(move.getHash());
+                buffer.put((byte) move.getStatus().ordinal());
+                buffer.putInt(move.getPly());
+                yield buffer.flip();
+            }
+        };
+    }
+
+    /**
+     * Decodes a server message as its concrete class.
+     *
+     * @throws IllegalArgumentException if the frame is not a valid message
+     */
+    public static ServerMessage decodeMessage(ByteBuffer buffer) {
+        try {
+            byte tag = buffer.get();
+            long sequence = buffer.getLong();
+            ServerMessage message = switch (tag) {
+                case LOAD_GAME -> new LoadGameMessage(getGame(buffer));
+                case ERROR -> new ErrorMessage(getString(buffer));
+                case NOTIFICATION -> new NotificationMessage(getString(buffer));
+                case MOVE -> new MoveMessage(getMove(buffer), buffer.getLong(),
+                        STATUSES[buffer.get()], buffer.getInt());
+                default -> throw new IllegalArgumentException("Unknown message tag " + tag);
+            };
+            if (sequence >= 0) {
+                message.setSequence(sequence);
+            }
+            return message;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Message frame is malformed");
+        }
+    }
+
+    private static ByteBuffer text(byte tag, long sequence, String text) {
+        byte[] bytes = utf8(text);
+        ByteBuffer buffer = ByteBuffer.allocate(9 + stringSize(bytes));
+        buffer.put(tag).putLong(sequence);
+        putString(buffer, bytes);
+        return buffer.flip();
+    }
+
+    private static void putBoard(ByteBuffer buffer, ChessBoard board) {
+        for (int square = 0; square < 64; square += 2) {
+            buffer.put((byte) (nibble(board, square) | nibble(board, square + 1) << 4));
+        }
+    }
+
+    private static int nibble(ChessBoard board, int square) {
+        ChessPiece piece = board.getPiece(PackedMove.position(square));
+        if (piece == null) {
+            return 0;
+        }
+        int code = piece.getPieceType().ordinal() + 1;
+        return piece.getTeamColor() == ChessGame.TeamColor.BLACK ? code | BLACK : code;
+    }
+
+    private static ChessGame getGame(ByteBuffer buffer) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int pair = buffer.get();
+            putPiece(board, square, pair & 0xF);
+            putPiece(board, square + 1, (pair >>> 4) & 0xF);
+        }
+        int team = buffer.get() & 0xFF;
+        int count = buffer.getShort() & 0xFFFF;
+        List<ChessMove> history = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            history.add(getMove(buffer));
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(team == NO_TEAM ? null : TEAMS[team]);
+        game.setMoveHistory(history);
+        return game;
+    }
+
+    private static void putPiece(ChessBoard board, int square, int code) {
+        if (code != 0) {
+            ChessGame.TeamColor color = (code & BLACK) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            board.addPiece(PackedMove.position(square), new ChessPiece(color, TYPES[(code & ~BLACK) - 1]));
+        }
+    }
+
+    private static void putMove(ByteBuffer buffer, ChessMove move) {
+        buffer.putShort((short) (move == null ? NO_MOVE : PackedMove.pack(move)));
+    }
+
+    private static ChessMove getMove(ByteBuffer buffer) {
+        int packed = buffer.getShort() & 0xFFFF;
+        return packed == NO_MOVE ? null : PackedMove.unpack(packed);
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NO_STRING);
+        } else if (bytes.length >= NO_STRING) {
+            throw new IllegalArgumentException("String too long to encode: " + bytes.length + " bytes");
+        } else {
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
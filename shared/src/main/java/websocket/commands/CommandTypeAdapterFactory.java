@@ -0,0 +1,102 @@
+package websocket.commands;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Lets Gson read a {@link UserGameCommand} straight into its concrete class,
+ * e.g. a {@link MakeMoveCommand} for MAKE_MOVE.
+ * <p>
+ * Each concrete command has its own delegate adapter, picked by
+ * {@code commandType}, so a new command or field needs no code here beyond
+ * the entry for its class. The object is read as a tree first, so
+ * {@code commandType} need not be first. Unknown fields are skipped.
+ * Commands are written as usual.
+ */
+public class CommandTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != UserGameCommand.class) {
+            return null;
+        }
+        Map<UserGameCommand.CommandType, TypeAdapter<? extends UserGameCommand>> commands =
+                new EnumMap<>(UserGameCommand.CommandType.class);
+        commands.put(UserGameCommand.CommandType.CONNECT, delegate(gson, ConnectCommand.class));
+        commands.put(UserGameCommand.CommandType.MAKE_MOVE, delegate(gson, MakeMoveCommand.class));
+        commands.put(UserGameCommand.CommandType.LEAVE, delegate(gson, LeaveCommand.class));
+        commands.put(UserGameCommand.CommandType.RESIGN, delegate(gson, ResignCommand.class));
+        commands.put(UserGameCommand.CommandType.SYNC, delegate(gson, SyncCommand.class));
+        commands.put(UserGameCommand.CommandType.RESUME, delegate(gson, ResumeCommand.class));
+        return (TypeAdapter<T>) new CommandAdapter(gson, delegate(gson, UserGameCommand.class), commands);
+    }
+
+    private <C extends UserGameCommand> TypeAdapter<C> delegate(Gson gson, Class<C> type) {
+        return gson.getDelegateAdapter(this, TypeToken.get(type));
+    }
+
+    private static class CommandAdapter extends TypeAdapter<UserGameCommand> {
+        private final Gson gson;
+        private final TypeAdapter<UserGameCommand> plain;
+        private final Map<UserGameCommand.CommandType, TypeAdapter<? extends UserGameCommand>> commands;
+        private final TypeAdapter<JsonElement> trees;
+
+        CommandAdapter(Gson gson, TypeAdapter<UserGameCommand> plain,
+                       Map<UserGameCommand.CommandType, TypeAdapter<? extends UserGameCommand>> commands) {
+            this.gson = gson;
+            this.plain = plain;
+            this.commands = commands;
+            this.trees = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, UserGameCommand command) throws IOException {
+            if (command == null || command.getClass() == UserGameCommand.class) {
+                plain.write(out, command);
+            } else {
+                // The subclass's own fields, e.g. the move, are written too
+                ((TypeAdapter<UserGameCommand>) gson.getAdapter(command.getClass())).write(out, command);
+            }
+        }
+
+        @Override
+        public UserGameCommand read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            JsonElement tree = trees.read(in);
+            if (!tree.isJsonObject()) {
+                throw new JsonParseException("Command is not an object");
+            }
+            JsonElement commandType = ((JsonObject) tree).get("commandType");
+            if (commandType == null || commandType.isJsonNull()) {
+                throw new JsonParseException("Command has no commandType");
+            }
+            return commands.get(commandType(commandType.getAsString())).fromJsonTree(tree);
+        }
+
+        private static UserGameCommand.CommandType commandType(String name) {
+            try {
+                return UserGameCommand.CommandType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Unknown commandType " + name);
+            }
+        }
+    }
+}
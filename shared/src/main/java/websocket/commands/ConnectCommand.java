@@ -3,9 +3,24 @@ package websocket.commands;
 /**
  * Represents a command from a client to connect to a game.
  * This is sent when a player or observer wants to start watching a game.
+ * <p>
+ * A client that sets {@code moveDeltas} is sent each move as a
+ * {@link websocket.messages.MoveMessage} rather than the whole game.
  */
 public class ConnectCommand extends UserGameCommand {
+    // Left out of the JSON when not set, so older clients' commands are unchanged
+    private final Boolean moveDeltas;
+
     public ConnectCommand(String authToken, Integer gameID) {
+        this(authToken, gameID, false);
+    }
+
+    public ConnectCommand(String authToken, Integer gameID, boolean moveDeltas) {
         super(CommandType.CONNECT, authToken, gameID);
+        this.moveDeltas = moveDeltas ? Boolean.TRUE : null;
+    }
+
+    public boolean wantsMoveDeltas() {
+        return Boolean.TRUE.equals(moveDeltas);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package websocket.commands;
+
+/**
+ * Represents a command from a client reconnecting to a game it was already
+ * watching. The server replays the messages sent after {@code lastSequence},
+ * or sends the full game if it no longer has them all. Unlike CONNECT, the
+ * other clients are not told.
+ */
+public class ResumeCommand extends UserGameCommand {
+    private final long lastSequence;
+    private final Boolean moveDeltas;
+
+    /**
+     * @param lastSequence the sequence number of the last game message received
+     * @param moveDeltas   true to be sent moves as deltas, as with CONNECT
+     */
+    public ResumeCommand(String authToken, Integer gameID, long lastSequence, boolean moveDeltas) {
+        super(CommandType.RESUME, authToken, gameID);
+        this.lastSequence = lastSequence;
+        this.moveDeltas = moveDeltas ? Boolean.TRUE : null;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public boolean wantsMoveDeltas() {
+        return Boolean.TRUE.equals(moveDeltas);
+    }
+}
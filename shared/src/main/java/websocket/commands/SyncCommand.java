@@ -0,0 +1,11 @@
+package websocket.commands;
+
+/**
+ * Represents a request for the full state of a game the client is already
+ * connected to, e.g. after a move delta did not match its copy of the game.
+ */
+public class SyncCommand extends UserGameCommand {
+    public SyncCommand(String authToken, Integer gameID) {
+        super(CommandType.SYNC, authToken, gameID);
+    }
+}
@@ -0,0 +1,75 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+/**
+ * Represents a single move made in a game, sent instead of the whole game to
+ * clients that asked for move deltas when connecting.
+ * The client plays the move on its own copy of the game and checks the result
+ * against {@code hash}; if they differ it asks for the full game again.
+ */
+public class MoveMessage extends ServerMessage {
+    private final ChessMove move;
+    private final long hash;
+    private final GameStatus status;
+    private final int ply;
+
+    /**
+     * Where the game stands after the move, from the side to move's point of view.
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    /**
+     * @param move     the move that was made
+     * @param hash     Zobrist key of the position after the move
+     * @param status   the state of the game after the move
+     * @param ply      number of moves in the game including this one
+     */
+    public MoveMessage(ChessMove move, long hash, GameStatus status, int ply) {
+        super(ServerMessageType.MOVE);
+        this.move = move;
+        this.hash = hash;
+        this.status = status;
+        this.ply = ply;
+    }
+
+    /**
+     * Builds the message for the latest move played in a game.
+     */
+    public static MoveMessage after(ChessGame game, ChessMove move) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        GameStatus status;
+        if (game.isInCheckmate(turn)) {
+            status = GameStatus.CHECKMATE;
+        } else if (game.isInStalemate(turn)) {
+            status = GameStatus.STALEMATE;
+        } else if (game.isInCheck(turn)) {
+            status = GameStatus.CHECK;
+        } else {
+            status = GameStatus.IN_PROGRESS;
+        }
+        return new MoveMessage(move, game.snapshot().zobristKey(), status, game.getMoveHistory().size());
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+}
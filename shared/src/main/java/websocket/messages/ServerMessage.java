@@ -10,11 +10,14 @@ import java.util.Objects;
  */
 public class ServerMessage {
     ServerMessageType serverMessageType;
+    // Position in the game's message stream, or null for messages outside it
+    Long sequence;
 
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        MOVE
     }
 
     public ServerMessage(ServerMessageType type) {
@@ -25,6 +28,18 @@ public class ServerMessage {
         return this.serverMessageType;
     }
 
+    /**
+     * @return the position of this message in its game's stream, or null if it
+     * is not part of one, e.g. an error sent to a single client
+     */
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestUtilities.loadBoard;
+
+class AttackMapTest {
+
+    @Test
+    void attacksInStartingPosition() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        // b1-g1 from the back rank, all of ranks 2 and 3
+        assertEquals(0x0000_0000_00FF_FF7EL, board.attackedSquares(ChessGame.TeamColor.WHITE));
+        assertEquals(3, board.attackerCount(new ChessPosition(3, 3), ChessGame.TeamColor.WHITE));
+        assertFalse(board.isAttacked(new ChessPosition(4, 5), ChessGame.TeamColor.WHITE));
+        assertTrue(board.isAttacked(new ChessPosition(6, 1), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void slidingAttacksFollowBlockers() {
+        ChessBoard board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """);
+        ChessPosition beyond = new ChessPosition(4, 6);
+        assertFalse(board.isAttacked(beyond, ChessGame.TeamColor.WHITE));
+
+        board.addPiece(new ChessPosition(4, 4), null);
+        assertTrue(board.isAttacked(beyond, ChessGame.TeamColor.WHITE));
+
+        board.addPiece(new ChessPosition(4, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        assertFalse(board.isAttacked(beyond, ChessGame.TeamColor.WHITE));
+        assertTrue(board.isAttacked(new ChessPosition(4, 5), ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void incrementalMatchesRebuiltOverRandomGames() throws InvalidMoveException {
+        Random random = new Random(7);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            ChessGame game = new ChessGame();
+            // Build the map before the first move so every later change is incremental
+            game.getBoard().attackedSquares(ChessGame.TeamColor.WHITE);
+            for (int ply = 0; ply < 80; ply++) {
+                List<ChessMove> moves = new ArrayList<>();
+                game.legalMoves().forEachRemaining(moves::add);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+                assertSameAttacks(game.getBoard(), new ChessBoard(game.getBoard()));
+            }
+        }
+    }
+
+    private static void assertSameAttacks(ChessBoard incremental, ChessBoard rebuilt) {
+        for (ChessGame.TeamColor team : List.of(ChessGame.TeamColor.WHITE, ChessGame.TeamColor.BLACK)) {
+            assertEquals(rebuilt.attackedSquares(team), incremental.attackedSquares(team));
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition square = new ChessPosition(row, col);
+                    assertEquals(rebuilt.attackerCount(square, team), incremental.attackerCount(square, team));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDeltaTest {
+
+    @Test
+    void moveChangesTwoSquaresAndTurn() throws InvalidMoveException {
+        ChessGame before = new ChessGame();
+        ChessGame after = new ChessGame();
+        after.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        BoardDelta delta = before.diff(after);
+
+        assertEquals(2, delta.size());
+        assertEquals(ChessGame.TeamColor.BLACK, delta.teamTurn());
+        assertEquals(new ChessPosition(2, 5), delta.position(0));
+        assertNull(delta.piece(0));
+        assertEquals(new ChessPosition(4, 5), delta.position(1));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN), delta.piece(1));
+
+        before.apply(delta);
+        assertEquals(after.getBoard(), before.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, before.getTeamTurn());
+        assertEquals(after.snapshot(), before.snapshot());
+    }
+
+    @Test
+    void identicalBoardsHaveEmptyDelta() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard copy = new ChessBoard(board);
+
+        assertTrue(board.diff(copy).isEmpty());
+        assertTrue(new ChessGame().diff(new ChessGame()).isEmpty());
+    }
+
+    @Test
+    void roundTripsArbitraryBoards() {
+        ChessBoard from = new ChessBoard();
+        from.resetBoard();
+        ChessBoard to = new ChessBoard();
+        to.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        to.addPiece(new ChessPosition(5, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        to.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+
+        BoardDelta delta = from.diff(to);
+        // 31 pieces removed or replaced, the h8 rook unchanged, and e5 filled
+        assertEquals(32, delta.size());
+        assertNull(delta.teamTurn());
+
+        from.apply(delta);
+        assertEquals(to, from);
+        assertTrue(from.diff(to).isEmpty());
+    }
+
+    @Test
+    void turnOnlyChange() {
+        ChessGame playing = new ChessGame();
+        ChessGame resigned = new ChessGame();
+        resigned.setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+        BoardDelta delta = playing.diff(resigned);
+
+        assertEquals(0, delta.size());
+        assertFalse(delta.isEmpty());
+        playing.apply(delta);
+        assertEquals(ChessGame.TeamColor.RESIGNED, playing.getTeamTurn());
+    }
+}
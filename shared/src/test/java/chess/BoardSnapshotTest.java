@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSnapshotTest {
+
+    @Test
+    void capturesBoardAndSideToMove() {
+        ChessGame game = new ChessGame();
+        BoardSnapshot snapshot = game.snapshot();
+
+        assertEquals(game.getBoard(), snapshot.toBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, snapshot.getTeamTurn());
+        assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN), snapshot.getPiece(8, 4));
+        assertNull(snapshot.getPiece(new ChessPosition(4, 4)));
+        assertEquals(Zobrist.hash(game), snapshot.zobristKey());
+    }
+
+    @Test
+    void followsMovesIncrementally() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        BoardSnapshot before = game.snapshot();
+        String[] moves = {"e2e4", "d7d5", "e4d5", "d8d5", "b1c3", "d5a5"};
+        for (String move : moves) {
+            game.makeMove(move(move, null));
+            BoardSnapshot after = game.snapshot();
+            assertEquals(BoardSnapshot.of(game.getBoard(), game.getTeamTurn()), after);
+            assertEquals(Zobrist.hash(game), after.zobristKey());
+        }
+
+        // The first snapshot is untouched by the moves made since
+        assertEquals(new ChessGame().getBoard(), before.toBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, before.getTeamTurn());
+    }
+
+    @Test
+    void promotionAndCapture() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        BoardSnapshot snapshot = BoardSnapshot.of(board, ChessGame.TeamColor.WHITE)
+                .withMove(move("b7a8", ChessPiece.PieceType.QUEEN));
+
+        ChessBoard expected = new ChessBoard();
+        expected.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        assertEquals(expected, snapshot.toBoard());
+        assertEquals(Zobrist.hash(expected, ChessGame.TeamColor.BLACK), snapshot.zobristKey());
+    }
+
+    @Test
+    void resignationKeepsPosition() {
+        ChessGame game = new ChessGame();
+        BoardSnapshot playing = game.snapshot();
+        game.setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+        assertEquals(ChessGame.TeamColor.RESIGNED, game.snapshot().getTeamTurn());
+        assertEquals(playing.toBoard(), game.snapshot().toBoard());
+    }
+
+    private static ChessMove move(String text, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                new ChessPosition(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), promotion);
+    }
+}
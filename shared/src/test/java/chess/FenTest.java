@@ -0,0 +1,36 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+
+    @Test
+    void startPositionMatchesNewGame() {
+        ChessGame game = Fen.parse(Fen.START);
+
+        assertEquals(new ChessGame().getBoard(), game.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertEquals(Fen.START, Fen.toFen(game));
+    }
+
+    @Test
+    void roundTripsSideToMoveAndGaps() {
+        String fen = "4k3/8/2p5/3p4/8/8/8/3Q3K b - - 0 1";
+        ChessGame game = Fen.parse(fen);
+
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN),
+                game.getBoard().getPiece(new ChessPosition(1, 4)));
+        assertEquals(fen, Fen.toFen(game));
+    }
+
+    @Test
+    void rejectsMalformedPlacement() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("9/8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("4x3/8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 x"));
+    }
+}
@@ -0,0 +1,108 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestUtilities.loadBoard;
+
+class LegalMoveIteratorTest {
+
+    @Test
+    void matchesValidMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(allValidMoves(game), game.legalMoveStream().collect(Collectors.toSet()));
+        assertEquals(20, game.legalMoveStream().count());
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        assertEquals(allValidMoves(game), game.legalMoveStream().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void onlyEvasionsWhenInCheck() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |N| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |r| | | | | | |K|
+                """));
+
+        Set<ChessMove> moves = game.legalMoveStream().collect(Collectors.toSet());
+        assertEquals(allValidMoves(game), moves);
+        assertTrue(moves.stream().allMatch(move -> move.getStartPosition().equals(new ChessPosition(1, 8))));
+    }
+
+    @Test
+    void stalemateHasNoLegalMove() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertFalse(game.hasAnyLegalMove(ChessGame.TeamColor.BLACK));
+        assertTrue(game.hasAnyLegalMove(ChessGame.TeamColor.WHITE));
+        assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+        Iterator<ChessMove> moves = game.legalMoves();
+        assertFalse(moves.hasNext());
+    }
+
+    @Test
+    void isLegalChecksOneMove() {
+        ChessGame game = new ChessGame();
+        assertTrue(game.isLegal(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null)));
+        // Black piece on white's turn
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null)));
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(4, 4), new ChessPosition(5, 4), null)));
+    }
+
+    @Test
+    void pinnedPieceCannotMove() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |r| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |B| | | |
+                | | | | |K| | | |
+                """));
+
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(2, 5), new ChessPosition(3, 4), null)));
+        assertEquals(allValidMoves(game), game.legalMoveStream().collect(Collectors.toSet()));
+    }
+
+    private static Set<ChessMove> allValidMoves(ChessGame game) {
+        Set<ChessMove> moves = new HashSet<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,82 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    @Test
+    void matchesEvaluatorWithAndWithoutVectors() throws InvalidMoveException {
+        // Not a multiple of any vector width, so the tail is exercised too
+        int count = 301;
+        PositionBatch batch = new PositionBatch(count);
+        List<ChessBoard> boards = new ArrayList<>();
+        List<ChessGame.TeamColor> sides = new ArrayList<>();
+        Random random = new Random(11);
+        while (!batch.isFull()) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 60 && !batch.isFull(); ply++) {
+                List<ChessMove> moves = new ArrayList<>();
+                game.legalMoves().forEachRemaining(moves::add);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+                if (ply % 2 == 0) {
+                    batch.add(game.getBoard(), game.getTeamTurn());
+                } else {
+                    batch.add(game.snapshot());
+                }
+                boards.add(new ChessBoard(game.getBoard()));
+                sides.add(game.getTeamTurn());
+            }
+        }
+
+        int[] scalar = new int[count];
+        int[] vector = new int[count];
+        new BatchEvaluator(false).evaluate(batch, scalar);
+        new BatchEvaluator(true).evaluate(batch, vector);
+
+        Evaluator evaluator = new Evaluator();
+        for (int i = 0; i < count; i++) {
+            int expected = evaluator.evaluate(boards.get(i), sides.get(i));
+            assertEquals(expected, scalar[i], "scalar score of position " + i);
+            assertEquals(expected, vector[i], "vector score of position " + i);
+        }
+    }
+
+    @Test
+    void refilledBatchScoresNewPositions() {
+        PositionBatch batch = new PositionBatch(4);
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+        batch.add(start, ChessGame.TeamColor.WHITE);
+        batch.add(new ChessBoard(), ChessGame.TeamColor.BLACK);
+        assertThrows(IllegalStateException.class, () -> {
+            batch.add(start, ChessGame.TeamColor.WHITE);
+            batch.add(start, ChessGame.TeamColor.WHITE);
+            batch.add(start, ChessGame.TeamColor.WHITE);
+        });
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        ChessBoard rook = new ChessBoard();
+        rook.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        batch.add(rook, ChessGame.TeamColor.BLACK);
+
+        int[] scores = new int[1];
+        new BatchEvaluator().evaluate(batch, scores);
+        assertEquals(new Evaluator().evaluate(rook, ChessGame.TeamColor.BLACK), scores[0]);
+    }
+}
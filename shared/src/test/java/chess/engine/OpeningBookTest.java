@@ -0,0 +1,113 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.Zobrist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+    private static final String PGN = """
+            [Event "First"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {main line} Nc6 (2... d6 3. d4) 3. Bb5 a6 1-0
+
+            [Event "Second"]
+            [Result "0-1"]
+
+            1. e4 c5 2. Nf3 d6 0-1
+
+            [Event "Third"]
+            [Result "1/2-1/2"]
+
+            1. d4 d5 $1 2. c4 e6 1/2-1/2
+            """;
+
+    private OpeningBook book;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        OpeningBookCompiler compiler = new OpeningBookCompiler(4);
+        compiler.addGames(new StringReader(PGN));
+        Path file = Files.createTempFile("openings", ".book");
+        file.toFile().deleteOnExit();
+        compiler.write(file);
+        book = OpeningBook.open(file);
+    }
+
+    @Test
+    void mostPlayedMoveComesFirst() {
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+        assertEquals(2, book.count(Zobrist.hash(new ChessGame())));
+        assertEquals(e4, book.lookup(new ChessGame()));
+    }
+
+    @Test
+    void replyPositionsAreStored() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        assertEquals(2, book.count(Zobrist.hash(game)));
+        int move = book.bestMove(Zobrist.hash(game));
+        assertNotEquals(PackedMove.NONE, move);
+        assertEquals(ChessGame.TeamColor.BLACK, game.getBoard().getPiece(PackedMove.position(PackedMove.from(move))).getTeamColor());
+    }
+
+    @Test
+    void positionsPastMaxPlyAreNotStored() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+
+        assertEquals(-1, book.find(Zobrist.hash(game)));
+        assertEquals(PackedMove.NONE, book.bestMove(Zobrist.hash(game)));
+        assertEquals(11, book.size());
+    }
+
+    @Test
+    void searchPlaysBookMoveWithoutSearching() {
+        Search search = new Search(new ChessGame());
+        search.setOpeningBook(book);
+
+        SearchResult result = search.search(3);
+
+        assertEquals(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null), result.bestMove());
+        assertEquals(0, result.nodes());
+    }
+
+    @Test
+    void searchIgnoresIllegalBookMove() throws IOException {
+        // A book claiming e2-e5 from the start, as a corrupt file or a key collision could
+        ByteBuffer bytes = ByteBuffer.allocate(OpeningBook.HEADER_SIZE + OpeningBook.ENTRY_SIZE)
+                .putInt(OpeningBook.MAGIC)
+                .putInt(1)
+                .putLong(Zobrist.hash(new ChessGame()))
+                .putShort((short) PackedMove.pack(new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null)))
+                .putShort((short) 1);
+        Path file = Files.createTempFile("illegal", ".book");
+        file.toFile().deleteOnExit();
+        Files.write(file, bytes.array());
+        Search search = new Search(new ChessGame());
+        search.setOpeningBook(OpeningBook.open(file));
+
+        SearchResult result = search.search(1);
+
+        assertTrue(new ChessGame().isLegal(result.bestMove()));
+        assertTrue(result.nodes() + result.qnodes() > 0, "fell back to searching");
+    }
+}
@@ -0,0 +1,167 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestUtilities.loadBoard;
+
+class SearchTest {
+
+    @Test
+    void quiescenceDoesNotTakeDefendedPawnWithQueen() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |Q| | | |K|
+                """));
+
+        SearchResult result = new Search(game).search(1);
+
+        assertNotEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 0, "White is still a queen up");
+    }
+
+    @Test
+    void quiescenceResolvesHangingCapture() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | |K|
+                """));
+
+        // Standing pat is far worse than winning the queen
+        Search search = new Search(game);
+        assertTrue(search.quiesce() > 0);
+    }
+
+    @Test
+    void findsMateInOne() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """));
+
+        SearchResult result = new Search(game).search(2);
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertTrue(result.score() >= Search.MATE_SCORE - 10);
+    }
+
+    @Test
+    void stopsAtNodeLimitWithCompletedIteration() {
+        Search search = new Search(new ChessGame());
+        search.setNodeLimit(2000);
+
+        SearchResult result = search.search(20);
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() < 20);
+        assertTrue(result.nodes() + result.qnodes() <= 2000);
+    }
+
+    @Test
+    void stopsAtTimeLimit() {
+        Search search = new Search(new ChessGame());
+        search.setTimeLimit(50);
+
+        long start = System.nanoTime();
+        SearchResult result = search.search(30);
+
+        assertNotNull(result.bestMove());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L, "Search should stop near its 50ms budget");
+    }
+
+    @Test
+    void collectsStatisticsPerSearch() {
+        Search search = new Search(new ChessGame());
+        SearchMetrics metrics = new SearchMetrics();
+        search.setMetrics(metrics);
+
+        SearchResult result = search.search(3);
+        SearchStats stats = search.getStats();
+
+        assertEquals(result.nodes(), stats.nodes());
+        assertEquals(3, stats.iterationNodes().length);
+        assertTrue(stats.ttProbes() > 0);
+        assertTrue(stats.ttHits() <= stats.ttProbes());
+        assertTrue(stats.firstMoveCutoffs() <= stats.cutoffs());
+        assertTrue(stats.branchingFactor() > 1);
+        assertEquals(1, metrics.totals().searches());
+        assertEquals(stats.nodes(), metrics.totals().nodes());
+    }
+
+    @Test
+    void sharedTableIsHitOnRepeatSearch() {
+        TranspositionTable table = new TranspositionTable(16);
+        Search first = new Search(new ChessGame());
+        first.setTranspositionTable(table);
+        SearchResult cold = first.search(3);
+
+        Search second = new Search(new ChessGame());
+        second.setTranspositionTable(table);
+        SearchResult warm = second.search(3);
+
+        assertEquals(cold.bestMove(), warm.bestMove());
+        assertTrue(warm.nodes() < cold.nodes());
+        assertTrue(second.getStats().ttHitRate() > first.getStats().ttHitRate());
+    }
+
+    @Test
+    void searchLinesReturnsBestMovesInOrder() {
+        SearchResult single = new Search(new ChessGame()).search(3);
+        List<SearchLine> lines = new Search(new ChessGame()).searchLines(3, 3);
+
+        assertEquals(3, lines.size());
+        assertEquals(single.bestMove(), lines.get(0).moves().get(0));
+        assertEquals(single.score(), lines.get(0).score());
+        assertTrue(lines.get(0).score() >= lines.get(1).score());
+        assertTrue(lines.get(1).score() >= lines.get(2).score());
+        assertNotEquals(lines.get(0).moves().get(0), lines.get(1).moves().get(0));
+        assertTrue(lines.get(0).moves().size() > 1, "Line should continue past the root move");
+    }
+
+    @Test
+    void searchLinesStopsAtAvailableMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        // The black king has only g8 (h7, g7 are covered by the white king)
+        List<SearchLine> lines = new Search(game).searchLines(2, 5);
+
+        assertEquals(1, lines.size());
+    }
+}
@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestUtilities.loadBoard;
+
+class StaticExchangeTest {
+
+    @Test
+    void undefendedPieceWinsItsValue() {
+        ChessBoard board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | |K|
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null);
+
+        assertEquals(Evaluator.KNIGHT_VALUE, StaticExchange.evaluate(board, capture));
+        assertFalse(StaticExchange.isLosing(board, capture));
+    }
+
+    @Test
+    void queenTakingDefendedPawnLoses() {
+        ChessBoard board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |Q| | | |K|
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null);
+
+        assertEquals(Evaluator.PAWN_VALUE - Evaluator.QUEEN_VALUE, StaticExchange.evaluate(board, capture));
+        assertTrue(StaticExchange.isLosing(board, capture));
+    }
+
+    @Test
+    void xrayBatteryIsCounted() {
+        // Doubled rooks against a single rook defender: the exchange wins a pawn
+        ChessBoard board = loadBoard("""
+                | | | |r| | |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | | |
+                | | | |R| | | |K|
+                """);
+        ChessMove capture = new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null);
+
+        assertEquals(Evaluator.PAWN_VALUE, StaticExchange.evaluate(board, capture));
+    }
+
+    @Test
+    void boardIsLeftUntouched() {
+        ChessBoard board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |Q| | | |K|
+                """);
+        ChessBoard before = new ChessBoard(board);
+
+        StaticExchange.evaluate(board, new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null));
+
+        assertEquals(before, board);
+    }
+}
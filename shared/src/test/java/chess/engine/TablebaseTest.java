@@ -0,0 +1,189 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestUtilities.loadBoard;
+
+class TablebaseTest {
+    private static Tablebase krk;
+    private static Tablebase rigged;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        if (krk == null) {
+            Path file = Files.createTempFile("KRK", ".tb");
+            file.toFile().deleteOnExit();
+            new TablebaseGenerator("KRK", Map.of()).generate(file);
+            krk = Tablebase.open(file);
+        }
+        if (rigged == null) {
+            // Against a stand-in for bare kings in which the side to move always mates in 9
+            rigged = generateWith("KRK", kingsWinningIn(9));
+        }
+    }
+
+    @Test
+    void checkmateIsLossInZero() {
+        ChessBoard board = loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """);
+        // Not mate yet with white to move, but Ra8 mates
+        assertEquals(Search.MATE_SCORE - 1, krk.probe(board, ChessGame.TeamColor.WHITE));
+
+        board.addPiece(new ChessPosition(1, 1), null);
+        board.addPiece(new ChessPosition(8, 1), new chess.ChessPiece(ChessGame.TeamColor.WHITE, chess.ChessPiece.PieceType.ROOK));
+        assertEquals(-Search.MATE_SCORE, krk.probe(board, ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void hangingRookIsDrawn() {
+        ChessBoard board = loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | |R| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """);
+
+        assertEquals(0, krk.probe(board, ChessGame.TeamColor.BLACK));
+        assertTrue(krk.probe(board, ChessGame.TeamColor.WHITE) > 0);
+    }
+
+    @Test
+    void mirroredColoursAreProbed() {
+        ChessBoard board = loadBoard("""
+                |r| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """);
+
+        assertEquals(Search.MATE_SCORE - 1, krk.probe(board, ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void otherMaterialIsUnknown() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        assertEquals(Tablebase.UNKNOWN, krk.probe(board, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void searchPlaysMateFromTables() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """));
+        Tablebases tablebases = new Tablebases();
+        tablebases.add(krk);
+        Search search = new Search(game);
+        search.setTablebases(tablebases);
+
+        SearchResult result = search.search(4);
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Search.MATE_SCORE - 1, result.score());
+        assertEquals(0, result.nodes());
+    }
+
+    @Test
+    void forcedCaptureIntoLossIsLost() {
+        ChessBoard board = loadBoard("""
+                |k| | | | | | | |
+                | |R| | | | | | |
+                | | | | | | | | |
+                | | |K| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+
+        // Kxb7 is black's only move
+        assertEquals(-(Search.MATE_SCORE - 10), rigged.probe(board, ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void loserTakesTheSlowestLossOutOfTheTable() {
+        ChessBoard board = loadBoard("""
+                | | | | | | | | |
+                |k|R| | | | | | |
+                | | | | | | | | |
+                | | |K| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        // Black can also go to a8 or a6, staying in the table
+        int slowestInTable = 0;
+        for (ChessPosition to : new ChessPosition[]{new ChessPosition(8, 1), new ChessPosition(6, 1)}) {
+            ChessBoard after = new ChessBoard(board);
+            after.addPiece(to, after.getPiece(new ChessPosition(7, 1)));
+            after.addPiece(new ChessPosition(7, 1), null);
+            slowestInTable = Math.max(slowestInTable, Search.MATE_SCORE - rigged.probe(after, ChessGame.TeamColor.WHITE));
+        }
+
+        int plies = Math.max(10, slowestInTable + 1);
+        assertEquals(-(Search.MATE_SCORE - plies), rigged.probe(board, ChessGame.TeamColor.BLACK));
+    }
+
+    private static Tablebase generateWith(String signature, Tablebase dependency) throws IOException {
+        Path file = Files.createTempFile(signature, ".tb");
+        file.toFile().deleteOnExit();
+        new TablebaseGenerator(signature, Map.of(dependency.signature(), dependency)).generate(file);
+        return Tablebase.open(file);
+    }
+
+    private static Tablebase kingsWinningIn(int plies) throws IOException {
+        Path file = Files.createTempFile("KK", ".tb");
+        file.toFile().deleteOnExit();
+        byte[] values = new byte[(int) Tablebase.size(2)];
+        Arrays.fill(values, (byte) plies);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(2);
+            out.writeByte(Tablebase.encodePiece(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)));
+            out.writeByte(Tablebase.encodePiece(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)));
+            out.write(new byte[Tablebase.MAX_PIECES - 2]);
+            out.write(values);
+        }
+        return Tablebase.open(file);
+    }
+}
@@ -0,0 +1,154 @@
+package chess.index;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Zobrist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+    private static final String PGN = """
+            [Event "One"]
+
+            1. e4 e5 2. Nf3 Nc6 1-0
+
+            [Event "Two"]
+
+            1. Nf3 Nc6 2. e4 e5 0-1
+
+            [Event "Three"]
+
+            1. d4 d5 *
+            """;
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("positions");
+    }
+
+    @Test
+    void findsTranspositions() throws IOException, InvalidMoveException {
+        PositionIndex index = build(16);
+
+        ChessGame game = new ChessGame();
+        play(game, "e2e4", "e7e5", "g1f3", "b8c6");
+        List<PositionHit> hits = index.lookup(game, 10);
+
+        assertEquals(List.of(new PositionHit(1, 4), new PositionHit(2, 4)), hits);
+        assertEquals(3, index.count(Zobrist.hash(new ChessGame())));
+        assertEquals(5 + 5 + 3, index.size());
+    }
+
+    @Test
+    void missingPositionHasNoHits() throws IOException, InvalidMoveException {
+        PositionIndex index = build(4);
+        ChessGame game = new ChessGame();
+        play(game, "a2a3");
+
+        assertEquals(-1, index.find(Zobrist.hash(game)));
+        assertTrue(index.lookup(game, 10).isEmpty());
+    }
+
+    @Test
+    void lookupAcrossSparseBlocks() throws IOException {
+        Path path = dir.resolve("many.idx");
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(1000)) {
+            for (int i = 0; i < 5000; i++) {
+                builder.add(i / 3, i, i % 3);
+            }
+            assertEquals(5000, builder.write(path));
+        }
+        PositionIndex index = PositionIndex.open(path);
+
+        for (long key = 0; key < 1667; key += 97) {
+            List<PositionHit> hits = index.lookup(key, 10);
+            assertEquals(key == 1666 ? 2 : 3, hits.size(), "key " + key);
+            assertEquals((int) key * 3, hits.get(0).gameId());
+        }
+        assertEquals(-1, index.find(-5));
+        assertEquals(-1, index.find(1667));
+    }
+
+    @Test
+    void liveIndexRecordsAndCompacts() throws IOException, InvalidMoveException {
+        LivePositionIndex live = new LivePositionIndex(build(64));
+        ChessGame game = new ChessGame();
+        play(game, "d2d4", "d7d5");
+        live.record(7, game);
+
+        assertEquals(List.of(new PositionHit(3, 2), new PositionHit(7, 2)), live.lookup(game, 10));
+        assertEquals(1, live.recentSize());
+
+        live.compact(dir.resolve("compacted.idx"));
+
+        assertEquals(0, live.recentSize());
+        assertEquals(List.of(new PositionHit(3, 2), new PositionHit(7, 2)), live.lookup(game, 10));
+    }
+
+    @Test
+    void compactsOntoItsOwnFileWithoutDuplicates() throws IOException, InvalidMoveException {
+        Path path = dir.resolve("live.idx");
+        LivePositionIndex live = new LivePositionIndex();
+        ChessGame game = new ChessGame();
+        play(game, "e2e4");
+        live.record(5, game);
+        live.compact(path);
+
+        // The same position again, as when a game is indexed in bulk after its moves were recorded
+        live.record(5, game);
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(16)) {
+            builder.addGame(6, game.getMoveHistory());
+            assertTrue(live.compact(path, builder, live.generation()));
+        }
+
+        assertEquals(List.of(new PositionHit(5, 1), new PositionHit(6, 1)), live.lookup(game, 10));
+        assertEquals(List.of(new PositionHit(5, 1), new PositionHit(6, 1)),
+                PositionIndex.open(path).lookup(game, 10));
+    }
+
+    @Test
+    void bulkIndexStartedBeforeClearIsDropped() throws IOException, InvalidMoveException {
+        LivePositionIndex live = new LivePositionIndex();
+        long generation = live.generation();
+        ChessGame game = new ChessGame();
+        play(game, "e2e4");
+        live.clear();
+
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(16)) {
+            builder.addGame(6, game.getMoveHistory());
+            assertFalse(live.compact(dir.resolve("stale.idx"), builder, generation));
+        }
+        assertTrue(live.lookup(game, 10).isEmpty());
+    }
+
+    private PositionIndex build(int runSize) throws IOException {
+        Path path = dir.resolve("games.idx");
+        try (PositionIndexBuilder builder = new PositionIndexBuilder(runSize)) {
+            assertEquals(4, builder.addGames(new StringReader(PGN), 1));
+            builder.write(path);
+        }
+        return PositionIndex.open(path);
+    }
+
+    private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            game.makeMove(new ChessMove(square(move.substring(0, 2)), square(move.substring(2, 4)), null));
+        }
+    }
+
+    private static ChessPosition square(String name) {
+        return new ChessPosition(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+}
@@ -0,0 +1,89 @@
+package chess.replay;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameReplayerTest {
+    private static final List<String> SCHOLARS_MATE = List.of("e4", "e5", "Bc4", "Nc6", "Qh5", "Nf6", "Qxf7");
+
+    @Test
+    void replaysSanToCheckmate() throws InterruptedException {
+        ReplayReport report = new GameReplayer().replay(List.of(ReplayGame.ofSan("mate", SCHOLARS_MATE)).iterator());
+
+        assertEquals(1, report.games());
+        assertEquals(7, report.moves());
+        assertEquals(1, (long) report.statusCounts().get(ReplayStatus.CHECKMATE));
+        assertTrue(report.failures().isEmpty());
+    }
+
+    @Test
+    void reportsIllegalMoveWithPly() throws InterruptedException {
+        ReplayReport report = new GameReplayer().replay(
+                List.of(ReplayGame.ofSan("bad", List.of("e4", "e5", "Ke3"))).iterator());
+
+        assertEquals(1, (long) report.statusCounts().get(ReplayStatus.ILLEGAL_MOVE));
+        assertEquals(1, report.failures().size());
+        ReplayFailure failure = report.failures().get(0);
+        assertEquals("bad", failure.gameId());
+        assertEquals(2, failure.ply());
+    }
+
+    @Test
+    void comparesFinalBoard() throws InterruptedException {
+        List<ChessMove> moves = List.of(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessBoard afterMove = new ChessBoard();
+        afterMove.resetBoard();
+        afterMove.addPiece(new ChessPosition(4, 5), afterMove.getPiece(new ChessPosition(2, 5)));
+        afterMove.addPiece(new ChessPosition(2, 5), null);
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+
+        ReplayReport report = new GameReplayer().replay(List.of(
+                ReplayGame.ofMoves("match", moves, afterMove),
+                ReplayGame.ofMoves("stale", moves, start)).iterator());
+
+        assertEquals(1, (long) report.statusCounts().get(ReplayStatus.IN_PROGRESS));
+        assertEquals(1, (long) report.statusCounts().get(ReplayStatus.BOARD_MISMATCH));
+        assertEquals("stale", report.failures().get(0).gameId());
+    }
+
+    @Test
+    void replaysManyGamesAcrossBatches() throws InterruptedException {
+        List<ReplayGame> games = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            games.add(ReplayGame.ofSan("g" + i, i % 2 == 0 ? SCHOLARS_MATE : List.of("d4", "d5")));
+        }
+        ReplayReport report = new GameReplayer(new ForkJoinPool(4)).replay(games.iterator());
+
+        assertEquals(2000, report.games());
+        assertEquals(1000 * 7 + 1000 * 2, report.moves());
+        assertEquals(1000, (long) report.statusCounts().get(ReplayStatus.CHECKMATE));
+        assertEquals(1000, (long) report.statusCounts().get(ReplayStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void readsPgn() throws InterruptedException {
+        String pgn = """
+                [Event "One"]
+
+                1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+                [Event "Two"]
+
+                1. d4 d5 *
+                """;
+        ReplayReport report = new GameReplayer().replayPgn(new StringReader(pgn), "test.pgn");
+
+        assertEquals(2, report.games());
+        assertEquals(1, (long) report.statusCounts().get(ReplayStatus.CHECKMATE));
+    }
+}
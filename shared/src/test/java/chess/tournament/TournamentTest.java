@@ -0,0 +1,58 @@
+package chess.tournament;
+
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void playsEveryGameWithColoursSwapped() throws InterruptedException {
+        Tournament tournament = new Tournament(EngineConfig.depth("a", 1), EngineConfig.depth("b", 1), 2);
+        tournament.setMaxPlies(10);
+
+        TournamentReport report = tournament.run(List.of(Fen.START), 4);
+
+        assertEquals(4, report.games());
+        assertTrue(report.moves() > 0);
+        assertTrue(report.nodes() > 0);
+        assertTrue(report.moveTimeNanos()[0] <= report.moveTimeNanos()[3]);
+    }
+
+    @Test
+    void strongerEngineWinsMatedPositions() throws InterruptedException {
+        // White mates at once with Ra8, so whoever has white wins every game
+        Tournament tournament = new Tournament(EngineConfig.depth("a", 2), EngineConfig.depth("b", 2), 1);
+        TournamentReport report = tournament.run(List.of("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 2);
+
+        assertEquals(1, report.wins());
+        assertEquals(1, report.losses());
+        assertEquals(0.5, report.score());
+        assertEquals(0.0, report.eloDifference(), 1e-9);
+    }
+
+    @Test
+    void reportsEloFromScore() {
+        EngineConfig config = EngineConfig.depth("a", 1);
+        long[] times = new long[4];
+        TournamentReport even = new TournamentReport(config, config, 10, 0, 10, 0, 0, 0, times, 0);
+        TournamentReport ahead = new TournamentReport(config, config, 75, 0, 25, 0, 0, 0, times, 0);
+
+        assertEquals(0.0, even.eloDifference(), 1e-9);
+        assertEquals(190.8, ahead.eloDifference(), 0.1);
+        assertTrue(ahead.eloMargin() > 0 && ahead.eloMargin() < ahead.eloDifference());
+    }
+
+    @Test
+    void parsesEngineSpecs() {
+        EngineConfig config = EngineConfig.parse("x", "depth=6,nodes=5000");
+
+        assertEquals(6, config.depth());
+        assertEquals(5000, config.nodeLimit());
+        assertEquals(Long.MAX_VALUE, config.moveTime());
+        assertThrows(IllegalArgumentException.class, () -> EngineConfig.parse("x", "speed=fast"));
+    }
+}
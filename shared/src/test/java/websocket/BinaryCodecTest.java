@@ -0,0 +1,96 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.commands.LeaveCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.ResumeCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    @Test
+    void commandsDecodeToTheirOwnClass() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1),
+                ChessPiece.PieceType.QUEEN);
+
+        UserGameCommand move = BinaryCodec.decodeCommand(
+                BinaryCodec.encode(new MakeMoveCommand("token", 7, promotion)));
+        MakeMoveCommand decoded = assertInstanceOf(MakeMoveCommand.class, move);
+        assertEquals("token", decoded.getAuthToken());
+        assertEquals(7, (int) decoded.getGameID());
+        assertEquals(promotion, decoded.getMove());
+
+        ConnectCommand connect = assertInstanceOf(ConnectCommand.class,
+                BinaryCodec.decodeCommand(BinaryCodec.encode(new ConnectCommand("t", 3, true))));
+        assertTrue(connect.wantsMoveDeltas());
+
+        ResumeCommand resume = assertInstanceOf(ResumeCommand.class,
+                BinaryCodec.decodeCommand(BinaryCodec.encode(new ResumeCommand("t", 3, 42, false))));
+        assertEquals(42L, resume.getLastSequence());
+        assertFalse(resume.wantsMoveDeltas());
+
+        LeaveCommand leave = assertInstanceOf(LeaveCommand.class,
+                BinaryCodec.decodeCommand(BinaryCodec.encode(new LeaveCommand(null, null))));
+        assertNull(leave.getAuthToken());
+        assertNull(leave.getGameID());
+    }
+
+    @Test
+    void gameSurvivesRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        LoadGameMessage message = new LoadGameMessage(game);
+        message.setSequence(12);
+
+        ByteBuffer frame = BinaryCodec.encode(message);
+        assertTrue(frame.remaining() < 64, "frame is " + frame.remaining() + " bytes");
+        LoadGameMessage decoded = assertInstanceOf(LoadGameMessage.class, BinaryCodec.decodeMessage(frame));
+
+        assertEquals(12L, (long) decoded.getSequence());
+        assertEquals(game.getBoard(), decoded.getGame().getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getGame().getTeamTurn());
+        assertEquals(game.getMoveHistory(), decoded.getGame().getMoveHistory());
+        assertEquals(game.snapshot(), decoded.getGame().snapshot());
+    }
+
+    @Test
+    void messagesKeepTheirFields() {
+        ChessMove move = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        MoveMessage decoded = assertInstanceOf(MoveMessage.class, BinaryCodec.decodeMessage(
+                BinaryCodec.encode(new MoveMessage(move, -5L, MoveMessage.GameStatus.CHECK, 9))));
+        assertEquals(move, decoded.getMove());
+        assertEquals(-5L, decoded.getHash());
+        assertEquals(MoveMessage.GameStatus.CHECK, decoded.getStatus());
+        assertEquals(9, decoded.getPly());
+        assertNull(decoded.getSequence());
+
+        NotificationMessage note = assertInstanceOf(NotificationMessage.class, BinaryCodec.decodeMessage(
+                BinaryCodec.encode(new NotificationMessage("white moved e2-e4 ♙"))));
+        assertEquals("white moved e2-e4 ♙", note.getMessage());
+        assertEquals(ServerMessage.ServerMessageType.NOTIFICATION, note.getServerMessageType());
+    }
+
+    @Test
+    void malformedFramesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{99})));
+        ByteBuffer truncated = BinaryCodec.encode(new MakeMoveCommand("token", 1, null));
+        truncated.limit(truncated.limit() - 1);
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCommand(truncated));
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeMessage(ByteBuffer.wrap(new byte[3])));
+    }
+}
@@ -0,0 +1,62 @@
+package websocket.commands;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTypeAdapterFactoryTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new CommandTypeAdapterFactory())
+            .create();
+
+    @Test
+    void readsConcreteCommandWhateverTheFieldOrder() {
+        String json = "{\"move\":{\"startPosition\":{\"row\":7,\"col\":2},\"endPosition\":{\"row\":8,\"col\":2},"
+                + "\"promotionPiece\":\"KNIGHT\"},\"gameID\":4,\"extra\":[1,{\"a\":2}],"
+                + "\"authToken\":\"abc\",\"commandType\":\"MAKE_MOVE\"}";
+
+        MakeMoveCommand command = assertInstanceOf(MakeMoveCommand.class, gson.fromJson(json, UserGameCommand.class));
+
+        assertEquals("abc", command.getAuthToken());
+        assertEquals(4, (int) command.getGameID());
+        assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT),
+                command.getMove());
+    }
+
+    @Test
+    void roundTripsEveryCommand() {
+        UserGameCommand[] commands = {
+                new ConnectCommand("t", 1, true),
+                new MakeMoveCommand("t", 1, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)),
+                new LeaveCommand("t", 1),
+                new ResignCommand("t", 1),
+                new SyncCommand("t", 1),
+                new ResumeCommand("t", 1, 17, true),
+        };
+        for (UserGameCommand command : commands) {
+            UserGameCommand read = gson.fromJson(gson.toJson(command, UserGameCommand.class), UserGameCommand.class);
+            assertSame(command.getClass(), read.getClass());
+            assertEquals(command, read);
+        }
+
+        ResumeCommand resume = (ResumeCommand) gson.fromJson(gson.toJson(commands[5]), UserGameCommand.class);
+        assertEquals(17L, resume.getLastSequence());
+        assertTrue(resume.wantsMoveDeltas());
+        assertTrue(((ConnectCommand) gson.fromJson(gson.toJson(commands[0]), UserGameCommand.class)).wantsMoveDeltas());
+    }
+
+    @Test
+    void rejectsMissingOrUnknownType() {
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"authToken\":\"t\",\"gameID\":1}", UserGameCommand.class));
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"commandType\":\"DANCE\"}", UserGameCommand.class));
+        assertNull(gson.fromJson("null", UserGameCommand.class));
+    }
+}
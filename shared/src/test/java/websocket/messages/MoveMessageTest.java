@@ -0,0 +1,61 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveMessageTest {
+
+    @Test
+    void describesAnOrdinaryMove() throws Exception {
+        ChessGame game = new ChessGame();
+        ChessMove move = move(2, 5, 4, 5);
+        game.makeMove(move);
+
+        MoveMessage message = MoveMessage.after(game, move);
+
+        assertEquals(ServerMessage.ServerMessageType.MOVE, message.getServerMessageType());
+        assertEquals(move, message.getMove());
+        assertEquals(1, message.getPly());
+        assertEquals(game.snapshot().zobristKey(), message.getHash());
+        assertEquals(MoveMessage.GameStatus.IN_PROGRESS, message.getStatus());
+    }
+
+    @Test
+    void reportsCheck() throws Exception {
+        // 1. e4 f5 2. Qh5+, which black can block with g6
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 6, 5, 6));
+        ChessMove check = move(1, 4, 5, 8);
+        game.makeMove(check);
+
+        MoveMessage message = MoveMessage.after(game, check);
+
+        assertEquals(MoveMessage.GameStatus.CHECK, message.getStatus());
+        assertEquals(3, message.getPly());
+    }
+
+    @Test
+    void reportsCheckmate() throws Exception {
+        // Fool's mate
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        ChessMove mate = move(8, 4, 4, 8);
+        game.makeMove(mate);
+
+        MoveMessage message = MoveMessage.after(game, mate);
+
+        assertEquals(MoveMessage.GameStatus.CHECKMATE, message.getStatus());
+        assertEquals(4, message.getPly());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}